@@ -0,0 +1,85 @@
+package com.stars;
+
+import com.stars.BenchData.Dataset;
+import com.stars.evaluation.BatchEvaluator;
+import com.stars.io.MappedInput;
+import com.stars.io.ResultEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunk of lines: one line at a time against the struct of arrays batches,
+ * scalar and with the Vector API, the score is lines per second
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchBenchmark {
+    private static final int LINES = 1024;
+
+    @Param({"RANDOM", "FLUSH_HEAVY", "ACE_HEAVY_LOW", "MULTI_WAY"})
+    public Dataset dataset;
+
+    private final Processor processor = new Processor();
+    private final Processor scalar = new Processor(null, null, BatchEvaluator.scalar());
+    private final Processor vector = new Processor(null, null, BatchEvaluator.create());
+    private final ResultEncoder encoder = new ResultEncoder(1 << 20);
+    private ByteBuffer input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        for (String line : BenchData.lines(dataset, LINES)) {
+            text.append(line).append('\n');
+        }
+        input = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public int processor() {
+        encoder.clear();
+        int limit = input.limit();
+        int position = 0;
+        while (position < limit) {
+            int lineEnd = MappedInput.lineEnd(input, position, limit);
+            processor.processLine(input, position, lineEnd, encoder);
+            encoder.newLine();
+            position = MappedInput.nextLine(input, lineEnd, limit);
+        }
+        return position;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ResultEncoder batchScalar() {
+        encoder.clear();
+        scalar.processBatch(input, 0, input.limit(), encoder);
+        return encoder;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public ResultEncoder batchVector() {
+        encoder.clear();
+        vector.processBatch(input, 0, input.limit(), encoder);
+        return encoder;
+    }
+}
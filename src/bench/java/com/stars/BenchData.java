@@ -0,0 +1,184 @@
+package com.stars;
+
+import com.stars.entities.PackedCard;
+
+import java.util.Random;
+
+/**
+ * Reproducible benchmark input
+ *
+ * Every data set is generated from a fixed seed, so the same deals are
+ * evaluated on every run and the results of two builds can be compared.
+ */
+public class BenchData {
+    public static final long SEED = 20181;
+
+    /**
+     * Kind of the generated deals
+     */
+    public enum Dataset {
+        /** uniformly random heads up deals */
+        RANDOM,
+        /** boards with 3 or more cards of one suit, every hand holds 2 of that suit */
+        FLUSH_HEAVY,
+        /** boards with 4 low cards including an ace, hands full of aces and low cards */
+        ACE_HEAVY_LOW,
+        /** random deals with 10 hands */
+        MULTI_WAY
+    }
+
+    private static final int ACE = PackedCard.ACE;
+
+    private final Random random;
+    private final boolean[] used = new boolean[PackedCard.DECK_SIZE];
+
+    private BenchData(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Generate input lines
+     *
+     * @param dataset kind of the deals
+     * @param count number of lines
+     * @return lines in the input format
+     */
+    public static String[] lines(Dataset dataset, int count) {
+        BenchData data = new BenchData(SEED + dataset.ordinal());
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = data.line(dataset);
+        }
+        return lines;
+    }
+
+    /**
+     * Generate deals as packed cards, the board is the last entry of every deal
+     *
+     * @param dataset kind of the deals
+     * @param count number of deals
+     * @return packed cards of the hands and the board
+     */
+    public static int[][][] deals(Dataset dataset, int count) {
+        BenchData data = new BenchData(SEED + dataset.ordinal());
+        int[][][] deals = new int[count][][];
+        for (int i = 0; i < count; i++) {
+            deals[i] = data.deal(dataset);
+        }
+        return deals;
+    }
+
+    private String line(Dataset dataset) {
+        int[][] deal = deal(dataset);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < deal.length; i++) {
+            boolean board = i == deal.length - 1;
+            if (i > 0) {
+                line.append(' ');
+            }
+            line.append(board ? Constants.BOARD : "Hand" + (char) ('A' + i)).append(':');
+            for (int c = 0; c < deal[i].length; c++) {
+                if (c > 0) {
+                    line.append('-');
+                }
+                line.append(PackedCard.toString(deal[i][c]));
+            }
+        }
+        return line.toString();
+    }
+
+    private int[][] deal(Dataset dataset) {
+        for (int i = 0; i < used.length; i++) {
+            used[i] = false;
+        }
+        int players = dataset == Dataset.MULTI_WAY ? Constants.MAX_PLAYERS : Constants.MIN_PLAYERS;
+        int[][] deal = new int[players + 1][];
+        int[] board = new int[5];
+        deal[players] = board;
+        switch (dataset) {
+            case FLUSH_HEAVY: {
+                int suit = random.nextInt(4);
+                int suited = 3 + random.nextInt(3);
+                for (int c = 0; c < board.length; c++) {
+                    board[c] = c < suited ? drawSuit(suit) : draw();
+                }
+                for (int p = 0; p < players; p++) {
+                    deal[p] = new int[] {drawSuit(suit), drawSuit(suit), draw(), draw()};
+                }
+                break;
+            }
+            case ACE_HEAVY_LOW: {
+                board[0] = drawRank(ACE);
+                for (int c = 1; c < board.length; c++) {
+                    board[c] = c < 4 ? drawLow() : draw();
+                }
+                for (int p = 0; p < players; p++) {
+                    deal[p] = new int[] {drawRank(ACE), drawLow(), drawLow(), draw()};
+                }
+                break;
+            }
+            default: {
+                for (int c = 0; c < board.length; c++) {
+                    board[c] = draw();
+                }
+                for (int p = 0; p < players; p++) {
+                    deal[p] = new int[] {draw(), draw(), draw(), draw()};
+                }
+            }
+        }
+        shuffle(board);
+        return deal;
+    }
+
+    private int draw() {
+        return take(0, PackedCard.DECK_SIZE, 1);
+    }
+
+    private int drawSuit(int suit) {
+        int card = take(suit, PackedCard.DECK_SIZE, 4);
+        return card != PackedCard.INVALID ? card : draw();
+    }
+
+    private int drawRank(int rank) {
+        int card = take(rank * 4, rank * 4 + 4, 1);
+        return card != PackedCard.INVALID ? card : drawLow();
+    }
+
+    private int drawLow() {
+        // A-8: the aces and the deuces up to the eights
+        int card = random.nextInt(8) == 0 ? take(ACE * 4, ACE * 4 + 4, 1) : take(0, 7 * 4, 1);
+        return card != PackedCard.INVALID ? card : draw();
+    }
+
+    /**
+     * Random unused card with deck index from..to by step
+     */
+    private int take(int from, int to, int step) {
+        int free = 0;
+        for (int i = from; i < to; i += step) {
+            if (!used[i]) {
+                free++;
+            }
+        }
+        if (free == 0) {
+            return PackedCard.INVALID;
+        }
+        int pick = random.nextInt(free);
+        for (int i = from; i < to; i += step) {
+            if (!used[i] && pick-- == 0) {
+                used[i] = true;
+                return PackedCard.fromIndex(i);
+            }
+        }
+        return PackedCard.INVALID;
+    }
+
+    private void shuffle(int[] cards) {
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.stars;
+
+import com.stars.BenchData.Dataset;
+import com.stars.cache.DealCache;
+import com.stars.io.ResultEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line processing when every deal is already cached
+ *
+ * Compare with {@link ProcessorBenchmark#processLine()} to see the cost of
+ * a hit against a full evaluation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+    private static final int LINES = 1024;
+
+    @Param({"RANDOM", "MULTI_WAY"})
+    public Dataset dataset;
+
+    private Processor processor;
+    private final ResultEncoder encoder = new ResultEncoder(256);
+    private ByteBuffer input;
+    private final int[] starts = new int[LINES];
+    private final int[] ends = new int[LINES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] lines = BenchData.lines(dataset, LINES);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            starts[i] = text.length();
+            text.append(lines[i]);
+            ends[i] = text.length();
+            text.append('\n');
+        }
+        input = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII));
+        processor = new Processor(null, new DealCache(LINES * 2));
+        for (int i = 0; i < LINES; i++) {
+            processLine();
+        }
+    }
+
+    @Benchmark
+    public int processLine() {
+        int line = next++ & (LINES - 1);
+        encoder.clear();
+        processor.processLine(input, starts[line], ends[line], encoder);
+        return line;
+    }
+}
@@ -0,0 +1,113 @@
+package com.stars;
+
+import com.stars.BenchData.Dataset;
+import com.stars.entities.Board;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import com.stars.evaluation.Combinations;
+import com.stars.evaluation.HandEvaluator;
+import com.stars.evaluation.HiEvaluator;
+import com.stars.evaluation.LoEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hi and Lo evaluation of 5 card hands and of a full Omaha hand
+ *
+ * The 5 card hands are all the hole pair and board triple combinations
+ * of the first hand of every generated deal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    private static final int DEALS = 1024;
+    private static final int COMBINATIONS = 60;
+    private static final int FIVES = DEALS * COMBINATIONS;
+
+    @Param({"RANDOM", "FLUSH_HEAVY", "ACE_HEAVY_LOW"})
+    public Dataset dataset;
+
+    private final int[] fives = new int[FIVES * 5];
+    private final int[] ranks = new int[FIVES];
+    private final int[] suits = new int[FIVES];
+    private final int[] products = new int[FIVES];
+    private final int[] lows = new int[FIVES];
+    private final Hand[] hands = new Hand[DEALS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[][][] deals = BenchData.deals(dataset, DEALS);
+        int five = 0;
+        for (int i = 0; i < DEALS; i++) {
+            Board board = new Board();
+            System.arraycopy(deals[i][deals[i].length - 1], 0, board.getCards(), 0, Combinations.BOARD_CARDS);
+            board.prepare();
+            Hand hand = new Hand(board);
+            System.arraycopy(deals[i][0], 0, hand.getHand(), 0, Combinations.HOLE_CARDS);
+            hands[i] = hand;
+            for (int pair = 0; pair < Combinations.HOLE_PAIRS.length; pair += 2) {
+                int first = hand.getHand()[Combinations.HOLE_PAIRS[pair]];
+                int second = hand.getHand()[Combinations.HOLE_PAIRS[pair + 1]];
+                for (int triple = 0; triple < board.getTriples(); triple++) {
+                    fives[five * 5] = first;
+                    fives[five * 5 + 1] = second;
+                    for (int c = 0; c < 3; c++) {
+                        fives[five * 5 + 2 + c] = board.getCards()[Combinations.BOARD_TRIPLES[triple * 3 + c]];
+                    }
+                    ranks[five] = PackedCard.rankBit(first | second) | board.getTripleRanks(triple);
+                    suits[five] = PackedCard.suitBit(first & second) & board.getTripleSuits(triple);
+                    products[five] = PackedCard.prime(first) * PackedCard.prime(second) * board.getTripleProduct(triple);
+                    lows[five] = PackedCard.lowBit(first) | PackedCard.lowBit(second) | board.getTripleLow(triple);
+                    five++;
+                }
+            }
+        }
+    }
+
+    private int nextFive() {
+        int five = next;
+        next = five + 1 == FIVES ? 0 : five + 1;
+        return five;
+    }
+
+    @Benchmark
+    public int hiCards() {
+        int five = nextFive() * 5;
+        return HiEvaluator.evaluate(fives[five], fives[five + 1], fives[five + 2], fives[five + 3], fives[five + 4]);
+    }
+
+    @Benchmark
+    public int hiFeatures() {
+        int five = nextFive();
+        return HiEvaluator.evaluate(ranks[five], suits[five], products[five]);
+    }
+
+    @Benchmark
+    public int lo() {
+        return LoEvaluator.evaluate(lows[nextFive()]);
+    }
+
+    @Benchmark
+    public int omahaHand() {
+        Hand hand = hands[next++ & (DEALS - 1)];
+        hand.reset();
+        HandEvaluator.evaluate(hand);
+        return hand.getHiScore() + hand.getLoScore();
+    }
+}
@@ -0,0 +1,101 @@
+package com.stars;
+
+import com.stars.BenchData.Dataset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end file throughput, the score is in lines per second
+ *
+ * The input file is generated once per trial and the results are discarded.
+ * Threads 0 uses all available processors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileBenchmark {
+    private static final int LINES = 100000;
+
+    @Param({"RANDOM", "MULTI_WAY"})
+    public Dataset dataset;
+
+    @Param({"1", "0"})
+    public int threads;
+
+    private Path input;
+    private BatchProcessor processor;
+    private final Sink output = new Sink();
+
+    @Setup
+    public void setUp() throws IOException {
+        input = Files.createTempFile("omaha-bench", ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.US_ASCII)) {
+            for (String line : BenchData.lines(dataset, LINES)) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        processor = new BatchProcessor(threads < 1 ? Runtime.getRuntime().availableProcessors() : threads,
+                null, null, false, false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long processFile() throws IOException {
+        output.bytes = 0;
+        processor.process(input, output);
+        return output.bytes;
+    }
+
+    /**
+     * Channel counting and dropping the written bytes
+     */
+    private static class Sink implements WritableByteChannel {
+        long bytes;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            src.position(src.limit());
+            bytes += length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
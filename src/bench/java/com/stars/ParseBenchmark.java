@@ -0,0 +1,76 @@
+package com.stars;
+
+import com.stars.BenchData.Dataset;
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+import com.stars.io.DealParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of single cards and of full input lines
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    private static final int LINES = 1024;
+    private static final int CARDS = 8192;
+
+    @Param({"RANDOM", "FLUSH_HEAVY", "ACE_HEAVY_LOW", "MULTI_WAY"})
+    public Dataset dataset;
+
+    private final DealParser parser = new DealParser();
+    private final Deal deal = new Deal();
+    private ByteBuffer input;
+    private final int[] starts = new int[LINES];
+    private final int[] ends = new int[LINES];
+    private final String[] cards = new String[CARDS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] lines = BenchData.lines(dataset, LINES);
+        StringBuilder text = new StringBuilder();
+        int card = 0;
+        for (int i = 0; i < LINES; i++) {
+            starts[i] = text.length();
+            text.append(lines[i]);
+            ends[i] = text.length();
+            text.append('\n');
+            for (String token : lines[i].split(" ")) {
+                for (String value : token.substring(token.indexOf(':') + 1).split("-")) {
+                    cards[card++ % CARDS] = value;
+                }
+            }
+        }
+        input = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public int parseCard() {
+        return PackedCard.parse(cards[next++ & (CARDS - 1)]);
+    }
+
+    @Benchmark
+    public int parseLine() {
+        int line = next++ & (LINES - 1);
+        return parser.parse(input, starts[line], ends[line], deal);
+    }
+}
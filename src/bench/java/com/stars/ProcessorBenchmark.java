@@ -0,0 +1,88 @@
+package com.stars;
+
+import com.stars.BenchData.Dataset;
+import com.stars.io.ResultEncoder;
+import com.stars.metrics.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full line processing: parsing, evaluation and the result text
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessorBenchmark {
+    private static final int LINES = 1024;
+
+    @Param({"RANDOM", "FLUSH_HEAVY", "ACE_HEAVY_LOW", "MULTI_WAY"})
+    public Dataset dataset;
+
+    /**
+     * Compare the pipeline with and without metrics
+     */
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private Processor processor;
+    private final ResultEncoder encoder = new ResultEncoder(256);
+    private OmahaEvaluator evaluator;
+    private final EvaluationResult result = new EvaluationResult();
+    private String[] lines;
+    private ByteBuffer input;
+    private final int[] starts = new int[LINES];
+    private final int[] ends = new int[LINES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Metrics pipeline = metrics ? new Metrics() : null;
+        processor = new Processor(pipeline, null);
+        evaluator = new OmahaEvaluator(pipeline);
+        lines = BenchData.lines(dataset, LINES);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            starts[i] = text.length();
+            text.append(lines[i]);
+            ends[i] = text.length();
+            text.append('\n');
+        }
+        input = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public int processLine() {
+        int line = next++ & (LINES - 1);
+        encoder.clear();
+        processor.processLine(input, starts[line], ends[line], encoder);
+        return line;
+    }
+
+    @Benchmark
+    public int evaluateResult() {
+        int line = next++ & (LINES - 1);
+        evaluator.evaluate(input, starts[line], ends[line], result);
+        return result.getHiWinners();
+    }
+
+    @Benchmark
+    public String processLineString() {
+        return processor.processLine(lines[next++ & (LINES - 1)]);
+    }
+}
@@ -1,11 +1,25 @@
 package com.stars;
 
-import java.io.File;
-import java.io.FileWriter;
+import com.stars.cache.DealCache;
+import com.stars.equity.EquityCalculator;
+import com.stars.equity.PreflopTableGenerator;
+import com.stars.equity.RangeEquityCalculator;
+import com.stars.evaluation.LookupTables;
+import com.stars.io.BinaryDeals;
+import com.stars.io.DealConverter;
+import com.stars.metrics.Metrics;
+import com.stars.metrics.MetricsReporter;
+import com.stars.server.EvaluationServer;
+
+import javax.management.JMException;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * App start
@@ -13,35 +27,260 @@ import java.nio.file.Path;
  * The main method expects 2 parameters
  * 1: input file
  * 2: output file
+ *
+ * How the lookup tables were loaded and in what time is printed to stderr
+ * at the end of every run.
+ *
+ * Options:
+ * --threads N  evaluate on N workers keeping the order of the lines,
+ *              0 uses all available processors
+ * --metrics N  collect metrics, export them through JMX and print
+ *              a stats line every N seconds (0 prints only the last one)
+ * --cache N    keep the results of up to N deals, deals repeated with
+ *              other suits or card order are not evaluated again
+ * --batch      evaluate the lines in batches of deals, with the Vector API
+ *              when started with --add-modules jdk.incubator.vector
+ * --binary     write binary result records instead of text,
+ *              binary deal files are recognized by their header
+ *
+ * Server mode, evaluates lines sent by the clients until stopped,
+ * with --metrics N and --cache N like the batch mode:
+ * --server PORT  TCP line protocol, the results as in the output file
+ * --http PORT    POST /evaluate with the lines as body
+ *
+ * Conversion between text and binary deal files, by the input header:
+ * --convert input output
+ *
+ * Equity mode, the board may be partial or missing:
+ * --equity "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s"
+ * --samples N  sample N random boards when there are more than N boards
+ * --seed N     seed of the random boards
+ *
+ * Range equity mode, ranges separated by semicolons, the same options:
+ * --range-equity "Hero: AA2x ds, KKxx@0.5; Villain: top20%; Board: Ah-Kh-5s"
+ * --table table.bin  preflop table for the topN% ranges
+ *
+ * Preflop table, heads up equity of all starting hands:
+ * --preflop-table table.bin  generate the table, --samples N deals per hand and range,
+ *                            --ranges file adds reference ranges, one per line
+ * --preflop table.bin Ac-Kd-Jd-3d  look up the starting hand
  */
 public class App {
     public static void main(String[] args) {
-        System.out.printf("Read from: %s\n\n", args[0]);
-        Path input = FileSystems.getDefault().getPath(args[0]);
-        if (args.length > 2 && "debug".equals(args[2])) {
-            System.out.println(input.toAbsolutePath());
+        List<String> params = new ArrayList<>();
+        Integer threads = null;
+        String equity = null;
+        String rangeEquity = null;
+        String table = null;
+        Integer samples = null;
+        long seed = EquityCalculator.SEED;
+        Integer metricsInterval = null;
+        int cacheSize = 0;
+        String preflopTable = null;
+        String preflop = null;
+        String ranges = null;
+        boolean binary = false;
+        boolean convert = false;
+        boolean batch = false;
+        Integer serverPort = null;
+        Integer httpPort = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("--equity".equals(args[i]) && i + 1 < args.length) {
+                equity = args[++i];
+            } else if ("--range-equity".equals(args[i]) && i + 1 < args.length) {
+                rangeEquity = args[++i];
+            } else if ("--table".equals(args[i]) && i + 1 < args.length) {
+                table = args[++i];
+            } else if ("--samples".equals(args[i]) && i + 1 < args.length) {
+                samples = Integer.parseInt(args[++i]);
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if ("--metrics".equals(args[i]) && i + 1 < args.length) {
+                metricsInterval = Integer.parseInt(args[++i]);
+            } else if ("--cache".equals(args[i]) && i + 1 < args.length) {
+                cacheSize = Integer.parseInt(args[++i]);
+            } else if ("--preflop-table".equals(args[i]) && i + 1 < args.length) {
+                preflopTable = args[++i];
+            } else if ("--preflop".equals(args[i]) && i + 1 < args.length) {
+                preflop = args[++i];
+            } else if ("--ranges".equals(args[i]) && i + 1 < args.length) {
+                ranges = args[++i];
+            } else if ("--batch".equals(args[i])) {
+                batch = true;
+            } else if ("--binary".equals(args[i])) {
+                binary = true;
+            } else if ("--convert".equals(args[i])) {
+                convert = true;
+            } else if ("--server".equals(args[i]) && i + 1 < args.length) {
+                serverPort = Integer.parseInt(args[++i]);
+            } else if ("--http".equals(args[i]) && i + 1 < args.length) {
+                httpPort = Integer.parseInt(args[++i]);
+            } else {
+                params.add(args[i]);
+            }
         }
-        Processor processor = new Processor();
-        String nl = System.lineSeparator();
-        File file = new File(args[1]);
-        try {
-            FileWriter fileWriter = new FileWriter(file);
-            Files.lines(input).forEach(line -> {
-                String result = processor.processLine(line);
+
+        if (equity != null) {
+            try (EquityCalculator calculator = new EquityCalculator(threads == null ? 0 : threads)) {
+                if (samples != null) {
+                    calculator.setSamples(samples);
+                    calculator.setExhaustiveLimit(samples);
+                }
+                calculator.setSeed(seed);
+                EquityCommand.run(equity, calculator);
+            }
+            return;
+        }
+
+        if (rangeEquity != null) {
+            try (RangeEquityCalculator calculator = new RangeEquityCalculator(threads == null ? 0 : threads)) {
+                if (samples != null) {
+                    calculator.setSamples(samples);
+                    calculator.setExhaustiveLimit(samples);
+                }
+                calculator.setSeed(seed);
+                RangeEquityCommand.run(rangeEquity, table == null ? null : FileSystems.getDefault().getPath(table),
+                        calculator);
+            }
+            return;
+        }
+
+        if (preflopTable != null) {
+            try (PreflopTableGenerator generator = new PreflopTableGenerator(threads == null ? 0 : threads)) {
+                if (samples != null) {
+                    generator.setSamples(samples);
+                }
+                generator.setSeed(seed);
+                PreflopCommand.generate(FileSystems.getDefault().getPath(preflopTable),
+                        ranges == null ? null : FileSystems.getDefault().getPath(ranges), generator);
+            }
+            return;
+        }
+
+        if (preflop != null) {
+            PreflopCommand.lookup(FileSystems.getDefault().getPath(preflop), params.isEmpty() ? "" : params.get(0));
+            return;
+        }
+
+        if (convert) {
+            convert(FileSystems.getDefault().getPath(params.get(0)), FileSystems.getDefault().getPath(params.get(1)));
+            return;
+        }
+
+        if (threads == null) {
+            threads = 1;
+        } else if (threads < 1) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+
+        Metrics metrics = null;
+        MetricsReporter reporter = null;
+        if (metricsInterval != null) {
+            metrics = new Metrics();
+            try {
+                metrics.register();
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+            reporter = new MetricsReporter(metrics, metricsInterval, System.out);
+        }
+        DealCache cache = null;
+        if (cacheSize > 0) {
+            cache = new DealCache(cacheSize);
+            if (metrics != null) {
                 try {
-                    fileWriter.write(result);
-                    fileWriter.write(nl);
-                } catch (IOException e) {
+                    cache.register();
+                } catch (JMException e) {
                     e.printStackTrace();
                 }
-            });
+            }
+        }
+        if (serverPort != null || httpPort != null) {
+            serve(serverPort, httpPort, metrics, cache, reporter);
+            return;
+        }
+
+        System.out.printf("Read from: %s\n\n", params.get(0));
+        Path input = FileSystems.getDefault().getPath(params.get(0));
+        if (params.size() > 2 && "debug".equals(params.get(2))) {
+            System.out.println(input.toAbsolutePath());
+        }
+        BatchProcessor processor = new BatchProcessor(threads, metrics, cache, binary, batch);
+        Path output = FileSystems.getDefault().getPath(params.get(1));
+        try (FileChannel channel = FileChannel.open(output,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            processor.process(input, channel);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (reporter != null) {
+                reporter.close();
+            }
+        }
+        if (cache != null) {
+            System.out.printf("[cache] %s\n", cache);
+        }
+        System.err.printf("[tables] %s\n", LookupTables.describe());
+
+        System.out.printf("\n\nResult to: %s\n\n", params.get(1));
+    }
 
-            fileWriter.flush();
-            fileWriter.close();
+    /**
+     * Run the evaluation server until the process is stopped
+     */
+    private static void serve(Integer serverPort, Integer httpPort, Metrics metrics, DealCache cache,
+                              MetricsReporter reporter) {
+        EvaluationServer server = new EvaluationServer(new OmahaEvaluator(metrics, cache));
+        if (metrics != null) {
+            try {
+                server.register();
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (reporter != null) {
+                reporter.close();
+            }
+        }));
+        try {
+            if (serverPort != null) {
+                System.out.printf("Listening on: %s\n", server.startTcp(serverPort));
+            }
+            if (httpPort != null) {
+                System.out.printf("HTTP on: %s/evaluate\n", server.startHttp(httpPort));
+            }
+            server.await();
         } catch (IOException e) {
             e.printStackTrace();
+            try {
+                server.close();
+            } catch (IOException closeError) {
+                closeError.printStackTrace();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+    }
 
-        System.out.printf("\n\nResult to: %s\n\n", args[1]);
+    /**
+     * Convert the deal file, binary input to text, text input to binary
+     */
+    private static void convert(Path input, Path output) {
+        try {
+            boolean binary = BinaryDeals.isDeals(input);
+            long lines = binary ? DealConverter.toText(input, output) : DealConverter.toBinary(input, output);
+            System.out.printf("Converted %d deals to %s: %d -> %d bytes\n",
+                    lines, binary ? "text" : "binary", Files.size(input), Files.size(output));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 }
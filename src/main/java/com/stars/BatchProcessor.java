@@ -0,0 +1,250 @@
+package com.stars;
+
+import com.stars.cache.DealCache;
+import com.stars.evaluation.BatchEvaluator;
+import com.stars.io.BinaryDeals;
+import com.stars.io.BinaryInput;
+import com.stars.io.MappedInput;
+import com.stars.io.ResultEncoder;
+import com.stars.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BatchProcessor class
+ *
+ * Splits the memory mapped input into line aligned chunks, evaluates the
+ * chunks on a pool of workers and writes the results in the original order.
+ * Only a limited number of chunks is in flight so the memory stays bounded.
+ * Each worker uses its own Processor.
+ * Binary deal files are recognized by their header and split into record
+ * aligned chunks the same way; the results are text or binary records.
+ */
+class BatchProcessor {
+    /**
+     * Approximate number of input bytes evaluated by one task
+     */
+    static final int CHUNK_BYTES = 1 << 18;
+
+    /**
+     * Chunks in flight per worker
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int threads;
+    private final Metrics metrics;
+    private final boolean binary;
+    private final boolean batch;
+
+    private final ThreadLocal<Processor> processors;
+
+    /**
+     * Encoders of the written chunks ready for reuse
+     */
+    private final Queue<ResultEncoder> encoders = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param threads number of workers, 1 evaluates in the calling thread
+     * @param metrics metrics of the pipeline, null if disabled
+     * @param cache cache of evaluated deals shared by the workers, null if disabled
+     * @param binary true to write binary result records instead of text
+     * @param batch true to evaluate the text lines in struct of arrays batches,
+     *              ignored with the cache
+     */
+    BatchProcessor(int threads, Metrics metrics, DealCache cache, boolean binary, boolean batch) {
+        this.threads = threads;
+        this.binary = binary;
+        this.metrics = metrics;
+        this.batch = batch && cache == null;
+        this.processors = ThreadLocal.withInitial(
+                () -> new Processor(metrics, cache, this.batch ? BatchEvaluator.create() : null));
+    }
+
+    /**
+     * Evaluate all lines of the input file
+     *
+     * @param input text or binary input file, read through memory mapping
+     * @param output results, written in blocks of whole chunks
+     * @throws IOException on read or write error
+     */
+    void process(Path input, WritableByteChannel output) throws IOException {
+        if (binary) {
+            ResultEncoder header = encoder();
+            header.header();
+            write(header, output);
+        }
+        if (BinaryDeals.isDeals(input)) {
+            processBinary(input, output);
+            return;
+        }
+        ExecutorService pool = (threads == 1) ? null : Executors.newFixedThreadPool(threads);
+        try (MappedInput mapped = new MappedInput(input)) {
+            Deque<Future<ResultEncoder>> pending = new ArrayDeque<>();
+            ByteBuffer window;
+            while ((window = mapped.next()) != null) {
+                int limit = window.limit();
+                int start = 0;
+                while (start < limit) {
+                    int end = MappedInput.nextLineStart(window, Math.min(start + CHUNK_BYTES, limit), limit);
+                    if (pool == null) {
+                        write(processChunk(window, start, end), output);
+                    } else {
+                        if (pending.size() >= threads * CHUNKS_PER_THREAD) {
+                            write(take(pending), output);
+                        }
+                        ByteBuffer chunk = window;
+                        int from = start;
+                        pending.add(pool.submit(() -> processChunk(chunk, from, end)));
+                    }
+                    start = end;
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(take(pending), output);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Evaluate all records of the binary input file
+     *
+     * @param input binary deal file
+     * @param output results, written in blocks of whole chunks
+     * @throws IOException on read or write error
+     */
+    private void processBinary(Path input, WritableByteChannel output) throws IOException {
+        ExecutorService pool = (threads == 1) ? null : Executors.newFixedThreadPool(threads);
+        try (BinaryInput records = new BinaryInput(input)) {
+            Deque<Future<ResultEncoder>> pending = new ArrayDeque<>();
+            ByteBuffer window;
+            while ((window = records.next()) != null) {
+                int start = 0;
+                byte[] names = records.getNames();
+                int end;
+                while ((end = records.skip(start, CHUNK_BYTES)) > start) {
+                    if (pool == null) {
+                        write(processRecords(window, start, end, names), output);
+                    } else {
+                        if (pending.size() >= threads * CHUNKS_PER_THREAD) {
+                            write(take(pending), output);
+                        }
+                        ByteBuffer chunk = window;
+                        int from = start;
+                        int to = end;
+                        byte[] chunkNames = names;
+                        pending.add(pool.submit(() -> processRecords(chunk, from, to, chunkNames)));
+                    }
+                    names = records.getNames();
+                    start = end;
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(take(pending), output);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Evaluate one chunk of binary records with the Processor of the current thread
+     *
+     * @param input complete records
+     * @param start first byte of the chunk
+     * @param end end of the chunk, always at the start of a record
+     * @param names names record in effect at the start of the chunk
+     * @return encoder with the results of all deals
+     * @throws IOException on broken record
+     */
+    private ResultEncoder processRecords(ByteBuffer input, int start, int end, byte[] names) throws IOException {
+        Processor processor = processors.get();
+        ResultEncoder encoder = encoder();
+        processor.useNames(names);
+        int position = start;
+        while ((position = processor.processRecord(input, position, end, encoder)) >= 0) {
+            encoder.newLine();
+        }
+        return encoder;
+    }
+
+    /**
+     * Evaluate one chunk with the Processor of the current thread
+     *
+     * @param input input bytes
+     * @param start first byte of the chunk
+     * @param end end of the chunk, always at the start of a line
+     * @return encoder with the results of all lines
+     */
+    private ResultEncoder processChunk(ByteBuffer input, int start, int end) {
+        Processor processor = processors.get();
+        ResultEncoder encoder = encoder();
+        if (batch) {
+            processor.processBatch(input, start, end, encoder);
+            return encoder;
+        }
+        int position = start;
+        while (position < end) {
+            int lineEnd = MappedInput.lineEnd(input, position, end);
+            processor.processLine(input, position, lineEnd, encoder);
+            encoder.newLine();
+            position = MappedInput.nextLine(input, lineEnd, end);
+        }
+        return encoder;
+    }
+
+    /**
+     * Encoder of an already written chunk or a new one
+     */
+    private ResultEncoder encoder() {
+        ResultEncoder encoder = encoders.poll();
+        return encoder != null ? encoder : new ResultEncoder(CHUNK_BYTES * 2, binary);
+    }
+
+    /**
+     * Write the results and return the encoder for reuse
+     */
+    private void write(ResultEncoder encoder, WritableByteChannel output) throws IOException {
+        long time = metrics != null ? System.nanoTime() : 0;
+        encoder.writeTo(output);
+        if (metrics != null) {
+            metrics.record(Metrics.WRITE, time);
+        }
+        encoders.offer(encoder);
+    }
+
+    /**
+     * Wait for the oldest chunk
+     *
+     * @param pending chunks in the input order
+     * @return results of the chunk
+     * @throws IOException if the chunk failed or the wait was interrupted
+     */
+    private ResultEncoder take(Deque<Future<ResultEncoder>> pending) throws IOException {
+        try {
+            return pending.poll().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -1,48 +1,33 @@
 package com.stars;
 
-import java.util.*;
-
 /**
  * Constants used for hand evaluation
  */
 public class Constants {
     /**
-     * Double rated card
+     * Card ranks ordered from the lowest to the highest
+     * The position is the numerical rank used by the packed card.
      */
-    public static final String DOUBLE_RATED = "A";
+    public static final String RANKS = "23456789TJQKA";
+
     /**
-     * The key for the second rating for double rated cards
+     * Card suits
+     * This is not used in Poker for real rating but only for numerical representation of the suit.
      */
-    public static final String DOUBLE_RATED_SECOND = "AA";
+    public static final String SUITS = "cdhs";
 
     /**
-     * Card ratings
+     * Name of the board in the input line
      */
-    public static final Map<String , Integer> RATINGS = new HashMap<String, Integer>() {{
-        put("2", 2);
-        put("3", 3);
-        put("4", 4);
-        put("5", 5);
-        put("6", 6);
-        put("7", 7);
-        put("8", 8);
-        put("9", 9);
-        put("T", 10);
-        put("J", 11);
-        put("Q", 12);
-        put("K", 13);
-        put("A", 14);
-        put("AA", 1);
-    }};
+    public static final String BOARD = "Board";
 
     /**
-     * Suit ratings
-     * This is not used in Poker for real rating but only for numerical representation of the suit.
+     * Minimum number of hands at the table
+     */
+    public static final int MIN_PLAYERS = 2;
+
+    /**
+     * Maximum number of hands at the table
      */
-    public static final Map<String , Integer> COLORS = new HashMap<String, Integer>() {{
-        put("c", 1);
-        put("d", 2);
-        put("h", 3);
-        put("s", 4);
-    }};
+    public static final int MAX_PLAYERS = 10;
 }
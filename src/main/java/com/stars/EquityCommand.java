@@ -0,0 +1,73 @@
+package com.stars;
+
+import com.stars.entities.PackedCard;
+import com.stars.equity.EquityCalculator;
+import com.stars.equity.EquityResult;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EquityCommand class
+ *
+ * Calculates the equity of the hands given in the input format
+ * where the board may have 0 up to 5 cards or may be missing:
+ * HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s
+ */
+class EquityCommand {
+    private EquityCommand() {
+    }
+
+    /**
+     * Calculate and print the equity
+     *
+     * @param line hands and the partial board
+     * @param calculator configured calculator
+     */
+    static void run(String line, EquityCalculator calculator) {
+        List<String> names = new ArrayList<>();
+        List<int[]> hands = new ArrayList<>();
+        int[] board = new int[0];
+        try {
+            for (String token : line.trim().split("\\s+")) {
+                int separator = token.indexOf(':');
+                if (separator < 0) {
+                    throw new ErrorHand();
+                }
+                String name = token.substring(0, separator);
+                int[] cards = parseCards(token.substring(separator + 1));
+                if (Constants.BOARD.equalsIgnoreCase(name)) {
+                    board = cards;
+                } else {
+                    names.add(name);
+                    hands.add(cards);
+                }
+            }
+            long start = System.nanoTime();
+            EquityResult result = calculator.calculate(hands.toArray(new int[0][]), board);
+            System.out.print(result.toString(names.toArray(new String[0])));
+            System.out.printf("Time: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        } catch (ErrorHand errorHand) {
+            System.out.println("Error in hand/board");
+        } catch (ErrorCard errorCard) {
+            System.out.println("Error in card");
+        }
+    }
+
+    private static int[] parseCards(String data) throws ErrorCard {
+        if (data.isEmpty()) {
+            return new int[0];
+        }
+        String[] symbols = data.split("-");
+        int[] cards = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            cards[i] = PackedCard.parse(symbols[i]);
+            if (cards[i] == PackedCard.INVALID) {
+                throw new ErrorCard();
+            }
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,176 @@
+package com.stars;
+
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.evaluation.HiEvaluator;
+import com.stars.evaluation.LoEvaluator;
+
+/**
+ * Result of one evaluated deal
+ *
+ * All values are kept in primitive arrays sized for {@link Deal#MAX_HANDS},
+ * so the result can be reused for many deals without allocations.
+ * Hands are addressed by their position in the deal, winners are bit masks
+ * with bit i set for hand i.
+ * Not thread safe, use one result per thread.
+ */
+public class EvaluationResult {
+    private static final int CARDS = 5;
+
+    private int status = Deal.ERROR_HAND;
+    private int players;
+    private int hiWinners;
+    private int loWinners;
+    private final int[] hiScores = new int[Deal.MAX_HANDS];
+    private final int[] hiCards = new int[Deal.MAX_HANDS * CARDS];
+    private final int[] loScores = new int[Deal.MAX_HANDS];
+    private final int[] loMasks = new int[Deal.MAX_HANDS];
+    private final int[] loCards = new int[Deal.MAX_HANDS * CARDS];
+    private final String[] names = new String[Deal.MAX_HANDS];
+
+    /**
+     * Copy the results of the evaluated deal
+     *
+     * @param deal evaluated deal or deal with error status
+     */
+    void load(Deal deal) {
+        status = deal.getStatus();
+        if (status != Deal.OK) {
+            players = 0;
+            hiWinners = 0;
+            loWinners = 0;
+            return;
+        }
+        players = deal.getPlayers();
+        hiWinners = deal.getHiWinners();
+        loWinners = deal.getLoWinners();
+        for (int i = 0; i < players; i++) {
+            Hand hand = deal.getHands()[i];
+            names[i] = hand.getName();
+            hiScores[i] = hand.getHiScore();
+            System.arraycopy(hand.getHiHand(), 0, hiCards, i * CARDS, CARDS);
+            loScores[i] = hand.getLoScore();
+            loMasks[i] = hand.getLoHand();
+            if (hand.getLoScore() != LoEvaluator.NO_LOW) {
+                System.arraycopy(hand.getLoCards(), 0, loCards, i * CARDS, CARDS);
+            }
+        }
+    }
+
+    /**
+     * Status of the deal
+     * @return {@link Deal#OK}, {@link Deal#ERROR_HAND} or {@link Deal#ERROR_CARD}
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Number of hands, 0 if the deal has an error
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Name of the hand, null for pre-parsed cards
+     *
+     * @param hand position of the hand
+     */
+    public String getName(int hand) {
+        return names[hand];
+    }
+
+    /**
+     * Bits of the hands winning Hi
+     */
+    public int getHiWinners() {
+        return hiWinners;
+    }
+
+    /**
+     * Bits of the hands winning Lo, 0 if no hand qualified
+     */
+    public int getLoWinners() {
+        return loWinners;
+    }
+
+    public boolean isHiWinner(int hand) {
+        return (hiWinners & (1 << hand)) != 0;
+    }
+
+    public boolean isLoWinner(int hand) {
+        return (loWinners & (1 << hand)) != 0;
+    }
+
+    /**
+     * Positions of the winning hands
+     *
+     * @param winners winner bits
+     * @param indexes receives the positions, at least {@link Deal#MAX_HANDS} long
+     * @return number of winners
+     */
+    public static int winnerIndexes(int winners, int[] indexes) {
+        int count = 0;
+        for (int bits = winners; bits != 0; bits &= bits - 1) {
+            indexes[count++] = Integer.numberOfTrailingZeros(bits);
+        }
+        return count;
+    }
+
+    /**
+     * Hi strength, higher is better
+     * @see HiEvaluator
+     */
+    public int getHiScore(int hand) {
+        return hiScores[hand];
+    }
+
+    /**
+     * Hi category as rank 1-9 of {@link HandEnum}
+     */
+    public int getHiCategory(int hand) {
+        return hiScores[hand] >>> HiEvaluator.CATEGORY_SHIFT;
+    }
+
+    public HandEnum getHiRank(int hand) {
+        return HiEvaluator.category(hiScores[hand]);
+    }
+
+    /**
+     * Best Hi card of the hand
+     *
+     * @param hand position of the hand
+     * @param card 0-4, the 2 hole cards first
+     * @return packed card
+     */
+    public int getHiCard(int hand, int card) {
+        return hiCards[hand * CARDS + card];
+    }
+
+    /**
+     * Lo score, higher is better
+     * @return 1-56 or {@link LoEvaluator#NO_LOW}
+     */
+    public int getLoScore(int hand) {
+        return loScores[hand];
+    }
+
+    /**
+     * Lo ranks as 8 bit mask, ace is bit 0
+     */
+    public int getLoMask(int hand) {
+        return loMasks[hand];
+    }
+
+    /**
+     * Best Lo card of the hand, valid only if the hand has a Low
+     *
+     * @param hand position of the hand
+     * @param card 0-4, the 2 hole cards first
+     * @return packed card
+     */
+    public int getLoCard(int hand, int card) {
+        return loCards[hand * CARDS + card];
+    }
+}
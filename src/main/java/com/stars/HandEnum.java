@@ -15,6 +15,14 @@ public enum HandEnum {
     ONE_PAIR("One Pair", 2),
     HIGH_CARD("High Card", 1);
 
+    private static final HandEnum[] BY_RANK = new HandEnum[values().length + 1];
+
+    static {
+        for (HandEnum hand : values()) {
+            BY_RANK[hand.rank] = hand;
+        }
+    }
+
     private final String description;
     private final int rank;
 
@@ -30,4 +38,14 @@ public enum HandEnum {
     public int getRank() {
         return this.rank;
     }
+
+    /**
+     * Find hand by its rank
+     *
+     * @param rank numerical rank 1-9
+     * @return HandEnum
+     */
+    public static HandEnum valueOfRank(int rank) {
+        return BY_RANK[rank];
+    }
 }
@@ -0,0 +1,166 @@
+package com.stars;
+
+import com.stars.cache.DealCache;
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import com.stars.evaluation.Combinations;
+import com.stars.io.ResultEncoder;
+import com.stars.metrics.Metrics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Embeddable Omaha Hi/Lo evaluator
+ *
+ * Evaluates pre-parsed packed cards or raw input lines and fills in an
+ * {@link EvaluationResult}. Nothing is written to the console and no text
+ * is built unless the result is encoded on request.
+ * Thread safe: every thread works on its own {@link Processor}.
+ *
+ * <pre>
+ * OmahaEvaluator evaluator = new OmahaEvaluator();
+ * EvaluationResult result = new EvaluationResult();
+ * evaluator.evaluate(hands, board, result);
+ * </pre>
+ */
+public class OmahaEvaluator {
+    private final ThreadLocal<Processor> processors;
+
+    public OmahaEvaluator() {
+        this(null, null);
+    }
+
+    /**
+     * @param metrics metrics counting the evaluated deals, null if disabled
+     */
+    public OmahaEvaluator(Metrics metrics) {
+        this(metrics, null);
+    }
+
+    /**
+     * @param metrics metrics counting the evaluated deals, null if disabled
+     * @param cache cache of evaluated deals, may be shared with other evaluators, null if disabled
+     */
+    public OmahaEvaluator(Metrics metrics, DealCache cache) {
+        processors = ThreadLocal.withInitial(() -> new Processor(metrics, cache));
+    }
+
+    /**
+     * Evaluate packed cards
+     * Errors are reported by the status of the result like for the input lines.
+     *
+     * @param hands 2 up to 10 hands of 4, 5 or 6 packed cards, all of the same size
+     * @param board 5 packed cards
+     * @param result receives the result
+     */
+    public void evaluate(int[][] hands, int[] board, EvaluationResult result) {
+        Processor processor = processors.get();
+        Deal deal = processor.getDeal();
+        deal.setStatus(load(hands, board, deal));
+        processor.processDeal();
+        result.load(deal);
+    }
+
+    /**
+     * Evaluate packed cards
+     *
+     * @param hands 2 up to 10 hands of 4, 5 or 6 packed cards, all of the same size
+     * @param board 5 packed cards
+     * @return new result
+     */
+    public EvaluationResult evaluate(int[][] hands, int[] board) {
+        EvaluationResult result = new EvaluationResult();
+        evaluate(hands, board, result);
+        return result;
+    }
+
+    /**
+     * Evaluate one input line
+     * HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd
+     *
+     * @param input input bytes
+     * @param start first byte of the line
+     * @param end end of the line without the line separator
+     * @param result receives the result
+     */
+    public void evaluate(ByteBuffer input, int start, int end, EvaluationResult result) {
+        Processor processor = processors.get();
+        processor.processLine(input, start, end, null);
+        result.load(processor.getDeal());
+    }
+
+    /**
+     * Evaluate one input line
+     *
+     * @param line line bytes without the line separator
+     * @param result receives the result
+     */
+    public void evaluate(byte[] line, EvaluationResult result) {
+        evaluate(ByteBuffer.wrap(line), 0, line.length, result);
+    }
+
+    /**
+     * Evaluate one input line into the text of the output file
+     *
+     * @param input input bytes
+     * @param start first byte of the line
+     * @param end end of the line without the line separator
+     * @param output encoder receiving the line and its result
+     */
+    public void evaluate(ByteBuffer input, int start, int end, ResultEncoder output) {
+        processors.get().processLine(input, start, end, output);
+    }
+
+    /**
+     * Copy the packed cards into the deal
+     *
+     * @return deal status
+     */
+    private static int load(int[][] hands, int[] board, Deal deal) {
+        if (hands.length < Constants.MIN_PLAYERS || hands.length > Constants.MAX_PLAYERS
+                || board.length != Combinations.BOARD_CARDS) {
+            return Deal.ERROR_HAND;
+        }
+        for (int[] hand : hands) {
+            if (!Combinations.isVariant(hand.length) || hand.length != hands[0].length) {
+                return Deal.ERROR_HAND;
+            }
+        }
+        long dead = 0;
+        for (int card : board) {
+            long bit = cardBit(card, dead);
+            if (bit == 0) {
+                return Deal.ERROR_CARD;
+            }
+            dead |= bit;
+        }
+        System.arraycopy(board, 0, deal.getBoard().getCards(), 0, Combinations.BOARD_CARDS);
+        for (int i = 0; i < hands.length; i++) {
+            for (int card : hands[i]) {
+                long bit = cardBit(card, dead);
+                if (bit == 0) {
+                    return Deal.ERROR_CARD;
+                }
+                dead |= bit;
+            }
+            Hand hand = deal.getHands()[i];
+            hand.setName(null);
+            System.arraycopy(hands[i], 0, hand.setHoleCards(hands[i].length), 0, hands[i].length);
+        }
+        deal.getBoard().prepare();
+        deal.setPlayers(hands.length);
+        return Deal.OK;
+    }
+
+    /**
+     * Deck bit of the card, 0 if the card is unknown or already used
+     */
+    private static long cardBit(int card, long dead) {
+        if (!PackedCard.isValid(card)) {
+            return 0;
+        }
+        long bit = 1L << PackedCard.index(card);
+        return (dead & bit) == 0 ? bit : 0;
+    }
+}
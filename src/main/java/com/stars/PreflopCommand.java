@@ -0,0 +1,94 @@
+package com.stars;
+
+import com.stars.entities.PackedCard;
+import com.stars.equity.HandRange;
+import com.stars.equity.PreflopTable;
+import com.stars.equity.PreflopTableGenerator;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PreflopCommand class
+ *
+ * Generates the preflop equity table and looks up starting hands in it.
+ */
+class PreflopCommand {
+    private PreflopCommand() {
+    }
+
+    /**
+     * Generate the table
+     *
+     * @param output table file
+     * @param rangesFile reference ranges, one per line, may be null
+     * @param generator configured generator
+     */
+    static void generate(Path output, Path rangesFile, PreflopTableGenerator generator) {
+        try {
+            List<HandRange> ranges = new ArrayList<>();
+            if (rangesFile != null) {
+                for (String line : Files.readAllLines(rangesFile, StandardCharsets.UTF_8)) {
+                    if (!line.trim().isEmpty()) {
+                        ranges.add(HandRange.parse(line));
+                    }
+                }
+            }
+            long start = System.nanoTime();
+            generator.generate(ranges, output);
+            System.out.printf("Preflop table with %d ranges written to %s in %.1f s%n",
+                    ranges.size() + 1, output, (System.nanoTime() - start) / 1e9);
+        } catch (ErrorHand errorHand) {
+            System.out.println("Error in range");
+        } catch (ErrorCard errorCard) {
+            System.out.println("Error in card");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Print the equity of the starting hand against all ranges of the table
+     *
+     * @param table table file
+     * @param hand hand as Ac-Kd-Jd-3d
+     */
+    static void lookup(Path table, String hand) {
+        try {
+            long start = System.nanoTime();
+            PreflopTable preflop = PreflopTable.load(table);
+            String[] symbols = hand.trim().split("-");
+            int[] cards = new int[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                cards[i] = PackedCard.parse(symbols[i]);
+            }
+            int canonical = preflop.canonicalIndex(cards);
+            System.out.printf("%s, %d samples per range, loaded in %.1f ms%n",
+                    hand, preflop.getSamples(), (System.nanoTime() - start) / 1e6);
+            System.out.printf("%-12s %8s %8s %8s %8s%n", "Range", "Equity", "Scoop", "Hi", "Lo");
+            for (int range = 0; range < preflop.getRanges(); range++) {
+                if (preflop.getValue(canonical, range, PreflopTable.EQUITY) < 0) {
+                    System.out.printf("%-12s %8s%n", preflop.getRangeName(range), "blocked");
+                    continue;
+                }
+                System.out.printf("%-12s %7.3f%% %7.3f%% %7.3f%% %7.3f%%%n", preflop.getRangeName(range),
+                        preflop.getValue(canonical, range, PreflopTable.EQUITY),
+                        preflop.getValue(canonical, range, PreflopTable.SCOOP),
+                        preflop.getValue(canonical, range, PreflopTable.HI),
+                        preflop.getValue(canonical, range, PreflopTable.LO));
+            }
+        } catch (ErrorHand errorHand) {
+            System.out.println("Error in hand");
+        } catch (ErrorCard errorCard) {
+            System.out.println("Error in card");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
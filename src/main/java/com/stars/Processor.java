@@ -1,464 +1,282 @@
 package com.stars;
 
-import com.stars.entities.Card;
-import com.stars.entities.Hand;
-import com.stars.errors.ErrorCard;
-import com.stars.errors.ErrorHand;
-
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
+import com.stars.cache.DealCache;
+import com.stars.cache.DealCanonicalizer;
+import com.stars.entities.Deal;
+import com.stars.evaluation.BatchEvaluator;
+import com.stars.evaluation.Combinations;
+import com.stars.evaluation.DealBatch;
+import com.stars.evaluation.HandEvaluator;
+import com.stars.io.DealDecoder;
+import com.stars.io.DealParser;
+import com.stars.io.MappedInput;
+import com.stars.io.ResultEncoder;
+import com.stars.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Processor class
  *
  * The purpose here is to process each line evaluate it and
  * return the final result.
+ * Not thread safe, each worker uses its own Processor.
  */
 class Processor {
     /**
-     * Line processing method
-     *
-     * It gets the full line as string:
-     * HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd
-     *
-     * @param line String
-     * @return String
-     */
-    String processLine (String line) {
-        System.out.println(line);
-        String[] hands = line.split("[\\s:]");
-        String message;
-        try {
-            Hand handOne = new Hand(hands[1], hands[5]);
-            processHand(handOne);
-
-            Hand handTwo = new Hand(hands[3], hands[5]);
-            processHand(handTwo);
-
-            String hi = evaluateHiHand(handOne, handTwo);
-            String lo = evaluateLoHand(handOne, handTwo);
-            message = String.format("%s; %s", hi, lo);
-        } catch (ErrorHand errorHand) {
-            message = " Error in hand/board";
-        } catch (ErrorCard errorCard) {
-            message = " Error in card";
-        }
-
-        return String.format("%s\n=> %s\n", line, message);
-    }
-
-    /**
-     * Determine Hi Hand winner
-     *
-     * Works with already evaluated line.
-     *
-     * @param handOne HandA evaluated
-     * @param handTwo HandB evaluated
-     * @return String
+     * Deals evaluated together in batch mode
      */
-    private String evaluateHiHand(Hand handOne, Hand handTwo) {
-        if (handOne.getHiScore() > handTwo.getHiScore()) {
-            return String.format("HandA wins Hi (%s)", handOne.getRank().getDescription());
-        } else if (handOne.getHiScore() < handTwo.getHiScore()) {
-            return String.format("HandB wins Hi (%s)", handTwo.getRank().getDescription());
-        }
-        return String.format("Split Pot Hi (%s)", handOne.getRank().getDescription());
+    static final int BATCH = 256;
+
+    private final DealParser parser = new DealParser();
+    private final DealDecoder decoder = new DealDecoder();
+    private final Deal deal = new Deal();
+    private final ResultEncoder encoder = new ResultEncoder(256);
+    private final Metrics metrics;
+    private final DealCache cache;
+    private final DealCanonicalizer canonicalizer;
+    private int lines;
+
+    private final BatchEvaluator batchEvaluator;
+    private final DealBatch batch;
+    private final Deal[] deals;
+    private final int[] lineStarts;
+    private final int[] lineEnds;
+    private final int[] batchIndexes;
+
+    Processor() {
+        this(null, null);
     }
 
     /**
-     * Determine Lo Hand winner
-     *
-     * Works with already evaluated line.
-     *
-     * @param handOne HandA evaluated
-     * @param handTwo HandB evaluated
-     * @return String
+     * @param metrics metrics of the pipeline, null if disabled
+     * @param cache shared cache of evaluated deals, null if disabled
      */
-    private String evaluateLoHand(Hand handOne, Hand handTwo) {
-        if (handOne.getLoScore() == null && handTwo.getLoScore() == null) {
-            return "No hand qualified for Low";
-        }
-
-        Integer loOne = (handOne.getLoScore() == null) ? 100 : handOne.getLoScore();
-        Integer loTwo = (handTwo.getLoScore() == null) ? 100 : handTwo.getLoScore();
-        if (loOne < loTwo) {
-            return String.format("HandA wins Lo (%s)", handOne.toStringLoHand());
-        } else if (loOne > loTwo) {
-            return String.format("HandB wins Lo (%s)", handTwo.toStringLoHand());
-        }
-        return String.format("Split Pot Lo (%s)", handOne.toStringLoHand());
+    Processor(Metrics metrics, DealCache cache) {
+        this(metrics, cache, null);
     }
 
-
     /**
-     * Start the cards processing
-     * @param hand Hand to be processed
+     * @param metrics metrics of the pipeline, null if disabled
+     * @param cache shared cache of evaluated deals, null if disabled
+     * @param batchEvaluator evaluator of {@link #processBatch}, null if only single lines are processed
      */
-    private void processHand(Hand hand) {
-        ArrayList<Card> evalHand = hand.getHand();
-        ArrayList<Card> evalBoard = hand.getBoard();
-
-        for (int i = 0; i < evalHand.size(); i++) {
-            for (int j = i + 1; j < evalHand.size(); j++) {
-                for (int k = 0; k < evalBoard.size(); k++) {
-                    for (int l = k + 1; l < evalBoard.size(); l++) {
-                        for (int m = l + 1; m < evalBoard.size(); m++) {
-                            ArrayList<Card> currentHand = new ArrayList<>();
-                            currentHand.add(evalHand.get(i));
-                            currentHand.add(evalHand.get(j));
-                            currentHand.add(evalBoard.get(k));
-                            currentHand.add(evalBoard.get(l));
-                            currentHand.add(evalBoard.get(m));
-                            currentHand.sort(Comparator.comparing(Card::getRating));
-
-                            RatingData ratingsData = evaluateKinds(currentHand);
-                            processStraightFlush(currentHand, ratingsData, hand);
-                            processLowCard(currentHand, hand);
-                        }
-                    }
-                }
-            }
+    Processor(Metrics metrics, DealCache cache, BatchEvaluator batchEvaluator) {
+        this.metrics = metrics;
+        this.cache = cache;
+        this.canonicalizer = cache != null ? new DealCanonicalizer() : null;
+        this.batchEvaluator = batchEvaluator;
+        int capacity = batchEvaluator != null ? BATCH : 0;
+        batch = new DealBatch(capacity);
+        deals = new Deal[capacity];
+        for (int i = 0; i < capacity; i++) {
+            deals[i] = new Deal();
         }
+        lineStarts = new int[capacity];
+        lineEnds = new int[capacity];
+        batchIndexes = new int[capacity];
     }
 
     /**
-     * Evaluate for Straight Flush
+     * Line processing method
      *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
-     */
-    private void processStraightFlush(ArrayList<Card> currentHand, RatingData ratingsData, Hand hand) {
-        boolean found = isSameSuit(currentHand);
-        Integer totalRating = null;
-        if (found) {
-            totalRating = evaluateForStraight(currentHand);
-            if (totalRating == null) {
-                ArrayList<Card> lowHand = lowerAces(currentHand);
-                if (lowHand != null) {
-                    totalRating = evaluateForStraight(lowHand);
-                }
-            }
-            found = (totalRating != null);
-        }
-
-        HandEnum currentRank = HandEnum.STRAIGHT_FLUSH;
-        if (!found) {
-            if (currentRank != hand.getRank()) {
-                processFourOfAKind(currentHand, ratingsData, hand);
-            }
-            return;
-        }
-
-        setHandRatings(totalRating, currentRank, currentHand, hand);
-    }
-
-    /**
-     * Evaluate for 4 of a kind
+     * It gets the full line as string with 2 up to 10 named hands and the board:
+     * HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd
      *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
+     * @param line String
+     * @return String
      */
-    private void processFourOfAKind(ArrayList<Card> currentHand, RatingData ratingsData, Hand hand) {
-        boolean found = false;
-        Map<Integer, Integer> ratings = ratingsData.ratings;
-        if (ratings.size() == 2) {
-            for (Map.Entry<Integer, Integer> pair : ratings.entrySet()) {
-                if (pair.getValue() == 4) {
-                    found = true;
-                    break;
-                }
-            }
-        }
-
-        HandEnum currentRank = HandEnum.FOUR_OF_KIND;
-        if (!found) {
-            if (currentRank != hand.getRank()) {
-                processFullHouse(currentHand, ratingsData, hand);
-            }
-            return;
-        }
-
-        setHandRatings(ratingsData.ratingTotal, currentRank, currentHand, hand);
+    String processLine (String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        encoder.clear();
+        processLine(ByteBuffer.wrap(bytes), 0, bytes.length, encoder);
+        return encoder.toString();
     }
 
     /**
-     * Evaluate for Full house
+     * Line processing method for raw input
      *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
+     * @param input input bytes
+     * @param start first byte of the line
+     * @param end end of the line without the line separator
+     * @param output encoder receiving the result, null to keep the result in the deal only
      */
-    private void processFullHouse(ArrayList<Card> currentHand, RatingData ratingsData, Hand hand) {
-        HandEnum currentRank = HandEnum.FULL;
-        if (ratingsData.ratings.size() > 2) {
-            if (currentRank != hand.getRank()) {
-                processFlush(currentHand, ratingsData, hand);
-            }
-            return;
+    void processLine (ByteBuffer input, int start, int end, ResultEncoder output) {
+        boolean sampled = metrics != null && metrics.isSampled(++lines);
+        long time = sampled ? System.nanoTime() : 0;
+        parser.parse(input, start, end, deal);
+        if (sampled) {
+            time = metrics.record(Metrics.PARSE, time);
         }
-
-        setHandRatings(ratingsData.ratingTotal, currentRank, currentHand, hand);
-    }
-
-    /**
-     * Evaluate for Flush
-     *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
-     */
-    private void processFlush(ArrayList<Card> currentHand, RatingData ratingsData, Hand hand) {
-        boolean found = isSameSuit(currentHand);
-
-        HandEnum currentRank = HandEnum.FLUSH;
-        if (!found) {
-            if (currentRank != hand.getRank()) {
-                processStraight(currentHand, ratingsData, hand);
-            }
-            return;
+        evaluate(deal);
+        if (sampled) {
+            time = metrics.record(Metrics.EVALUATE, time);
         }
-
-        setHandRatings(ratingsData.ratingTotal, currentRank, currentHand, hand);
-    }
-
-    /**
-     * Evaluate for Straight
-     *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
-     */
-    private void processStraight(ArrayList<Card> currentHand, RatingData ratingsData, Hand hand) {
-        Integer totalRating = evaluateForStraight(currentHand);
-        if (totalRating == null) {
-            ArrayList<Card> lowHand = lowerAces(currentHand);
-            if (lowHand != null) {
-                totalRating = evaluateForStraight(lowHand);
+        if (output != null) {
+            output.encode(input, start, end, deal);
+            if (sampled) {
+                metrics.record(Metrics.ENCODE, time);
             }
         }
-
-        HandEnum currentRank = HandEnum.STRAIGHT;
-        if (totalRating == null) {
-            if (currentRank != hand.getRank()) {
-                processTreeOfAKind(currentHand, ratingsData, hand);
-            }
-            return;
+        if (metrics != null) {
+            metrics.count(deal, end - start);
         }
-
-        setHandRatings(totalRating, currentRank, currentHand, hand);
     }
 
     /**
-     * Evaluate for 3 of a kind
+     * Batch processing method for raw input
      *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
+     * The lines are parsed into up to {@link #BATCH} deals, the valid deals
+     * are evaluated together by the batch evaluator and the results are encoded
+     * in the order of the lines, each followed by a line separator.
+     * Deals of 5 and 6 card Omaha do not fit the batch and are evaluated one by one.
+     * The cache is not used and only the parse and encode stages are sampled.
+     *
+     * @param input input bytes
+     * @param start first byte of the first line
+     * @param end end of the last line
+     * @param output encoder receiving the results
      */
-    private void processTreeOfAKind(ArrayList<Card> currentHand, RatingData ratingsData, Hand hand) {
-        boolean found = false;
-        Map<Integer, Integer> ratings = ratingsData.ratings;
-        if (ratings.size() == 3) {
-            for (Map.Entry<Integer, Integer> pair : ratings.entrySet()) {
-                if (pair.getValue() == 3) {
-                    found = true;
-                    break;
+    void processBatch(ByteBuffer input, int start, int end, ResultEncoder output) {
+        int position = start;
+        while (position < end) {
+            batch.clear();
+            int count = 0;
+            while (count < deals.length && position < end) {
+                int lineEnd = MappedInput.lineEnd(input, position, end);
+                Deal deal = deals[count];
+                boolean sampled = metrics != null && metrics.isSampled(lines + count + 1);
+                long time = sampled ? System.nanoTime() : 0;
+                if (parser.parse(input, position, lineEnd, deal) == Deal.OK) {
+                    if (deal.getHoleCards() == Combinations.HOLE_CARDS) {
+                        batchIndexes[count] = batch.add(deal);
+                    } else {
+                        batchIndexes[count] = -1;
+                        HandEvaluator.evaluate(deal);
+                    }
                 }
+                if (sampled) {
+                    metrics.record(Metrics.PARSE, time);
+                }
+                lineStarts[count] = position;
+                lineEnds[count] = lineEnd;
+                count++;
+                position = MappedInput.nextLine(input, lineEnd, end);
             }
-        }
-
-        HandEnum currentRank = HandEnum.TREE_OF_KUND;
-        if (!found) {
-            if (currentRank != hand.getRank()) {
-                processTwoPair(currentHand, ratingsData, hand);
-            }
-            return;
-        }
-
-        setHandRatings(ratingsData.ratingTotal, currentRank, currentHand, hand);
-    }
-
-    /**
-     * Evaluate for two pairs
-     *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
-     */
-    private void processTwoPair(ArrayList<Card> currentHand, RatingData ratingsData, Hand hand) {
-        HandEnum currentRank = HandEnum.TWO_PAIR;
-        if (ratingsData.ratings.size() > 3) {
-            if (currentRank != hand.getRank()) {
-                processPair(currentHand, ratingsData, hand);
+            batchEvaluator.evaluate(batch);
+            for (int i = 0; i < count; i++) {
+                Deal deal = deals[i];
+                if (deal.getStatus() == Deal.OK && batchIndexes[i] >= 0) {
+                    batch.store(batchIndexes[i], deal);
+                }
+                boolean sampled = metrics != null && metrics.isSampled(++lines);
+                long time = sampled ? System.nanoTime() : 0;
+                output.encode(input, lineStarts[i], lineEnds[i], deal);
+                output.newLine();
+                if (sampled) {
+                    metrics.record(Metrics.ENCODE, time);
+                }
+                if (metrics != null) {
+                    metrics.count(deal, lineEnds[i] - lineStarts[i]);
+                }
             }
-            return;
         }
-
-        setHandRatings(ratingsData.ratingTotal, currentRank, currentHand, hand);
     }
 
     /**
-     * Evaluate for one pair
+     * Record processing method for binary input
+     * Text output gets the line rendered from the record.
      *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
+     * @param input complete records
+     * @param position first byte of a record
+     * @param limit end of the records
+     * @param output encoder receiving the result, null to keep the result in the deal only
+     * @return end of the processed deal record, -1 if there is no deal before the limit
+     * @throws IOException on broken record
+     * @see #useNames(byte[])
      */
-    private void processPair(ArrayList<Card> currentHand, RatingData ratingsData, Hand hand) {
-        HandEnum currentRank = HandEnum.ONE_PAIR;
-        if (ratingsData.ratings.size() == 4) {
-            if (currentRank != hand.getRank()) {
-                processHighCard(currentHand, hand);
-            }
-            return;
+    int processRecord(ByteBuffer input, int position, int limit, ResultEncoder output) throws IOException {
+        boolean sampled = metrics != null && metrics.isSampled(lines + 1);
+        long time = sampled ? System.nanoTime() : 0;
+        int next = decoder.decode(input, position, limit, deal);
+        if (next < 0) {
+            return next;
         }
-
-        setHandRatings(ratingsData.ratingTotal, currentRank, currentHand, hand);
-    }
-
-    /**
-     * Evaluate for high card
-     *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
-     */
-    private void processHighCard(ArrayList<Card> currentHand, Hand hand) {
-        Integer current = currentHand.get(4).getRating();
-        HandEnum currentRank = HandEnum.HIGH_CARD;
-        if (current > hand.getHiScore()) {
-            hand.setHiScore((double) current);
-            hand.setRank(currentRank);
-            hand.setHiHand(currentHand);
+        lines++;
+        if (sampled) {
+            time = metrics.record(Metrics.PARSE, time);
         }
-    }
-
-    /**
-     * Evaluate for Low card
-     *
-     * @param currentHand ArrayList of Cards
-     * @param hand Hand to be processed
-     */
-    private void processLowCard(ArrayList<Card> currentHand, Hand hand) {
-        ArrayList<Card> lowHand = lowerAces(currentHand);
-        if (lowHand != null) {
-            currentHand = lowHand;
+        evaluate(deal);
+        if (sampled) {
+            time = metrics.record(Metrics.EVALUATE, time);
         }
-        RatingData ratingsData = evaluateKinds(currentHand);
-        Integer hiRating = currentHand.get(4).getRating();
-        if (hiRating <= 8 && ratingsData.ratings.size() == 5) {
-            if (hand.getLoScore() == null) {
-                hand.setLoScore(ratingsData.ratingTotal);
-                hand.setLoHand(currentHand);
-            } else if (hand.getLoScore() > ratingsData.ratingTotal) {
-                hand.setLoScore(ratingsData.ratingTotal);
-                hand.setLoHand(currentHand);
+        if (output != null) {
+            if (output.isBinary()) {
+                output.encodeRecord(deal);
+            } else {
+                ByteBuffer line = decoder.getLine();
+                output.encode(line, decoder.getLineStart(), decoder.getLineEnd(), deal);
+            }
+            if (sampled) {
+                metrics.record(Metrics.ENCODE, time);
             }
         }
-    }
-
-    /**
-     * Set ratings data for the hand
-     *
-     * @param ratingTotal Total rating of the hand
-     * @param currentRank The hand rank
-     * @param currentHand Currently evaluated hand
-     * @param hand Hand to be processed
-     */
-    private void setHandRatings(Integer ratingTotal, HandEnum currentRank, ArrayList<Card> currentHand, Hand hand) {
-        double totalRating = Math.pow(ratingTotal, currentRank.getRank());
-        if (totalRating > hand.getHiScore()) {
-            hand.setHiScore(totalRating);
-            hand.setRank(currentRank);
-            hand.setHiHand(currentHand);
+        if (metrics != null) {
+            metrics.count(deal, next - position);
         }
+        return next;
     }
 
     /**
-     * Moves Aces to lower rating
+     * Set the names of the binary records, e.g. at the start of a chunk
      *
-     * @param currentHand ArrayList of Cards
+     * @param record names record in effect, null for the default names
+     * @throws IOException on broken record
      */
-    private ArrayList<Card> lowerAces(ArrayList<Card> currentHand) {
-        ArrayList<Card> lowerAcesHand = (ArrayList) currentHand.clone();
-        Card lastCard = lowerAcesHand.get(4);
-        if (lastCard.isDoubleRated()) {
-            lowerAcesHand.add(0, new Card(lastCard, Constants.DOUBLE_RATED_SECOND));
-            lowerAcesHand.remove(lowerAcesHand.size() - 1);
-            return lowerAcesHand;
-        }
-        return null;
+    void useNames(byte[] record) throws IOException {
+        decoder.useNames(record);
     }
 
     /**
-     * Evaluate the hand what kinds of cards are found and counts them
-     *
-     * @param currentHand ArrayList of Cards
+     * Evaluate the deal filled in by the caller
+     * @see #getDeal()
      */
-    private RatingData evaluateKinds(ArrayList<Card> currentHand) {
-        Map<Integer, Integer> ratings = new HashMap<>();
-        int total = 0;
-        for (Card card : currentHand) {
-            Integer rating = card.getRating();
-            Integer count = ratings.get(rating);
-            count = (count == null) ? 1 : ++count;
-            ratings.put(rating, count);
-            total += rating;
+    void processDeal() {
+        boolean sampled = metrics != null && metrics.isSampled(++lines);
+        long time = sampled ? System.nanoTime() : 0;
+        evaluate(deal);
+        if (sampled) {
+            metrics.record(Metrics.EVALUATE, time);
+        }
+        if (metrics != null) {
+            metrics.count(deal, 0);
         }
-        return new RatingData(ratings, total);
     }
 
     /**
-     * Evaluate for Straight the determine if strait is present
-     *
-     * @param currentHand ArrayList of Cards
+     * Deal of the last processed line
      */
-    private Integer evaluateForStraight(ArrayList<Card> currentHand) {
-        Integer prevRating = null;
-        Integer totalRating = 0;
-        for (Card card : currentHand) {
-            Integer rating = card.getRating();
-            if (prevRating != null && prevRating != (rating - 1)) {
-                return null;
-            }
-            prevRating = rating;
-            totalRating += card.getRating();
-        }
-        return totalRating;
+    Deal getDeal() {
+        return deal;
     }
 
     /**
-     * Check if all cards in the hand are the same suit
+     * Evaluate already parsed deal
+     * An isomorphic deal found in the cache is not evaluated again.
      *
-     * @param currentHand Current hand evaluated
-     * @return boolean
+     * @param deal Deal
      */
-    private boolean isSameSuit(ArrayList<Card> currentHand) {
-        Integer mainSuit = currentHand.get(0).getSuit();
-        for (Card card : currentHand) {
-            Integer suit = card.getSuit();
-            if (!suit.equals(mainSuit)) {
-                return false;
-            }
+    private void evaluate(Deal deal) {
+        if (deal.getStatus() != Deal.OK) {
+            return;
         }
-        return true;
-    }
-
-
-    /**
-     * Internal class used for ratings transfer
-     */
-    private class RatingData {
-        /**
-         * Number of cards with the same rating
-         */
-        Map<Integer, Integer> ratings;
-
-        /**
-         * Sum of the ratings in the hand
-         */
-        int ratingTotal;
-
-        RatingData(Map<Integer, Integer> ratings, int ratingTotal) {
-            this.ratings = ratings;
-            this.ratingTotal = ratingTotal;
+        if (cache == null) {
+            HandEvaluator.evaluate(deal);
+        } else if (!cache.load(deal, canonicalizer)) {
+            HandEvaluator.evaluate(deal);
+            cache.store(deal, canonicalizer);
         }
-
     }
-
 }
@@ -0,0 +1,86 @@
+package com.stars;
+
+import com.stars.entities.PackedCard;
+import com.stars.equity.EquityResult;
+import com.stars.equity.HandRange;
+import com.stars.equity.PreflopTable;
+import com.stars.equity.RangeEquityCalculator;
+import com.stars.equity.RangeParser;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RangeEquityCommand class
+ *
+ * Calculates the equity of ranges separated by semicolons,
+ * the board may have 0 up to 5 cards or may be missing:
+ * Hero: AA2x ds, KKxx@0.5; Villain: top20%; Board: Ah-Kh-5s
+ * @see RangeParser
+ */
+class RangeEquityCommand {
+    private RangeEquityCommand() {
+    }
+
+    /**
+     * Calculate and print the equity
+     *
+     * @param line ranges and the partial board
+     * @param table preflop table for the topN% terms, may be null
+     * @param calculator configured calculator
+     */
+    static void run(String line, Path table, RangeEquityCalculator calculator) {
+        List<String> names = new ArrayList<>();
+        List<HandRange> ranges = new ArrayList<>();
+        int[] board = new int[0];
+        try {
+            PreflopTable preflop = table == null ? null : PreflopTable.load(table);
+            for (String part : line.trim().split(";")) {
+                int separator = part.indexOf(':');
+                if (separator < 0) {
+                    throw new ErrorHand(String.format("range %s: missing name", part.trim()));
+                }
+                String name = part.substring(0, separator).trim();
+                String expression = part.substring(separator + 1).trim();
+                if (Constants.BOARD.equalsIgnoreCase(name)) {
+                    board = parseCards(name, expression);
+                } else {
+                    names.add(name);
+                    ranges.add(RangeParser.parse(name, expression, preflop));
+                }
+            }
+            long start = System.nanoTime();
+            EquityResult result = calculator.calculate(ranges.toArray(new HandRange[0]), board);
+            for (HandRange range : ranges) {
+                System.out.printf("%s: %d hands%n", range.getName(), range.getHands().length);
+            }
+            System.out.print(result.toString(names.toArray(new String[0])));
+            System.out.printf("Time: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        } catch (ErrorHand errorHand) {
+            System.out.println("Error in " + errorHand.getMessage());
+        } catch (ErrorCard errorCard) {
+            System.out.println("Error in " + errorCard.getMessage());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int[] parseCards(String name, String data) throws ErrorCard {
+        if (data.isEmpty()) {
+            return new int[0];
+        }
+        String[] symbols = data.split("-");
+        int[] cards = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            cards[i] = PackedCard.parse(symbols[i].trim());
+            if (cards[i] == PackedCard.INVALID) {
+                throw new ErrorCard(String.format("card %s: %s", name, symbols[i].trim()));
+            }
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,129 @@
+package com.stars.cache;
+
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.evaluation.Combinations;
+import com.stars.evaluation.HiEvaluator;
+import com.stars.evaluation.LoEvaluator;
+
+/**
+ * Evaluation results of a deal in canonical suits
+ *
+ * Scores and winners do not depend on the suits. The best five cards are
+ * kept in canonical suits and mapped back to the suits of the deal that
+ * hits the cache.
+ */
+final class CachedResult {
+    private static final int CARDS = 5;
+
+    /**
+     * Board triple index by the card positions
+     */
+    private static final int[] TRIPLES = new int[Combinations.BOARD_CARDS * Combinations.BOARD_CARDS * Combinations.BOARD_CARDS];
+
+    static {
+        int[] triples = Combinations.BOARD_TRIPLES;
+        for (int triple = 0; triple < triples.length / 3; triple++) {
+            int a = triples[triple * 3];
+            int b = triples[triple * 3 + 1];
+            int c = triples[triple * 3 + 2];
+            int[][] orders = {{a, b, c}, {a, c, b}, {b, a, c}, {b, c, a}, {c, a, b}, {c, b, a}};
+            for (int[] order : orders) {
+                TRIPLES[(order[0] * Combinations.BOARD_CARDS + order[1]) * Combinations.BOARD_CARDS + order[2]] = triple;
+            }
+        }
+    }
+
+    private final int players;
+    private final int hiScore;
+    private final int hiWinners;
+    private final int loScore;
+    private final int loWinners;
+    private final int[] hiScores;
+    private final int[] loScores;
+    private final int[] loHands;
+    private final int[] hiCards;
+    private final int[] loCards;
+
+    /**
+     * Keep the results of the evaluated deal
+     *
+     * @param deal evaluated deal
+     * @param canonicalizer canonicalizer of the deal
+     */
+    CachedResult(Deal deal, DealCanonicalizer canonicalizer) {
+        players = deal.getPlayers();
+        hiScore = deal.getHiScore();
+        hiWinners = deal.getHiWinners();
+        loScore = deal.getLoScore();
+        loWinners = deal.getLoWinners();
+        hiScores = new int[players];
+        loScores = new int[players];
+        loHands = new int[players];
+        hiCards = new int[players * CARDS];
+        loCards = new int[players * CARDS];
+        for (int i = 0; i < players; i++) {
+            Hand hand = deal.getHands()[i];
+            hiScores[i] = hand.getHiScore();
+            loScores[i] = hand.getLoScore();
+            loHands[i] = hand.getLoHand();
+            int[] cards = hand.getHiHand();
+            for (int c = 0; c < CARDS; c++) {
+                hiCards[i * CARDS + c] = canonicalizer.toCanonical(cards[c]);
+            }
+            if (loScores[i] != LoEvaluator.NO_LOW) {
+                cards = hand.getLoCards();
+                for (int c = 0; c < CARDS; c++) {
+                    loCards[i * CARDS + c] = canonicalizer.toCanonical(cards[c]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill in the results of an isomorphic deal
+     *
+     * @param deal parsed deal with the same canonical key
+     * @param canonicalizer canonicalizer of the deal
+     */
+    void apply(Deal deal, DealCanonicalizer canonicalizer) {
+        int[] board = deal.getBoard().getCards();
+        for (int i = 0; i < players; i++) {
+            Hand hand = deal.getHands()[i];
+            hand.reset();
+            hand.setHiScore(hiScores[i]);
+            hand.setRank(HiEvaluator.category(hiScores[i]));
+            hand.setHiCombination(pair(hand.getHand(), hiCards, i * CARDS, canonicalizer),
+                    triple(board, hiCards, i * CARDS + 2, canonicalizer));
+            hand.setLoScore(loScores[i]);
+            hand.setLoHand(loHands[i]);
+            if (loScores[i] != LoEvaluator.NO_LOW) {
+                hand.setLoCombination(pair(hand.getHand(), loCards, i * CARDS, canonicalizer),
+                        triple(board, loCards, i * CARDS + 2, canonicalizer));
+            }
+        }
+        deal.setHi(hiScore, hiWinners);
+        deal.setLo(loScore, loWinners);
+    }
+
+    private static int pair(int[] hand, int[] cards, int from, DealCanonicalizer canonicalizer) {
+        return Combinations.holePair(hand.length, position(hand, canonicalizer.fromCanonical(cards[from])),
+                position(hand, canonicalizer.fromCanonical(cards[from + 1])));
+    }
+
+    private static int triple(int[] board, int[] cards, int from, DealCanonicalizer canonicalizer) {
+        int a = position(board, canonicalizer.fromCanonical(cards[from]));
+        int b = position(board, canonicalizer.fromCanonical(cards[from + 1]));
+        int c = position(board, canonicalizer.fromCanonical(cards[from + 2]));
+        return TRIPLES[(a * Combinations.BOARD_CARDS + b) * Combinations.BOARD_CARDS + c];
+    }
+
+    private static int position(int[] cards, int card) {
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] == card) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Card " + card + " is not in the deal");
+    }
+}
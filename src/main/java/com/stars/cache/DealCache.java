@@ -0,0 +1,166 @@
+package com.stars.cache;
+
+import com.stars.entities.Deal;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of evaluated deals by their suit isomorphic canonical key
+ *
+ * The cache is split into shards, each an LRU map behind its own lock,
+ * so workers rarely wait for each other. The capacity is divided exactly
+ * among the shards, a capacity below 16 uses fewer shards. A hit costs the canonical key,
+ * one lookup and the mapping of the best cards back to the suits of the deal.
+ * Thread safe, shared by all workers.
+ */
+public class DealCache implements DealCacheMXBean {
+    private static final int SHARDS = 16;
+
+    private final int capacity;
+    private final Shard[] shards;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity maximum number of cached deals
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public DealCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity " + capacity + " is not positive");
+        }
+        this.capacity = capacity;
+        // a power of two, the shard is chosen by a mask
+        shards = new Shard[Math.min(SHARDS, Integer.highestOneBit(capacity))];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(capacity / shards.length + (i < capacity % shards.length ? 1 : 0));
+        }
+    }
+
+    /**
+     * Fill in the results of the deal from the cache
+     *
+     * @param deal parsed deal without errors
+     * @param canonicalizer canonicalizer of the current worker
+     * @return true on hit, on miss the deal has to be evaluated and stored
+     */
+    public boolean load(Deal deal, DealCanonicalizer canonicalizer) {
+        DealKey key = canonicalizer.canonicalize(deal);
+        CachedResult result = shard(key).get(key);
+        if (result == null) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        result.apply(deal, canonicalizer);
+        return true;
+    }
+
+    /**
+     * Keep the results of the deal evaluated after a miss
+     *
+     * @param deal evaluated deal
+     * @param canonicalizer canonicalizer used by the failed {@link #load}
+     */
+    public void store(Deal deal, DealCanonicalizer canonicalizer) {
+        DealKey key = canonicalizer.key();
+        shard(key).put(key.copy(), new CachedResult(deal, canonicalizer));
+    }
+
+    /**
+     * Register the statistics in the platform MBean server
+     *
+     * @return name of the MBean
+     * @throws JMException if the registration fails
+     */
+    public ObjectName register() throws JMException {
+        ObjectName name = new ObjectName("com.stars:type=DealCache");
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d evictions=%d size=%d hit rate=%.1f%%",
+                getHits(), getMisses(), getEvictions(), getSize(), getHitRate() * 100);
+    }
+
+    private Shard shard(DealKey key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    /**
+     * LRU map of one shard
+     */
+    private final class Shard {
+        private final Map<DealKey, CachedResult> entries;
+
+        Shard(int capacity) {
+            entries = new LinkedHashMap<DealKey, CachedResult>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<DealKey, CachedResult> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized CachedResult get(DealKey key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(DealKey key, CachedResult result) {
+            entries.put(key, result);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.stars.cache;
+
+/**
+ * Statistics of the deal cache exported through JMX as com.stars:type=DealCache
+ */
+public interface DealCacheMXBean {
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    /**
+     * Cached deals
+     */
+    int getSize();
+
+    int getCapacity();
+
+    /**
+     * Hits of all lookups, 0-1
+     */
+    double getHitRate();
+}
@@ -0,0 +1,111 @@
+package com.stars.cache;
+
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+
+/**
+ * Suit isomorphic canonical form of a deal
+ *
+ * Deals that differ only by the names of the suits, or by the order of the
+ * cards of a hand or of the board, have the same Hi/Lo results.
+ * Every suit gets a signature: the rank mask of the suit in each slot,
+ * board first and then the hands in order. The suits sorted by their
+ * signatures are relabeled 0-3, suits with equal signatures are
+ * interchangeable so their order does not matter.
+ * Not thread safe, each worker uses its own canonicalizer.
+ */
+public class DealCanonicalizer {
+    private static final int SUITS = 4;
+    private static final int SLOTS = Deal.MAX_HANDS + 1;
+
+    private final int[][] signatures = new int[SUITS][SLOTS];
+    private final int[] order = new int[SUITS];
+    private final int[] canonical = new int[SUITS];
+    private final long[] masks = new long[SLOTS];
+    private final DealKey key = new DealKey(SLOTS);
+
+    /**
+     * Compute the canonical key of a parsed deal
+     *
+     * @param deal deal without errors
+     * @return key, reused by the next call
+     */
+    DealKey canonicalize(Deal deal) {
+        int slots = deal.getPlayers() + 1;
+        for (int suit = 0; suit < SUITS; suit++) {
+            for (int slot = 0; slot < slots; slot++) {
+                signatures[suit][slot] = 0;
+            }
+            order[suit] = suit;
+        }
+        for (int card : deal.getBoard().getCards()) {
+            signatures[PackedCard.suit(card)][0] |= PackedCard.rankBit(card);
+        }
+        for (int i = 0; i < deal.getPlayers(); i++) {
+            for (int card : deal.getHands()[i].getHand()) {
+                signatures[PackedCard.suit(card)][i + 1] |= PackedCard.rankBit(card);
+            }
+        }
+        for (int i = 1; i < SUITS; i++) {
+            int suit = order[i];
+            int j = i;
+            while (j > 0 && compare(order[j - 1], suit, slots) < 0) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = suit;
+        }
+        for (int i = 0; i < SUITS; i++) {
+            canonical[order[i]] = i;
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            long mask = 0;
+            for (int i = 0; i < SUITS; i++) {
+                mask |= (long) signatures[order[i]][slot] << (i * 13);
+            }
+            masks[slot] = mask;
+        }
+        key.set(slots, masks);
+        return key;
+    }
+
+    /**
+     * Key of the last deal
+     */
+    DealKey key() {
+        return key;
+    }
+
+    /**
+     * Card with the canonical suit of the last deal
+     *
+     * @param card packed card of the deal
+     * @return packed card
+     */
+    public int toCanonical(int card) {
+        return PackedCard.of(PackedCard.rank(card), canonical[PackedCard.suit(card)]);
+    }
+
+    /**
+     * Card with the suit of the last deal
+     *
+     * @param card canonical packed card
+     * @return packed card
+     */
+    public int fromCanonical(int card) {
+        return PackedCard.of(PackedCard.rank(card), order[PackedCard.suit(card)]);
+    }
+
+    /**
+     * Order of the signatures, slot by slot
+     */
+    private int compare(int first, int second, int slots) {
+        for (int slot = 0; slot < slots; slot++) {
+            int difference = signatures[first][slot] - signatures[second][slot];
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.stars.cache;
+
+import java.util.Arrays;
+
+/**
+ * Canonical key of a deal
+ *
+ * One 52 bit card mask per slot, the board first and then the hands,
+ * with the suits already relabeled by {@link DealCanonicalizer}.
+ * The canonicalizer reuses its key for lookups, the cache stores copies.
+ */
+final class DealKey {
+    private final long[] slots;
+    private int length;
+    private int hash;
+
+    DealKey(int capacity) {
+        slots = new long[capacity];
+    }
+
+    private DealKey(long[] slots, int hash) {
+        this.slots = slots;
+        this.length = slots.length;
+        this.hash = hash;
+    }
+
+    void set(int length, long[] masks) {
+        System.arraycopy(masks, 0, slots, 0, length);
+        this.length = length;
+        long mixed = length;
+        for (int i = 0; i < length; i++) {
+            mixed = (mixed ^ masks[i]) * 0x9E3779B97F4A7C15L;
+        }
+        hash = (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * Immutable copy for the cache
+     */
+    DealKey copy() {
+        return new DealKey(Arrays.copyOf(slots, length), hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof DealKey)) {
+            return false;
+        }
+        DealKey key = (DealKey) other;
+        if (key.length != length || key.hash != hash) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.slots[i] != slots[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,207 @@
+package com.stars.entities;
+
+import com.stars.evaluation.HiEvaluator;
+import com.stars.evaluation.LoEvaluator;
+
+import java.util.Arrays;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.BOARD_TRIPLES;
+
+/**
+ * Board entity
+ * Parsed once per line and shared by all hands at the table.
+ *
+ * Precomputes the data of each of the 10 board triples:
+ * 1. rank mask - bits of the ranks
+ * 2. suit - common suit bit, non zero only if the triple is flush eligible
+ * 3. product - product of the rank primes
+ * 4. low mask - ranks A-8 as 8 bits (ace = bit 0), non zero only if
+ *    the triple has 3 different low ranks
+ * 5. rank key - key of the ranks for {@link HiEvaluator#evaluateRanks}
+ * @see PackedCard
+ */
+public class Board {
+    /**
+     * Bits of the triple index in the best combinations
+     */
+    public static final int TRIPLE_BITS = 4;
+
+    private static final int LOW_MASKS = 256;
+
+    private final int[] cards = new int[BOARD_CARDS];
+    private final int[] suitCounts = new int[4];
+
+    private final int[] tripleRanks = new int[BOARD_TRIPLES.length / 3];
+    private final int[] tripleSuits = new int[BOARD_TRIPLES.length / 3];
+    private final int[] tripleProducts = new int[BOARD_TRIPLES.length / 3];
+    private final int[] tripleLows = new int[BOARD_TRIPLES.length / 3];
+    private final int[] tripleKeys = new int[BOARD_TRIPLES.length / 3];
+
+    private final int[] lowTriples = new int[BOARD_TRIPLES.length / 3];
+    private int lowTripleCount;
+    private boolean flushPossible;
+
+    // best triples of the hole pairs, valid while the stamp is the one of the last prepare
+    private final int[] pairBests = new int[HiEvaluator.RANK_PAIRS];
+    private final int[] pairStamps = new int[HiEvaluator.RANK_PAIRS];
+    private final int[] lowBests = new int[LOW_MASKS];
+    private final int[] lowStamps = new int[LOW_MASKS];
+    private int stamp;
+
+    /**
+     * Builds empty board
+     * The cards are filled in later and the board is reused for many lines.
+     * @see #prepare()
+     */
+    public Board() {
+    }
+
+    /**
+     * Precompute the triples data and the texture from the current cards
+     *
+     * The texture tells which results the board can not give at all:
+     * no flush without 3 cards of one suit, no Low without 3 different ranks
+     * of 8 or below, so the evaluator can skip them for every hand.
+     * The best triples cached for the previous cards are dropped.
+     */
+    public void prepare() {
+        if (++stamp == 0) {
+            Arrays.fill(pairStamps, 0);
+            Arrays.fill(lowStamps, 0);
+            stamp = 1;
+        }
+        for (int suit = 0; suit < suitCounts.length; suit++) {
+            suitCounts[suit] = 0;
+        }
+        flushPossible = false;
+        for (int card : cards) {
+            flushPossible |= ++suitCounts[PackedCard.suit(card)] >= 3;
+        }
+        lowTripleCount = 0;
+
+        for (int triple = 0; triple < tripleRanks.length; triple++) {
+            int first = cards[BOARD_TRIPLES[triple * 3]];
+            int second = cards[BOARD_TRIPLES[triple * 3 + 1]];
+            int third = cards[BOARD_TRIPLES[triple * 3 + 2]];
+            tripleRanks[triple] = PackedCard.rankBit(first | second | third);
+            tripleSuits[triple] = PackedCard.suitBit(first & second & third);
+            tripleProducts[triple] = PackedCard.prime(first) * PackedCard.prime(second) * PackedCard.prime(third);
+            int low = PackedCard.lowBit(first) | PackedCard.lowBit(second) | PackedCard.lowBit(third);
+            tripleLows[triple] = Integer.bitCount(low) == 3 ? low : 0;
+            if (tripleLows[triple] != 0) {
+                lowTriples[lowTripleCount++] = triple;
+            }
+            tripleKeys[triple] = HiEvaluator.tripleKey(first, second, third);
+        }
+    }
+
+    /**
+     * Best triple for hole cards of the ranks without a flush
+     * Computed once per board and reused for all hole pairs of the same ranks.
+     *
+     * @param pairKey value of {@link HiEvaluator#pairKey}
+     * @return strength shifted by {@link #TRIPLE_BITS} | index of the first best triple
+     */
+    public int getBestRanks(int pairKey) {
+        if (pairStamps[pairKey] != stamp) {
+            int best = 0;
+            int bestTriple = 0;
+            for (int triple = 0; triple < tripleKeys.length; triple++) {
+                int strength = HiEvaluator.evaluateRanks(pairKey, tripleKeys[triple]);
+                if (strength > best) {
+                    best = strength;
+                    bestTriple = triple;
+                }
+            }
+            pairBests[pairKey] = best << TRIPLE_BITS | bestTriple;
+            pairStamps[pairKey] = stamp;
+        }
+        return pairBests[pairKey];
+    }
+
+    /**
+     * Best Low triple for hole cards of the low ranks
+     * Computed once per board and reused for all hole pairs of the same low ranks.
+     *
+     * @param pairLow low bits of 2 different low ranks
+     * @return score shifted by {@link #TRIPLE_BITS} | index of the first best triple,
+     *         {@link LoEvaluator#NO_LOW} if the board allows no Low
+     */
+    public int getBestLow(int pairLow) {
+        if (lowStamps[pairLow] != stamp) {
+            int best = LoEvaluator.NO_LOW;
+            int bestTriple = 0;
+            for (int i = 0; i < lowTripleCount; i++) {
+                int triple = lowTriples[i];
+                int score = LoEvaluator.evaluate(pairLow | tripleLows[triple]);
+                if (score > best) {
+                    best = score;
+                    bestTriple = triple;
+                }
+            }
+            lowBests[pairLow] = best << TRIPLE_BITS | bestTriple;
+            lowStamps[pairLow] = stamp;
+        }
+        return lowBests[pairLow];
+    }
+
+    /**
+     * Board texture: at least 3 cards of one suit
+     */
+    public boolean isFlushPossible() {
+        return flushPossible;
+    }
+
+    /**
+     * Number of triples with 3 different Low ranks, 0 if the board allows no Low
+     */
+    public int getLowTripleCount() {
+        return lowTripleCount;
+    }
+
+    /**
+     * Triple with 3 different Low ranks, in the order of the triples
+     *
+     * @param index 0 up to {@link #getLowTripleCount()}
+     * @return triple index
+     */
+    public int getLowTriple(int index) {
+        return lowTriples[index];
+    }
+
+    public int[] getCards() {
+        return cards;
+    }
+
+    /**
+     * Number of board cards of each suit
+     */
+    public int[] getSuitCounts() {
+        return suitCounts;
+    }
+
+    public int getTriples() {
+        return tripleRanks.length;
+    }
+
+    public int getTripleRanks(int triple) {
+        return tripleRanks[triple];
+    }
+
+    public int getTripleSuits(int triple) {
+        return tripleSuits[triple];
+    }
+
+    public int getTripleProduct(int triple) {
+        return tripleProducts[triple];
+    }
+
+    public int getTripleLow(int triple) {
+        return tripleLows[triple];
+    }
+
+    public int getTripleKey(int triple) {
+        return tripleKeys[triple];
+    }
+}
@@ -0,0 +1,120 @@
+package com.stars.entities;
+
+import com.stars.Constants;
+
+/**
+ * Deal entity
+ * All hands of one line sharing the board.
+ *
+ * The deal is reused for many lines: the parser fills in the cards
+ * of the board and the hands and sets the status.
+ */
+public class Deal {
+    /**
+     * Line parsed without errors
+     */
+    public static final int OK = 0;
+
+    /**
+     * Error in hand/board: wrong number of hands or cards
+     */
+    public static final int ERROR_HAND = 1;
+
+    /**
+     * Error in card: unknown or duplicate card
+     */
+    public static final int ERROR_CARD = 2;
+
+    /**
+     * Maximum number of hands in the deal
+     */
+    public static final int MAX_HANDS = Constants.MAX_PLAYERS;
+
+    private final Board board = new Board();
+    private final Hand[] hands = new Hand[MAX_HANDS];
+    private int players;
+    private int status;
+
+    private int hiScore;
+    private int hiWinners;
+    private int loScore;
+    private int loWinners;
+
+    public Deal() {
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = new Hand(board);
+        }
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * All hand slots, only the first {@link #getPlayers()} are in use
+     */
+    public Hand[] getHands() {
+        return hands;
+    }
+
+    /**
+     * Number of hole cards of every hand, valid for a parsed deal
+     */
+    public int getHoleCards() {
+        return hands[0].getHoleCards();
+    }
+
+    public int getPlayers() {
+        return players;
+    }
+
+    public void setPlayers(int players) {
+        this.players = players;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * Best Hi strength at the table
+     */
+    public int getHiScore() {
+        return hiScore;
+    }
+
+    /**
+     * Bits of the hands winning Hi
+     */
+    public int getHiWinners() {
+        return hiWinners;
+    }
+
+    public void setHi(int hiScore, int hiWinners) {
+        this.hiScore = hiScore;
+        this.hiWinners = hiWinners;
+    }
+
+    /**
+     * Best Lo score at the table
+     */
+    public int getLoScore() {
+        return loScore;
+    }
+
+    /**
+     * Bits of the hands winning Lo, 0 if no hand qualified
+     */
+    public int getLoWinners() {
+        return loWinners;
+    }
+
+    public void setLo(int loScore, int loWinners) {
+        this.loScore = loScore;
+        this.loWinners = loWinners;
+    }
+}
@@ -1,102 +1,194 @@
 package com.stars.entities;
 
 import com.stars.HandEnum;
-import com.stars.errors.ErrorCard;
-import com.stars.errors.ErrorHand;
-
-import java.util.*;
+import com.stars.evaluation.Combinations;
+import com.stars.evaluation.LoEvaluator;
 
 /**
  * Hand evaluation class
  * Uses given hand and the board cards to determine the hand ranking
+ *
+ * All cards are kept as packed ints. The hand has 4, 5 or 6 hole cards,
+ * the hole card array of each variant is kept so the hand can be reused
+ * for lines of any variant without allocations.
+ * @see PackedCard
  */
 public class Hand {
-    private ArrayList<Card> hand;
-    private ArrayList<Card> board;
-
-    private Double hiScore = 0d;
-    private ArrayList<Card> hiHand;
-    private Integer loScore;
-    private ArrayList<Card> loHand;
+    private String name;
+    private final int[][] variants = new int[Combinations.MAX_HOLE_CARDS + 1][];
+    private int[] hand = new int[Combinations.HOLE_CARDS];
+    private Board board;
+
+    private int hiScore;
+    private int hiPair;
+    private int hiTriple;
+    private final int[] hiHand = new int[5];
+    private int loScore = LoEvaluator.NO_LOW;
+    private int loHand;
+    private int loPair;
+    private int loTriple;
+    private final int[] loCards = new int[5];
 
     private HandEnum rank;
 
     /**
-     * Builds the hand data
+     * Builds empty hand for the board
+     * The cards are filled in later and the hand is reused for many lines.
      *
-     * @param hand  Hand string
-     * @param board Board string
-     * @throws ErrorHand if error in hand
-     * @throws ErrorCard if error in cards
+     * @param board Board shared by all hands
      */
-    public Hand(String hand, String board) throws ErrorHand, ErrorCard {
-        String[] _hand = hand.split("-");
-        String[] _board = board.split("-");
-        if (_hand.length == 4 && _board.length == 5) {
-            this.hand = this.processCards(_hand);
-            this.board = this.processCards(_board);
-        } else {
-            throw new ErrorHand();
-        }
+    public Hand(Board board) {
+        this.board = board;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
     }
 
     /**
-     * Create list of Card objects
-     *
-     * @param data Array of all cards in the hand or board
-     * @return ArrayList of Cards
-     * @throws ErrorCard if error in cards is found
+     * Clear the evaluation results before the hand is evaluated again
      */
-    private ArrayList<Card> processCards(String[] data) throws ErrorCard {
-        ArrayList<Card> cards = new ArrayList<>();
-        for (String single : data) {
-            Card card = new Card(single);
-            cards.add(card);
-        }
+    public void reset() {
+        hiScore = 0;
+        rank = null;
+        loScore = LoEvaluator.NO_LOW;
+        loHand = 0;
+    }
+
+    /**
+     * Hole cards
+     * @return packed cards, as many as {@link #getHoleCards()}
+     */
+    public int[] getHand() {
+        return hand;
+    }
 
-        return cards;
+    /**
+     * Number of hole cards: 4, 5 or 6
+     */
+    public int getHoleCards() {
+        return hand.length;
     }
 
-    public ArrayList<Card> getHand() {
+    /**
+     * Switch to the hole card array of the variant
+     * The cards are filled in by the caller.
+     *
+     * @param holeCards 4, 5 or 6
+     * @return hole card array of the variant
+     */
+    public int[] setHoleCards(int holeCards) {
+        if (hand.length != holeCards) {
+            variants[hand.length] = hand;
+            hand = variants[holeCards] != null ? variants[holeCards] : new int[holeCards];
+        }
         return hand;
     }
 
-    public void setHand(ArrayList<Card> hand) {
+    public void setHand(int[] hand) {
         this.hand = hand;
     }
 
-    public ArrayList<Card> getBoard() {
+    public Board getBoard() {
         return board;
     }
 
-    public void setBoard(ArrayList<Card> board) {
+    public void setBoard(Board board) {
         this.board = board;
     }
 
-    public Double getHiScore() {
+    /**
+     * Hi strength
+     * @see com.stars.evaluation.HiEvaluator
+     */
+    public int getHiScore() {
         return hiScore;
     }
 
-    public void setHiScore(Double hiScore) {
+    public void setHiScore(int hiScore) {
         this.hiScore = hiScore;
     }
 
-    public void setHiHand(ArrayList<Card> hiHand) {
-        this.hiHand = hiHand;
+    /**
+     * Keep the best Hi combination
+     *
+     * @param pair position of the hole pair in {@link Combinations#holePairs}
+     * @param triple board triple index
+     */
+    public void setHiCombination(int pair, int triple) {
+        this.hiPair = pair;
+        this.hiTriple = triple;
+    }
+
+    /**
+     * Best Hi cards
+     * @return 5 packed cards, the array is reused
+     */
+    public int[] getHiHand() {
+        int[] cards = board.getCards();
+        int[] pairs = Combinations.holePairs(hand.length);
+        hiHand[0] = hand[pairs[hiPair]];
+        hiHand[1] = hand[pairs[hiPair + 1]];
+        hiHand[2] = cards[Combinations.BOARD_TRIPLES[hiTriple * 3]];
+        hiHand[3] = cards[Combinations.BOARD_TRIPLES[hiTriple * 3 + 1]];
+        hiHand[4] = cards[Combinations.BOARD_TRIPLES[hiTriple * 3 + 2]];
+        return hiHand;
     }
 
-    public Integer getLoScore() {
+    /**
+     * Lo score
+     * @see LoEvaluator
+     */
+    public int getLoScore() {
         return loScore;
     }
 
-    public void setLoScore(Integer loScore) {
+    public void setLoScore(int loScore) {
         this.loScore = loScore;
     }
 
-    public void setLoHand(ArrayList<Card> loHand) {
+    /**
+     * Best Lo cards
+     * @return 8 bit Low mask
+     */
+    public int getLoHand() {
+        return loHand;
+    }
+
+    public void setLoHand(int loHand) {
         this.loHand = loHand;
     }
 
+    /**
+     * Keep the best Lo combination
+     *
+     * @param pair position of the hole pair in {@link Combinations#holePairs}
+     * @param triple board triple index
+     */
+    public void setLoCombination(int pair, int triple) {
+        this.loPair = pair;
+        this.loTriple = triple;
+    }
+
+    /**
+     * Best Lo cards, valid only if the hand has a Low
+     * @return 5 packed cards, the array is reused
+     */
+    public int[] getLoCards() {
+        int[] cards = board.getCards();
+        int[] pairs = Combinations.holePairs(hand.length);
+        loCards[0] = hand[pairs[loPair]];
+        loCards[1] = hand[pairs[loPair + 1]];
+        loCards[2] = cards[Combinations.BOARD_TRIPLES[loTriple * 3]];
+        loCards[3] = cards[Combinations.BOARD_TRIPLES[loTriple * 3 + 1]];
+        loCards[4] = cards[Combinations.BOARD_TRIPLES[loTriple * 3 + 2]];
+        return loCards;
+    }
+
     public void setRank(HandEnum rank) {
         this.rank = rank;
     }
@@ -110,23 +202,19 @@ public class Hand {
      * This is used for display purposes only
      */
     public String toStringLoHand() {
-        ArrayList<Card> hand = loHand;
-        hand.sort(Comparator.comparing(Card::getRatingLo));
-        StringBuilder cards = new StringBuilder();
-        for (Card card : hand) {
-            cards.append(card.toString());
-        }
-        return cards.toString();
+        return LoEvaluator.toString(loHand);
     }
 
     @Override
     public String toString() {
-        StringJoiner joiner = new StringJoiner("-");
-        joiner.add(hiHand.get(0).toString())
-                .add(hiHand.get(1).toString())
-                .add(hiHand.get(2).toString())
-                .add(hiHand.get(3).toString())
-                .add(hiHand.get(4).toString());
+        int[] hiHand = getHiHand();
+        StringBuilder joiner = new StringBuilder();
+        for (int i = 0; i < hiHand.length; i++) {
+            if (i > 0) {
+                joiner.append('-');
+            }
+            joiner.append(PackedCard.rankChar(hiHand[i]));
+        }
         return joiner.toString();
     }
 }
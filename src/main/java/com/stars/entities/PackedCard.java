@@ -0,0 +1,198 @@
+package com.stars.entities;
+
+import com.stars.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Packed card encoding
+ *
+ * Every card is stored as a single int with fixed bit fields:
+ * <pre>
+ * xxxbbbbb bbbbbbbb cdhsrrrr xxpppppp
+ *
+ * b = bit turned on depending on the rank (deuce = bit 16, ace = bit 28)
+ * cdhs = suit bit (clubs = bit 12 ... spades = bit 15)
+ * r = rank 0-12 (deuce = 0, ace = 12)
+ * p = prime number of the rank (deuce = 2, ace = 41)
+ * </pre>
+ * Zero is never a valid card and is used as {@link #INVALID}.
+ * Cards are also addressable by a deck index 0-51 (rank * 4 + suit).
+ */
+public final class PackedCard {
+    /**
+     * Marker for unknown card
+     */
+    public static final int INVALID = 0;
+
+    /**
+     * Number of cards in the deck
+     */
+    public static final int DECK_SIZE = 52;
+
+    /**
+     * Rank of the ace
+     */
+    public static final int ACE = 12;
+
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41};
+
+    private static final int[] DECK = new int[DECK_SIZE];
+
+    private static final int[] LOW_BITS = {2, 4, 8, 16, 32, 64, 128, 0, 0, 0, 0, 0, 1};
+
+    private static final int[] RANK_OF_CHAR = new int[128];
+    private static final int[] SUIT_OF_CHAR = new int[128];
+
+    static {
+        for (int index = 0; index < DECK_SIZE; index++) {
+            DECK[index] = of(index >> 2, index & 3);
+        }
+        Arrays.fill(RANK_OF_CHAR, -1);
+        Arrays.fill(SUIT_OF_CHAR, -1);
+        for (int rank = 0; rank < Constants.RANKS.length(); rank++) {
+            char symbol = Constants.RANKS.charAt(rank);
+            RANK_OF_CHAR[symbol] = rank;
+            RANK_OF_CHAR[Character.toLowerCase(symbol)] = rank;
+        }
+        for (int suit = 0; suit < Constants.SUITS.length(); suit++) {
+            char symbol = Constants.SUITS.charAt(suit);
+            SUIT_OF_CHAR[symbol] = suit;
+            SUIT_OF_CHAR[Character.toUpperCase(symbol)] = suit;
+        }
+    }
+
+    private PackedCard() {
+    }
+
+    /**
+     * Build packed card from rank and suit
+     *
+     * @param rank 0-12
+     * @param suit 0-3
+     * @return packed card
+     */
+    public static int of(int rank, int suit) {
+        return (1 << (16 + rank)) | (1 << (12 + suit)) | (rank << 8) | PRIMES[rank];
+    }
+
+    /**
+     * Packed card for deck index
+     *
+     * @param index 0-51
+     * @return packed card
+     */
+    public static int fromIndex(int index) {
+        return DECK[index];
+    }
+
+    /**
+     * Parse card from its 2 letter representation
+     * Rank and suit are case insensitive.
+     *
+     * @param rank rank symbol
+     * @param suit suit symbol
+     * @return packed card or {@link #INVALID}
+     */
+    public static int parse(int rank, int suit) {
+        if (rank >= 128 || suit >= 128) {
+            return INVALID;
+        }
+        int r = RANK_OF_CHAR[rank];
+        int s = SUIT_OF_CHAR[suit];
+        if (r < 0 || s < 0) {
+            return INVALID;
+        }
+        return DECK[(r << 2) | s];
+    }
+
+    /**
+     * Parse card from string
+     *
+     * @param card 2 letter representation
+     * @return packed card or {@link #INVALID}
+     */
+    public static int parse(String card) {
+        if (card.length() != 2) {
+            return INVALID;
+        }
+        return parse(card.charAt(0), card.charAt(1));
+    }
+
+    /**
+     * Check that the int is one of the 52 packed cards
+     *
+     * @param card packed card
+     * @return true for a card of the deck
+     */
+    public static boolean isValid(int card) {
+        int rank = rank(card);
+        int suitBit = suitBit(card);
+        if (rank > ACE || suitBit == 0) {
+            return false;
+        }
+        return DECK[(rank << 2) | suit(card)] == card;
+    }
+
+    public static int rank(int card) {
+        return (card >> 8) & 0xF;
+    }
+
+    public static int suit(int card) {
+        return Integer.numberOfTrailingZeros(card >> 12);
+    }
+
+    public static int rankBit(int card) {
+        return card >>> 16;
+    }
+
+    public static int suitBit(int card) {
+        return (card >> 12) & 0xF;
+    }
+
+    public static int prime(int card) {
+        return card & 0x3F;
+    }
+
+    /**
+     * Bit of the card in the 8 bit Low mask
+     * The ace is bit 0 and the eight is bit 7, higher cards have no bit.
+     */
+    public static int lowBit(int card) {
+        return LOW_BITS[rank(card)];
+    }
+
+    public static int index(int card) {
+        return (rank(card) << 2) | suit(card);
+    }
+
+    /**
+     * Hi rating as used in the poker rankings (deuce = 2, ace = 14)
+     */
+    public static int rating(int card) {
+        return rank(card) + 2;
+    }
+
+    /**
+     * Lo rating where the ace counts as 1
+     */
+    public static int ratingLo(int card) {
+        int rank = rank(card);
+        return rank == ACE ? 1 : rank + 2;
+    }
+
+    public static char rankChar(int card) {
+        return Constants.RANKS.charAt(rank(card));
+    }
+
+    public static char suitChar(int card) {
+        return Constants.SUITS.charAt(suit(card));
+    }
+
+    /**
+     * Card as a string e.g. Ad
+     */
+    public static String toString(int card) {
+        return new String(new char[]{rankChar(card), suitChar(card)});
+    }
+}
@@ -0,0 +1,285 @@
+package com.stars.equity;
+
+import com.stars.Constants;
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+import com.stars.evaluation.Combinations;
+import com.stars.evaluation.HandEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+
+/**
+ * Hi/Lo equity calculator
+ *
+ * Completes the partial board with the remaining cards of the deck and
+ * counts the outcomes of all hands:
+ * 1. exhaustive - all remaining boards when there are at most {@link #getExhaustiveLimit()}
+ * 2. Monte Carlo - {@link #getSamples()} random boards otherwise
+ *
+ * The boards are split to tasks running on a ForkJoinPool; every task has its
+ * own Deal and, for sampling, its own random generator split from the seed,
+ * so the sampled result depends only on the seed and the number of tasks.
+ */
+public class EquityCalculator implements AutoCloseable {
+    /**
+     * Default maximum number of boards enumerated exhaustively
+     */
+    public static final long EXHAUSTIVE_LIMIT = 2_000_000;
+
+    /**
+     * Default number of sampled boards
+     */
+    public static final int SAMPLES = 1_000_000;
+
+    /**
+     * Default seed of the random boards
+     */
+    public static final long SEED = 0x5DEECE66DL;
+
+    private static final int TASKS_PER_THREAD = 8;
+
+    static final long[][] BINOMIALS = new long[PackedCard.DECK_SIZE + 1][BOARD_CARDS + 1];
+
+    static {
+        for (int n = 0; n <= PackedCard.DECK_SIZE; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= BOARD_CARDS && k <= n; k++) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + (k < n ? BINOMIALS[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int tasks;
+    private long exhaustiveLimit = EXHAUSTIVE_LIMIT;
+    private int samples = SAMPLES;
+    private long seed = SEED;
+
+    /**
+     * @param threads number of worker threads, 0 uses all available processors
+     */
+    public EquityCalculator(int threads) {
+        if (threads < 1) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        pool = new ForkJoinPool(threads);
+        tasks = threads * TASKS_PER_THREAD;
+    }
+
+    public long getExhaustiveLimit() {
+        return exhaustiveLimit;
+    }
+
+    public void setExhaustiveLimit(long exhaustiveLimit) {
+        this.exhaustiveLimit = exhaustiveLimit;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Calculate the equity of the hands
+     *
+     * @param hands packed hole cards of 2 up to 10 hands, 4, 5 or 6 cards each
+     * @param board packed board cards, 0 up to 5
+     * @return EquityResult
+     * @throws ErrorHand if the number of hands or cards is wrong or the deck can not complete the board
+     * @throws ErrorCard if a card is unknown or used twice
+     */
+    public EquityResult calculate(int[][] hands, int[] board) throws ErrorHand, ErrorCard {
+        if (hands.length < Constants.MIN_PLAYERS || hands.length > Constants.MAX_PLAYERS || board.length > BOARD_CARDS) {
+            throw new ErrorHand();
+        }
+        long dead = deadCards(board);
+        for (int[] hand : hands) {
+            if (!Combinations.isVariant(hand.length) || hand.length != hands[0].length) {
+                throw new ErrorHand();
+            }
+            long cards = deadCards(hand);
+            if ((dead & cards) != 0) {
+                throw new ErrorCard();
+            }
+            dead |= cards;
+        }
+
+        int[] deck = new int[PackedCard.DECK_SIZE - Long.bitCount(dead)];
+        int size = 0;
+        for (int index = 0; index < PackedCard.DECK_SIZE; index++) {
+            if ((dead & (1L << index)) == 0) {
+                deck[size++] = PackedCard.fromIndex(index);
+            }
+        }
+
+        int missing = BOARD_CARDS - board.length;
+        if (deck.length < missing) {
+            throw new ErrorHand();
+        }
+        long total = BINOMIALS[deck.length][missing];
+        boolean exhaustive = total <= exhaustiveLimit;
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Callable<EquityResult>> work = new ArrayList<>(tasks);
+        for (int task = 0; task < tasks; task++) {
+            if (exhaustive) {
+                long from = total * task / tasks;
+                long to = total * (task + 1) / tasks;
+                work.add(() -> enumerate(hands, board, deck, from, to));
+            } else {
+                long count = (long) samples * (task + 1) / tasks - (long) samples * task / tasks;
+                SplittableRandom taskRandom = random.split();
+                work.add(() -> sample(hands, board, deck, count, taskRandom));
+            }
+        }
+
+        EquityResult result = new EquityResult(hands.length, exhaustive);
+        try {
+            for (Future<EquityResult> future : pool.invokeAll(work)) {
+                result.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Evaluate the boards from the rank range in colexicographic order
+     */
+    private EquityResult enumerate(int[][] hands, int[] board, int[] deck, long from, long to) {
+        Deal deal = deal(hands, board);
+        int[] cards = deal.getBoard().getCards();
+        int missing = BOARD_CARDS - board.length;
+        int[] combination = unrank(from, missing);
+        EquityResult result = new EquityResult(hands.length, true);
+        for (long rank = from; rank < to; rank++) {
+            for (int i = 0; i < missing; i++) {
+                cards[board.length + i] = deck[combination[i]];
+            }
+            evaluate(deal, result);
+            next(combination, deck.length);
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate random boards
+     * Missing cards are drawn with a partial Fisher-Yates shuffle of the deck.
+     */
+    private EquityResult sample(int[][] hands, int[] board, int[] deck, long count, SplittableRandom random) {
+        Deal deal = deal(hands, board);
+        int[] cards = deal.getBoard().getCards();
+        int[] shuffled = deck.clone();
+        int missing = BOARD_CARDS - board.length;
+        EquityResult result = new EquityResult(hands.length, false);
+        for (long sample = 0; sample < count; sample++) {
+            for (int i = 0; i < missing; i++) {
+                int pick = i + random.nextInt(shuffled.length - i);
+                int card = shuffled[pick];
+                shuffled[pick] = shuffled[i];
+                shuffled[i] = card;
+                cards[board.length + i] = card;
+            }
+            evaluate(deal, result);
+        }
+        return result;
+    }
+
+    private void evaluate(Deal deal, EquityResult result) {
+        deal.getBoard().prepare();
+        HandEvaluator.evaluate(deal);
+        result.add(deal.getHiWinners(), deal.getLoWinners());
+    }
+
+    private Deal deal(int[][] hands, int[] board) {
+        Deal deal = new Deal();
+        for (int i = 0; i < hands.length; i++) {
+            System.arraycopy(hands[i], 0, deal.getHands()[i].setHoleCards(hands[i].length), 0, hands[i].length);
+        }
+        System.arraycopy(board, 0, deal.getBoard().getCards(), 0, board.length);
+        deal.setPlayers(hands.length);
+        deal.setStatus(Deal.OK);
+        return deal;
+    }
+
+    /**
+     * Combination of the given colexicographic rank
+     */
+    static int[] unrank(long rank, int k) {
+        int[] combination = new int[k];
+        for (int i = k - 1; i >= 0; i--) {
+            int c = i;
+            while (BINOMIALS[c + 1][i + 1] <= rank) {
+                c++;
+            }
+            combination[i] = c;
+            rank -= BINOMIALS[c][i + 1];
+        }
+        return combination;
+    }
+
+    /**
+     * Next combination in colexicographic order
+     */
+    static void next(int[] combination, int n) {
+        for (int i = 0; i < combination.length; i++) {
+            int limit = (i + 1 < combination.length) ? combination[i + 1] : n;
+            if (combination[i] + 1 < limit) {
+                combination[i]++;
+                for (int j = 0; j < i; j++) {
+                    combination[j] = j;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Bits of the deck indexes of the cards
+     *
+     * @throws ErrorCard if a card is unknown or used twice
+     */
+    static long deadCards(int[] cards) throws ErrorCard {
+        long dead = 0;
+        for (int card : cards) {
+            if (!PackedCard.isValid(card)) {
+                throw new ErrorCard();
+            }
+            long bit = 1L << PackedCard.index(card);
+            if ((dead & bit) != 0) {
+                throw new ErrorCard();
+            }
+            dead |= bit;
+        }
+        return dead;
+    }
+}
@@ -0,0 +1,187 @@
+package com.stars.equity;
+
+/**
+ * Equity calculation result
+ *
+ * Counts for every hand over all evaluated boards:
+ * 1. scoops - the whole pot won alone
+ * 2. Hi wins and Hi splits
+ * 3. Lo wins and Lo splits
+ * 4. equity - the expected share of the pot
+ *
+ * Every outcome has a weight, 1 for one board of fixed hands; the outcomes
+ * of weighted range hands add the product of the hand weights instead.
+ */
+public class EquityResult {
+    private final int players;
+    private final boolean exhaustive;
+    private long boards;
+    private double weight;
+
+    private final double[] scoops;
+    private final double[] hiWins;
+    private final double[] hiSplits;
+    private final double[] loWins;
+    private final double[] loSplits;
+    private final double[] equity;
+
+    /**
+     * @param players number of hands
+     * @param exhaustive true if all boards were enumerated
+     */
+    public EquityResult(int players, boolean exhaustive) {
+        this.players = players;
+        this.exhaustive = exhaustive;
+        scoops = new double[players];
+        hiWins = new double[players];
+        hiSplits = new double[players];
+        loWins = new double[players];
+        loSplits = new double[players];
+        equity = new double[players];
+    }
+
+    /**
+     * Add the outcome of one board
+     *
+     * @param hiWinners bits of the hands winning Hi
+     * @param loWinners bits of the hands winning Lo, 0 if no hand qualified
+     */
+    public void add(int hiWinners, int loWinners) {
+        boards++;
+        add(hiWinners, loWinners, 1);
+    }
+
+    /**
+     * Add a weighted outcome
+     * The board is counted separately by {@link #addBoard()}.
+     *
+     * @param hiWinners bits of the hands winning Hi
+     * @param loWinners bits of the hands winning Lo, 0 if no hand qualified
+     * @param weight weight of the outcome
+     */
+    public void add(int hiWinners, int loWinners, double weight) {
+        this.weight += weight;
+        int hiCount = Integer.bitCount(hiWinners);
+        int loCount = Integer.bitCount(loWinners);
+        double hiShare = weight * (loWinners == 0 ? 1.0 : 0.5) / hiCount;
+        double loShare = (loWinners == 0) ? 0 : weight * 0.5 / loCount;
+        for (int bits = hiWinners | loWinners; bits != 0; bits &= bits - 1) {
+            int player = Integer.numberOfTrailingZeros(bits);
+            int bit = 1 << player;
+            boolean hi = (hiWinners & bit) != 0;
+            boolean lo = (loWinners & bit) != 0;
+            if (hi) {
+                equity[player] += hiShare;
+                if (hiCount == 1) {
+                    hiWins[player] += weight;
+                } else {
+                    hiSplits[player] += weight;
+                }
+            }
+            if (lo) {
+                equity[player] += loShare;
+                if (loCount == 1) {
+                    loWins[player] += weight;
+                } else {
+                    loSplits[player] += weight;
+                }
+            }
+            if (hi && hiCount == 1 && (loWinners == 0 || (lo && loCount == 1))) {
+                scoops[player] += weight;
+            }
+        }
+    }
+
+    /**
+     * Count a board whose outcomes were added with weights
+     * Boards on which every matchup is blocked are not counted.
+     */
+    public void addBoard() {
+        boards++;
+    }
+
+    /**
+     * Add all counts of other partial result
+     *
+     * @param other result of the same hands
+     */
+    public void add(EquityResult other) {
+        boards += other.boards;
+        weight += other.weight;
+        for (int i = 0; i < players; i++) {
+            scoops[i] += other.scoops[i];
+            hiWins[i] += other.hiWins[i];
+            hiSplits[i] += other.hiSplits[i];
+            loWins[i] += other.loWins[i];
+            loSplits[i] += other.loSplits[i];
+            equity[i] += other.equity[i];
+        }
+    }
+
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * All boards were enumerated, otherwise the boards were sampled
+     */
+    public boolean isExhaustive() {
+        return exhaustive;
+    }
+
+    /**
+     * Number of evaluated boards
+     */
+    public long getBoards() {
+        return boards;
+    }
+
+    /**
+     * Share of the pot won by the hand in percent
+     */
+    public double getEquity(int player) {
+        return percent(equity[player]);
+    }
+
+    public double getScoop(int player) {
+        return percent(scoops[player]);
+    }
+
+    public double getHiWin(int player) {
+        return percent(hiWins[player]);
+    }
+
+    public double getHiSplit(int player) {
+        return percent(hiSplits[player]);
+    }
+
+    public double getLoWin(int player) {
+        return percent(loWins[player]);
+    }
+
+    public double getLoSplit(int player) {
+        return percent(loSplits[player]);
+    }
+
+    private double percent(double count) {
+        return weight == 0 ? 0 : count * 100 / weight;
+    }
+
+    /**
+     * Result as a table
+     *
+     * @param names names of the hands
+     * @return String
+     */
+    public String toString(String[] names) {
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("%s %d boards%n", exhaustive ? "Enumerated" : "Sampled", boards));
+        result.append(String.format("%-10s %8s %8s %8s %8s %8s %8s%n",
+                "Hand", "Equity", "Scoop", "Hi win", "Hi split", "Lo win", "Lo split"));
+        for (int i = 0; i < players; i++) {
+            result.append(String.format("%-10s %7.3f%% %7.3f%% %7.3f%% %7.3f%% %7.3f%% %7.3f%%%n",
+                    names[i], getEquity(i), getScoop(i), getHiWin(i), getHiSplit(i), getLoWin(i), getLoSplit(i)));
+        }
+        return result.toString();
+    }
+}
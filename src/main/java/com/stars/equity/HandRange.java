@@ -0,0 +1,159 @@
+package com.stars.equity;
+
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Named range of starting hands
+ *
+ * Written as the name followed by the hands:
+ * Premium: Ac-Ad-Kc-Kd Ah-As-Kh-Ks Ac-Ad-Qc-Jd
+ * Every hand has a weight, the relative frequency it is played with.
+ * @see RangeParser
+ */
+public class HandRange {
+    private final String name;
+    private final int[][] hands;
+    private final double[] weights;
+
+    /**
+     * @param name name of the range
+     * @param hands hands of 4 packed cards, all with weight 1
+     */
+    public HandRange(String name, int[][] hands) {
+        this(name, hands, null);
+    }
+
+    /**
+     * @param name name of the range
+     * @param hands hands of 4 packed cards
+     * @param weights weight of every hand, null for weight 1
+     */
+    public HandRange(String name, int[][] hands, double[] weights) {
+        this.name = name;
+        this.hands = hands;
+        if (weights == null) {
+            weights = new double[hands.length];
+            Arrays.fill(weights, 1);
+        }
+        this.weights = weights;
+    }
+
+    /**
+     * Parse the range
+     *
+     * @param line name: hand hand ...
+     * @return HandRange
+     * @throws ErrorHand if the name or a hand is missing or a hand has not 4 cards
+     * @throws ErrorCard if a card is unknown or used twice in a hand
+     */
+    public static HandRange parse(String line) throws ErrorHand, ErrorCard {
+        int separator = line.indexOf(':');
+        if (separator <= 0) {
+            throw new ErrorHand();
+        }
+        String name = line.substring(0, separator).trim();
+        List<int[]> hands = new ArrayList<>();
+        for (String token : line.substring(separator + 1).trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String[] symbols = token.split("-");
+            if (symbols.length != HOLE_CARDS) {
+                throw new ErrorHand();
+            }
+            int[] hand = new int[HOLE_CARDS];
+            for (int i = 0; i < HOLE_CARDS; i++) {
+                hand[i] = PackedCard.parse(symbols[i]);
+            }
+            StartingHands.index(hand);
+            hands.add(hand);
+        }
+        if (name.isEmpty() || hands.isEmpty()) {
+            throw new ErrorHand();
+        }
+        return new HandRange(name, hands.toArray(new int[0][]));
+    }
+
+    /**
+     * Range with every hand in all 24 suit permutations
+     * A range closed under suit permutations has the same equity against all
+     * suit isomorphic hands.
+     *
+     * @return HandRange without duplicate hands
+     */
+    public HandRange withSuitPermutations() {
+        List<int[]> permuted = new ArrayList<>();
+        List<Double> permutedWeights = new ArrayList<>();
+        BitSet seen = new BitSet(StartingHands.HANDS);
+        int[] suits = {0, 1, 2, 3};
+        do {
+            for (int h = 0; h < hands.length; h++) {
+                int[] hand = hands[h];
+                int[] cards = new int[HOLE_CARDS];
+                long bits = 0;
+                for (int i = 0; i < HOLE_CARDS; i++) {
+                    cards[i] = PackedCard.of(PackedCard.rank(hand[i]), suits[PackedCard.suit(hand[i])]);
+                    bits |= 1L << PackedCard.index(cards[i]);
+                }
+                int index = StartingHands.index(bits);
+                if (!seen.get(index)) {
+                    seen.set(index);
+                    permuted.add(cards);
+                    permutedWeights.add(weights[h]);
+                }
+            }
+        } while (nextPermutation(suits));
+        double[] permutedWeightArray = new double[permutedWeights.size()];
+        for (int i = 0; i < permutedWeightArray.length; i++) {
+            permutedWeightArray[i] = permutedWeights.get(i);
+        }
+        return new HandRange(name, permuted.toArray(new int[0][]), permutedWeightArray);
+    }
+
+    private static boolean nextPermutation(int[] values) {
+        int i = values.length - 2;
+        while (i >= 0 && values[i] >= values[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        int j = values.length - 1;
+        while (values[j] <= values[i]) {
+            j--;
+        }
+        int swap = values[i];
+        values[i] = values[j];
+        values[j] = swap;
+        for (int left = i + 1, right = values.length - 1; left < right; left++, right--) {
+            swap = values[left];
+            values[left] = values[right];
+            values[right] = swap;
+        }
+        return true;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int[][] getHands() {
+        return hands;
+    }
+
+    /**
+     * Weight of every hand, in the order of the hands
+     */
+    public double[] getWeights() {
+        return weights;
+    }
+}
@@ -0,0 +1,192 @@
+package com.stars.equity;
+
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Preflop equity table
+ *
+ * Heads up Hi/Lo equity of every starting hand against a random hand and
+ * against the reference ranges, written by {@link PreflopTableGenerator}.
+ * The file is memory mapped and every query is two reads:
+ * hand → colexicographic index → canonical index → values.
+ *
+ * File layout, big endian:
+ * 1. int magic "OPFT", int version, int hands (270725), int canonical hands (16432)
+ * 2. int ranges, int samples per hand and range, long seed
+ * 3. ranges times: short name length, UTF-8 name bytes; range 0 is the random hand
+ * 4. hands times: char canonical index
+ * 5. ranges times canonical hands times {@link #VALUES} floats in percent:
+ *    equity, scoop, Hi wins and splits, Lo wins and splits
+ *
+ * Thread safe, the mapped buffer is only read with absolute gets.
+ */
+public class PreflopTable {
+    static final int MAGIC = 0x4F50_4654;
+    static final int VERSION = 1;
+
+    /**
+     * Values of every hand and range
+     */
+    public static final int VALUES = 4;
+    public static final int EQUITY = 0;
+    public static final int SCOOP = 1;
+    public static final int HI = 2;
+    public static final int LO = 3;
+
+    /**
+     * Name of the range of all hands
+     */
+    public static final String RANDOM = "Random";
+
+    /**
+     * Bytes before the range names
+     */
+    private static final int HEADER = 32;
+
+    private final ByteBuffer buffer;
+    private final String[] ranges;
+    private final int samples;
+    private final long seed;
+    private final int indexOffset;
+    private final int valuesOffset;
+
+    private PreflopTable(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != StartingHands.HANDS || buffer.getInt(12) != StartingHands.CANONICAL_HANDS) {
+            throw new IOException("Not a preflop table");
+        }
+        int count = buffer.getInt(16);
+        long rangeBytes = (long) StartingHands.CANONICAL_HANDS * VALUES * 4;
+        if (count < 1 || count > (buffer.capacity() - HEADER - StartingHands.HANDS * 2L) / rangeBytes) {
+            throw new IOException("Broken preflop table header, " + count + " ranges");
+        }
+        ranges = new String[count];
+        samples = buffer.getInt(20);
+        seed = buffer.getLong(24);
+        int position = HEADER;
+        for (int i = 0; i < ranges.length; i++) {
+            if (position + 2 > buffer.capacity()
+                    || position + 2 + (buffer.getShort(position) & 0xFFFF) > buffer.capacity()) {
+                throw new IOException("Broken preflop table header, name of range " + i);
+            }
+            byte[] name = new byte[buffer.getShort(position) & 0xFFFF];
+            for (int b = 0; b < name.length; b++) {
+                name[b] = buffer.get(position + 2 + b);
+            }
+            ranges[i] = new String(name, StandardCharsets.UTF_8);
+            position += 2 + name.length;
+        }
+        indexOffset = position;
+        valuesOffset = indexOffset + StartingHands.HANDS * 2;
+        long size = valuesOffset + (long) ranges.length * StartingHands.CANONICAL_HANDS * VALUES * 4;
+        if (buffer.capacity() != size) {
+            throw new IOException("Preflop table has " + buffer.capacity() + " bytes, expected " + size);
+        }
+    }
+
+    /**
+     * Map the table file
+     *
+     * @param path file written by {@link PreflopTableGenerator}
+     * @return PreflopTable
+     * @throws IOException if the file can not be read or is not a table
+     */
+    public static PreflopTable load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new PreflopTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Number of ranges, range 0 is the random hand
+     */
+    public int getRanges() {
+        return ranges.length;
+    }
+
+    public String getRangeName(int range) {
+        return ranges[range];
+    }
+
+    /**
+     * Index of the range
+     *
+     * @param name name of the range
+     * @return index or -1 if not found
+     */
+    public int findRange(String name) {
+        for (int i = 0; i < ranges.length; i++) {
+            if (ranges[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sampled deals per hand and range
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Canonical index of the hand
+     *
+     * @param hand 4 packed cards
+     * @return 0-16431
+     * @throws ErrorHand if the hand has not 4 cards
+     * @throws ErrorCard if a card is unknown or used twice
+     */
+    public int canonicalIndex(int[] hand) throws ErrorHand, ErrorCard {
+        return buffer.getChar(indexOffset + StartingHands.index(hand) * 2);
+    }
+
+    /**
+     * Canonical index of the colexicographic index
+     *
+     * @param index 0-270724, see {@link StartingHands#index(int[])}
+     * @return 0-16431
+     */
+    int canonicalIndex(int index) {
+        return buffer.getChar(indexOffset + index * 2);
+    }
+
+    /**
+     * Equity in percent
+     *
+     * @param hand 4 packed cards
+     * @param range index of the opponent range
+     * @return share of the pot won, -1 if no hand of the range fits
+     * @throws ErrorHand if the hand has not 4 cards
+     * @throws ErrorCard if a card is unknown or used twice
+     */
+    public float getEquity(int[] hand, int range) throws ErrorHand, ErrorCard {
+        return getValue(canonicalIndex(hand), range, EQUITY);
+    }
+
+    /**
+     * Value of the canonical hand
+     *
+     * @param canonical canonical index
+     * @param range index of the opponent range
+     * @param value {@link #EQUITY}, {@link #SCOOP}, {@link #HI} or {@link #LO}
+     * @return percent, -1 if no hand of the range fits
+     */
+    public float getValue(int canonical, int range, int value) {
+        return buffer.getFloat(valuesOffset + ((range * StartingHands.CANONICAL_HANDS + canonical) * VALUES + value) * 4);
+    }
+}
@@ -0,0 +1,272 @@
+package com.stars.equity;
+
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+import com.stars.evaluation.HandEvaluator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Generator of the preflop equity table
+ *
+ * Every canonical starting hand plays heads up against a random hand and
+ * against each reference range on {@link #getSamples()} random deals.
+ * The hands of a range not blocked by the starting hand are drawn by their weights.
+ * The reference ranges are extended to all suit permutations of their hands,
+ * otherwise one canonical hand could not stand for its isomorphic hands.
+ * The canonical hands are split recursively on a ForkJoinPool; every hand
+ * has its own random generator derived from the seed, so the table depends
+ * only on the seed and the number of samples.
+ * @see PreflopTable
+ */
+public class PreflopTableGenerator implements AutoCloseable {
+    /**
+     * Default number of sampled deals per hand and range
+     */
+    public static final int SAMPLES = 10_000;
+
+    /**
+     * Canonical hands evaluated by one task without splitting
+     */
+    private static final int LEAF_HANDS = 16;
+
+    private final ForkJoinPool pool;
+    private int samples = SAMPLES;
+    private long seed = EquityCalculator.SEED;
+
+    /**
+     * @param threads number of worker threads, 0 uses all available processors
+     */
+    public PreflopTableGenerator(int threads) {
+        if (threads < 1) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Calculate and write the table
+     *
+     * @param ranges reference ranges, may be empty
+     * @param output table file
+     * @throws IOException on write error
+     */
+    public void generate(List<HandRange> ranges, Path output) throws IOException {
+        List<HandRange> opponents = new ArrayList<>();
+        opponents.add(null);
+        for (HandRange range : ranges) {
+            opponents.add(range.withSuitPermutations());
+        }
+        int[] representatives = new int[StartingHands.CANONICAL_HANDS];
+        char[] canonical = StartingHands.canonicalIndexes(representatives);
+        float[] values = new float[opponents.size() * StartingHands.CANONICAL_HANDS * PreflopTable.VALUES];
+        pool.invoke(new Task(representatives, opponents, values, 0, StartingHands.CANONICAL_HANDS));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output), 1 << 16))) {
+            out.writeInt(PreflopTable.MAGIC);
+            out.writeInt(PreflopTable.VERSION);
+            out.writeInt(StartingHands.HANDS);
+            out.writeInt(StartingHands.CANONICAL_HANDS);
+            out.writeInt(opponents.size());
+            out.writeInt(samples);
+            out.writeLong(seed);
+            for (HandRange range : opponents) {
+                byte[] name = (range == null ? PreflopTable.RANDOM : range.getName()).getBytes(StandardCharsets.UTF_8);
+                out.writeShort(name.length);
+                out.write(name);
+            }
+            for (char index : canonical) {
+                out.writeChar(index);
+            }
+            for (float value : values) {
+                out.writeFloat(value);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Sample the canonical hands from..to against all opponents
+     */
+    private class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] representatives;
+        private final List<HandRange> opponents;
+        private final float[] values;
+        private final int from;
+        private final int to;
+
+        Task(int[] representatives, List<HandRange> opponents, float[] values, int from, int to) {
+            this.representatives = representatives;
+            this.opponents = opponents;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_HANDS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Task(representatives, opponents, values, from, middle),
+                        new Task(representatives, opponents, values, middle, to));
+                return;
+            }
+            Deal deal = new Deal();
+            deal.setPlayers(2);
+            deal.setStatus(Deal.OK);
+            int[] deck = new int[PackedCard.DECK_SIZE];
+            for (int canonical = from; canonical < to; canonical++) {
+                int[] hand = StartingHands.cards(representatives[canonical]);
+                System.arraycopy(hand, 0, deal.getHands()[0].getHand(), 0, HOLE_CARDS);
+                SplittableRandom random = new SplittableRandom(seed + canonical * 0x9E3779B97F4A7C15L);
+                for (int range = 0; range < opponents.size(); range++) {
+                    EquityResult result = sample(deal, hand, opponents.get(range), deck, random);
+                    int offset = (range * StartingHands.CANONICAL_HANDS + canonical) * PreflopTable.VALUES;
+                    if (result == null) {
+                        for (int value = 0; value < PreflopTable.VALUES; value++) {
+                            values[offset + value] = -1;
+                        }
+                    } else {
+                        values[offset + PreflopTable.EQUITY] = (float) result.getEquity(0);
+                        values[offset + PreflopTable.SCOOP] = (float) result.getScoop(0);
+                        values[offset + PreflopTable.HI] = (float) (result.getHiWin(0) + result.getHiSplit(0));
+                        values[offset + PreflopTable.LO] = (float) (result.getLoWin(0) + result.getLoSplit(0));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Play the hand against random or range hands
+         *
+         * @return result or null if every hand of the range is blocked
+         */
+        private EquityResult sample(Deal deal, int[] hand, HandRange range, int[] deck, SplittableRandom random) {
+            long dead = 0;
+            for (int card : hand) {
+                dead |= 1L << PackedCard.index(card);
+            }
+            List<int[]> candidates = new ArrayList<>();
+            double[] cumulative = null;
+            if (range != null) {
+                List<Double> weights = new ArrayList<>();
+                for (int h = 0; h < range.getHands().length; h++) {
+                    int[] opponent = range.getHands()[h];
+                    boolean blocked = false;
+                    for (int card : opponent) {
+                        blocked |= (dead & (1L << PackedCard.index(card))) != 0;
+                    }
+                    if (!blocked && range.getWeights()[h] > 0) {
+                        candidates.add(opponent);
+                        weights.add(range.getWeights()[h]);
+                    }
+                }
+                if (candidates.isEmpty()) {
+                    return null;
+                }
+                cumulative = new double[weights.size()];
+                double sum = 0;
+                for (int i = 0; i < cumulative.length; i++) {
+                    sum += weights.get(i);
+                    cumulative[i] = sum;
+                }
+            }
+
+            int[] opponent = deal.getHands()[1].getHand();
+            int[] board = deal.getBoard().getCards();
+            EquityResult result = new EquityResult(2, false);
+            for (int sample = 0; sample < samples; sample++) {
+                long used = dead;
+                int first = 0;
+                if (range != null) {
+                    int[] picked = candidates.get(pick(cumulative, random));
+                    for (int i = 0; i < HOLE_CARDS; i++) {
+                        opponent[i] = picked[i];
+                        used |= 1L << PackedCard.index(picked[i]);
+                    }
+                    first = HOLE_CARDS;
+                }
+                int size = 0;
+                for (int index = 0; index < PackedCard.DECK_SIZE; index++) {
+                    if ((used & (1L << index)) == 0) {
+                        deck[size++] = PackedCard.fromIndex(index);
+                    }
+                }
+                int draw = HOLE_CARDS - first + BOARD_CARDS;
+                for (int i = 0; i < draw; i++) {
+                    int pick = i + random.nextInt(size - i);
+                    int card = deck[pick];
+                    deck[pick] = deck[i];
+                    deck[i] = card;
+                }
+                int drawn = 0;
+                for (int i = first; i < HOLE_CARDS; i++) {
+                    opponent[i] = deck[drawn++];
+                }
+                for (int i = 0; i < BOARD_CARDS; i++) {
+                    board[i] = deck[drawn++];
+                }
+                deal.getBoard().prepare();
+                HandEvaluator.evaluate(deal);
+                result.add(deal.getHiWinners(), deal.getLoWinners());
+            }
+            return result;
+        }
+
+        /**
+         * Random candidate by the weights
+         *
+         * @param cumulative running sums of the candidate weights
+         * @return index of the candidate
+         */
+        private int pick(double[] cumulative, SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] > target) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,521 @@
+package com.stars.equity;
+
+import com.stars.Constants;
+import com.stars.entities.Board;
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+import com.stars.evaluation.HandEvaluator;
+import com.stars.evaluation.LoEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Hi/Lo equity of ranges against each other
+ *
+ * A deal is a matchup, one hand of every range without shared cards, and
+ * a completion of the partial board. Hands blocked by the known board are
+ * removed up front.
+ * 1. exhaustive - when there are at most {@link #getExhaustiveLimit()} deals,
+ *    counting every matchup on every board, all boards are enumerated. On
+ *    every board each live hand is evaluated once, its Hi and Lo scores are
+ *    cached and all matchups are decided from the cached scores, weighted by
+ *    the product of the hand weights
+ * 2. Monte Carlo - {@link #getSamples()} random deals otherwise, the hands
+ *    are drawn by their weights and redrawn when they share cards
+ *
+ * The deals are split recursively on a work-stealing ForkJoinPool; every
+ * task has its own Board, scores and, for sampling, its own random generator
+ * derived from the seed and its first deal, so the result depends only on the seed.
+ * With few boards, e.g. on the turn or the river, the boards of an exhaustive
+ * task are split further by the hands of the first range.
+ */
+public class RangeEquityCalculator implements AutoCloseable {
+    /**
+     * Default maximum number of deals enumerated exhaustively
+     */
+    public static final long EXHAUSTIVE_LIMIT = 1_000_000_000;
+
+    /**
+     * Default number of sampled deals
+     */
+    public static final int SAMPLES = 1_000_000;
+
+    /**
+     * Boards or sampled deals evaluated by one task without splitting
+     */
+    private static final int LEAF_BOARDS = 4;
+    private static final int LEAF_SAMPLES = 4096;
+
+    /**
+     * Up to this number of boards the hands of the first range are split too,
+     * hands of the first range evaluated by one task without splitting
+     */
+    private static final long SPLIT_HANDS_BOARDS = 64;
+    private static final int LEAF_HANDS = 32;
+
+    /**
+     * Up to this number of ranges the matchups of a board are summed by outcome
+     */
+    private static final int OUTCOME_PLAYERS = 6;
+
+    /**
+     * Draws of a sampled matchup before the ranges are taken as always sharing cards
+     */
+    private static final int MAX_REDRAWS = 100_000;
+
+    private final ForkJoinPool pool;
+    private long exhaustiveLimit = EXHAUSTIVE_LIMIT;
+    private int samples = SAMPLES;
+    private long seed = EquityCalculator.SEED;
+
+    /**
+     * @param threads number of worker threads, 0 uses all available processors
+     */
+    public RangeEquityCalculator(int threads) {
+        if (threads < 1) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    public long getExhaustiveLimit() {
+        return exhaustiveLimit;
+    }
+
+    public void setExhaustiveLimit(long exhaustiveLimit) {
+        this.exhaustiveLimit = exhaustiveLimit;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Calculate the equity of the ranges
+     *
+     * @param ranges 2 up to 10 ranges
+     * @param board packed board cards, 0 up to 5
+     * @return EquityResult with one entry per range
+     * @throws ErrorHand if the number of ranges or board cards is wrong, all hands of a range
+     *                   are blocked or the hands always share cards, the message names the part
+     * @throws ErrorCard if a board card is unknown or used twice
+     */
+    public EquityResult calculate(HandRange[] ranges, int[] board) throws ErrorHand, ErrorCard {
+        if (ranges.length < Constants.MIN_PLAYERS || ranges.length > Constants.MAX_PLAYERS) {
+            throw new ErrorHand(String.format("ranges: %d given, %d up to %d are needed",
+                    ranges.length, Constants.MIN_PLAYERS, Constants.MAX_PLAYERS));
+        }
+        if (board.length > BOARD_CARDS) {
+            throw new ErrorHand(String.format("board %s: more than %d cards", cards(board), BOARD_CARDS));
+        }
+        long dead;
+        try {
+            dead = EquityCalculator.deadCards(board);
+        } catch (ErrorCard e) {
+            throw new ErrorCard(String.format("card %s: %s", Constants.BOARD, cards(board)));
+        }
+        Range[] live = new Range[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            live[i] = new Range(ranges[i], dead);
+            if (live[i].hands.length == 0) {
+                throw new ErrorHand(String.format("range %s: all hands are blocked by the board", ranges[i].getName()));
+            }
+        }
+
+        int[] deck = new int[PackedCard.DECK_SIZE - Long.bitCount(dead)];
+        int size = 0;
+        for (int index = 0; index < PackedCard.DECK_SIZE; index++) {
+            if ((dead & (1L << index)) == 0) {
+                deck[size++] = PackedCard.fromIndex(index);
+            }
+        }
+        long boards = EquityCalculator.BINOMIALS[deck.length][BOARD_CARDS - board.length];
+        double deals = boards;
+        for (Range range : live) {
+            deals *= range.hands.length;
+        }
+        boolean exhaustive = deals <= exhaustiveLimit;
+        EquityResult result;
+        try {
+            result = pool.invoke(new Task(live, board, deck, exhaustive, 0, exhaustive ? boards : samples,
+                    0, exhaustive && boards <= SPLIT_HANDS_BOARDS ? live[0].hands.length : -1));
+        } catch (IllegalStateException e) {
+            result = null;
+        }
+        if (result == null || result.getBoards() == 0) {
+            throw new ErrorHand("ranges: the hands always share cards");
+        }
+        return result;
+    }
+
+    /**
+     * Cards of the board as in the input, e.g. Ah-Kh-5s
+     */
+    private static String cards(int[] board) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < board.length; i++) {
+            text.append(i > 0 ? "-" : "").append(PackedCard.isValid(board[i]) ? PackedCard.toString(board[i]) : "?");
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Hands of a range not blocked by the known board
+     */
+    private static class Range {
+        private final int[][] hands;
+        private final long[] cards;
+        private final double[] weights;
+        private final double[] cumulative;
+
+        Range(HandRange range, long dead) {
+            List<Integer> live = new ArrayList<>();
+            for (int i = 0; i < range.getHands().length; i++) {
+                if ((cardBits(range.getHands()[i]) & dead) == 0 && range.getWeights()[i] > 0) {
+                    live.add(i);
+                }
+            }
+            hands = new int[live.size()][];
+            cards = new long[live.size()];
+            weights = new double[live.size()];
+            cumulative = new double[live.size()];
+            double sum = 0;
+            for (int i = 0; i < hands.length; i++) {
+                hands[i] = range.getHands()[live.get(i)];
+                cards[i] = cardBits(hands[i]);
+                weights[i] = range.getWeights()[live.get(i)];
+                sum += weights[i];
+                cumulative[i] = sum;
+            }
+        }
+
+        /**
+         * Random hand by the weights
+         *
+         * @return index of the hand
+         */
+        int pick(SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] > target) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        private static long cardBits(int[] hand) {
+            long bits = 0;
+            for (int card : hand) {
+                bits |= 1L << PackedCard.index(card);
+            }
+            return bits;
+        }
+    }
+
+    /**
+     * Evaluate the deals from..to, the board ranks when exhaustive, otherwise sample numbers
+     *
+     * The hands handFrom..handTo of the first range are played; handTo is -1
+     * when the hands are not split. A task of a part of the hands does not count
+     * its boards, the task of all hands counts every board matched by any part.
+     */
+    private class Task extends RecursiveTask<EquityResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final Range[] ranges;
+        private final int[] known;
+        private final int[] deck;
+        private final boolean exhaustive;
+        private final long from;
+        private final long to;
+        private final int handFrom;
+        private final int handTo;
+
+        private int[][] hiScores;
+        private int[][] loScores;
+        private double[] outcomes;
+        private boolean matched;
+        /**
+         * Bits of the boards from..to with a matchup, at most {@link #LEAF_BOARDS}
+         */
+        private long matchedBoards;
+        private EquityResult result;
+
+        Task(Range[] ranges, int[] known, int[] deck, boolean exhaustive, long from, long to, int handFrom, int handTo) {
+            this.ranges = ranges;
+            this.known = known;
+            this.deck = deck;
+            this.exhaustive = exhaustive;
+            this.from = from;
+            this.to = to;
+            this.handFrom = handFrom;
+            this.handTo = handTo;
+        }
+
+        @Override
+        protected EquityResult compute() {
+            if (to - from > (exhaustive ? LEAF_BOARDS : LEAF_SAMPLES)) {
+                long middle = (from + to) >>> 1;
+                Task right = new Task(ranges, known, deck, exhaustive, middle, to, handFrom, handTo);
+                right.fork();
+                EquityResult left = new Task(ranges, known, deck, exhaustive, from, middle, handFrom, handTo).compute();
+                left.add(right.join());
+                return left;
+            }
+            if (handTo - handFrom > LEAF_HANDS) {
+                int middle = (handFrom + handTo) >>> 1;
+                Task right = new Task(ranges, known, deck, exhaustive, from, to, middle, handTo);
+                right.fork();
+                Task leftTask = new Task(ranges, known, deck, exhaustive, from, to, handFrom, middle);
+                result = leftTask.compute();
+                result.add(right.join());
+                matchedBoards = leftTask.matchedBoards | right.matchedBoards;
+            } else {
+                result = new EquityResult(ranges.length, exhaustive);
+                if (exhaustive) {
+                    enumerate();
+                } else {
+                    sample();
+                }
+            }
+            if (handTo < 0 || (handFrom == 0 && handTo == ranges[0].hands.length)) {
+                for (int board = 0; board < Long.bitCount(matchedBoards); board++) {
+                    result.addBoard();
+                }
+            }
+            return result;
+        }
+
+        /**
+         * First hand of the first range played by the task
+         */
+        private int firstHand() {
+            return handTo < 0 ? 0 : handFrom;
+        }
+
+        /**
+         * End of the hands of the first range played by the task
+         */
+        private int lastHand() {
+            return handTo < 0 ? ranges[0].hands.length : handTo;
+        }
+
+        /**
+         * Evaluate all matchups on the boards of the rank range in colexicographic order
+         */
+        private void enumerate() {
+            hiScores = new int[ranges.length][];
+            loScores = new int[ranges.length][];
+            for (int i = 0; i < ranges.length; i++) {
+                hiScores[i] = new int[ranges[i].hands.length];
+                loScores[i] = new int[ranges[i].hands.length];
+            }
+            if (ranges.length <= OUTCOME_PLAYERS) {
+                outcomes = new double[1 << (2 * ranges.length)];
+            }
+            Board board = new Board();
+            Hand hand = new Hand(board);
+            int[] cards = board.getCards();
+            System.arraycopy(known, 0, cards, 0, known.length);
+            int missing = BOARD_CARDS - known.length;
+            int[] combination = EquityCalculator.unrank(from, missing);
+            for (long rank = from; rank < to; rank++) {
+                for (int i = 0; i < missing; i++) {
+                    cards[known.length + i] = deck[combination[i]];
+                }
+                if (evaluate(board, hand)) {
+                    matchedBoards |= 1L << (rank - from);
+                }
+                EquityCalculator.next(combination, deck.length);
+            }
+        }
+
+        /**
+         * Evaluate random deals
+         * The board cards are drawn from the deck without the known board, skipping the cards of the hands.
+         */
+        private void sample() {
+            SplittableRandom random = new SplittableRandom(seed + from * 0x9E3779B97F4A7C15L);
+            Deal deal = new Deal();
+            deal.setPlayers(ranges.length);
+            deal.setStatus(Deal.OK);
+            int[] cards = deal.getBoard().getCards();
+            System.arraycopy(known, 0, cards, 0, known.length);
+            for (long sample = from; sample < to; sample++) {
+                long used = 0;
+                int redraws = 0;
+                for (int r = 0; r < ranges.length; r++) {
+                    int i = ranges[r].pick(random);
+                    if ((ranges[r].cards[i] & used) != 0) {
+                        if (++redraws > MAX_REDRAWS) {
+                            throw new IllegalStateException("Hands of the ranges always share cards");
+                        }
+                        used = 0;
+                        r = -1;
+                        continue;
+                    }
+                    used |= ranges[r].cards[i];
+                    System.arraycopy(ranges[r].hands[i], 0, deal.getHands()[r].getHand(), 0, HOLE_CARDS);
+                }
+                for (int i = known.length; i < BOARD_CARDS; i++) {
+                    int card;
+                    do {
+                        card = deck[random.nextInt(deck.length)];
+                    } while ((used & (1L << PackedCard.index(card))) != 0);
+                    used |= 1L << PackedCard.index(card);
+                    cards[i] = card;
+                }
+                deal.getBoard().prepare();
+                HandEvaluator.evaluate(deal);
+                result.add(deal.getHiWinners(), deal.getLoWinners());
+            }
+        }
+
+        /**
+         * Score the live hands on the complete board and add all matchups
+         *
+         * @return true if at least one matchup is not blocked by the board, only such boards are counted
+         */
+        private boolean evaluate(Board board, Hand hand) {
+            board.prepare();
+            long dead = 0;
+            for (int card : board.getCards()) {
+                dead |= 1L << PackedCard.index(card);
+            }
+            for (int r = 0; r < ranges.length; r++) {
+                Range range = ranges[r];
+                int last = r == 0 ? lastHand() : range.hands.length;
+                for (int i = r == 0 ? firstHand() : 0; i < last; i++) {
+                    if ((range.cards[i] & dead) != 0) {
+                        hiScores[r][i] = 0;
+                        continue;
+                    }
+                    hand.setHand(range.hands[i]);
+                    hand.reset();
+                    HandEvaluator.evaluate(hand);
+                    hiScores[r][i] = hand.getHiScore();
+                    loScores[r][i] = hand.getLoScore();
+                }
+            }
+
+            matched = false;
+            if (ranges.length == 2) {
+                headsUp();
+            } else {
+                matchups(0, dead, 1, 0, 0, LoEvaluator.NO_LOW, 0);
+            }
+            if (outcomes != null) {
+                int players = ranges.length;
+                for (int key = 0; key < outcomes.length; key++) {
+                    if (outcomes[key] != 0) {
+                        result.add(key >>> players, key & ((1 << players) - 1), outcomes[key]);
+                        outcomes[key] = 0;
+                    }
+                }
+            }
+            return matched;
+        }
+
+        /**
+         * Matchups of 2 ranges, the same as {@link #matchups} without the recursion
+         */
+        private void headsUp() {
+            Range first = ranges[0];
+            Range second = ranges[1];
+            int[] firstHi = hiScores[0];
+            int[] firstLo = loScores[0];
+            int[] secondHi = hiScores[1];
+            int[] secondLo = loScores[1];
+            for (int i = firstHand(); i < lastHand(); i++) {
+                int hi = firstHi[i];
+                if (hi == 0) {
+                    continue;
+                }
+                int lo = firstLo[i];
+                long cards = first.cards[i];
+                double weight = first.weights[i];
+                for (int j = 0; j < second.hands.length; j++) {
+                    int otherHi = secondHi[j];
+                    if (otherHi == 0 || (second.cards[j] & cards) != 0) {
+                        continue;
+                    }
+                    int otherLo = secondLo[j];
+                    int hiWinners = hi > otherHi ? 1 : hi < otherHi ? 2 : 3;
+                    int loWinners = lo > otherLo ? 1 : lo < otherLo ? 2 : lo == LoEvaluator.NO_LOW ? 0 : 3;
+                    outcomes[hiWinners << 2 | loWinners] += weight * second.weights[j];
+                    matched = true;
+                }
+            }
+        }
+
+        /**
+         * Choose a hand of the range and recurse to the next ranges
+         *
+         * @param player index of the range
+         * @param dead board cards and cards of the chosen hands
+         * @param weight product of the weights of the chosen hands
+         * @param hiBest best Hi score of the chosen hands
+         * @param hiWinners bits of the chosen hands with the best Hi score
+         * @param loBest best Lo score of the chosen hands
+         * @param loWinners bits of the chosen hands with the best Lo score
+         */
+        private void matchups(int player, long dead, double weight, int hiBest, int hiWinners, int loBest, int loWinners) {
+            if (player == ranges.length) {
+                matched = true;
+                if (outcomes != null) {
+                    outcomes[hiWinners << ranges.length | loWinners] += weight;
+                } else {
+                    result.add(hiWinners, loWinners, weight);
+                }
+                return;
+            }
+            Range range = ranges[player];
+            int bit = 1 << player;
+            int last = player == 0 ? lastHand() : range.hands.length;
+            for (int i = player == 0 ? firstHand() : 0; i < last; i++) {
+                int hi = hiScores[player][i];
+                if (hi == 0 || (range.cards[i] & dead) != 0) {
+                    continue;
+                }
+                int lo = loScores[player][i];
+                matchups(player + 1, dead | range.cards[i], weight * range.weights[i],
+                        Math.max(hi, hiBest), hi > hiBest ? bit : hi == hiBest ? hiWinners | bit : hiWinners,
+                        Math.max(lo, loBest), lo > loBest ? bit : lo == loBest && lo != LoEvaluator.NO_LOW
+                                ? loWinners | bit : loWinners);
+            }
+        }
+    }
+}
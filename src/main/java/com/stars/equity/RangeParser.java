@@ -0,0 +1,244 @@
+package com.stars.equity;
+
+import com.stars.Constants;
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Parser of range expressions
+ *
+ * A range is a comma separated list of terms, every term is a hand pattern
+ * with an optional suit filter and weight:
+ * <pre>
+ * AA2x ds, KKQQ@0.5, top15%, Ac-Kd-Jd-3d
+ * </pre>
+ * 1. ranks - 4 symbols of AKQJT98765432 in any case or x for any other rank,
+ *    AA2x holds every hand with exactly 2 aces and 1 deuce
+ * 2. exact hand - 4 cards separated by -
+ * 3. topN% - the best N% of all hands by the equity against a random hand,
+ *    needs the preflop table
+ * The suit filters are ds double suited (2 + 2), ss single suited (2 + 1 + 1)
+ * and r rainbow. The weight follows @, the default is 1.
+ * A hand matched by several terms has the weight of the first one.
+ */
+public final class RangeParser {
+    private static final String TOP = "top";
+    private static final char ANY_RANK = 'x';
+
+    private static final int DOUBLE_SUITED = 2200;
+    private static final int SINGLE_SUITED = 2110;
+    private static final int RAINBOW = 1111;
+
+    private RangeParser() {
+    }
+
+    /**
+     * Parse the range expression
+     *
+     * @param name name of the range
+     * @param expression terms separated by commas
+     * @param table preflop table for the topN% terms, may be null
+     * @return HandRange with the hands in colexicographic order
+     * @throws ErrorHand if a term is malformed, needs the missing table or no hand matches,
+     *                   the message names the range and the term
+     * @throws ErrorCard if a card of an exact hand is unknown or used twice
+     */
+    public static HandRange parse(String name, String expression, PreflopTable table) throws ErrorHand, ErrorCard {
+        String[] terms = expression.split(",");
+        Term[] parsed = new Term[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            String text = terms[i].trim();
+            try {
+                parsed[i] = term(text, table);
+            } catch (ErrorHand e) {
+                throw new ErrorHand(String.format("range %s: %s", name, e.getMessage() == null ? text : e.getMessage()));
+            } catch (ErrorCard e) {
+                throw new ErrorCard(String.format("card %s: %s", name, text));
+            }
+        }
+
+        List<int[]> hands = new ArrayList<>();
+        double[] weights = new double[StartingHands.HANDS];
+        int[] rankCounts = new int[Constants.RANKS.length()];
+        for (int index = 0; index < StartingHands.HANDS; index++) {
+            int[] cards = StartingHands.cards(index);
+            Arrays.fill(rankCounts, 0);
+            for (int card : cards) {
+                rankCounts[PackedCard.rank(card)]++;
+            }
+            int shape = shape(cards);
+            for (Term term : parsed) {
+                if (term.matches(index, rankCounts, shape)) {
+                    weights[hands.size()] = term.weight;
+                    hands.add(cards);
+                    break;
+                }
+            }
+        }
+        if (hands.isEmpty()) {
+            throw new ErrorHand(String.format("range %s: no hand matches %s", name, expression.trim()));
+        }
+        return new HandRange(name, hands.toArray(new int[0][]), Arrays.copyOf(weights, hands.size()));
+    }
+
+    private static Term term(String text, PreflopTable table) throws ErrorHand, ErrorCard {
+        Term term = new Term();
+        int at = text.lastIndexOf('@');
+        if (at >= 0) {
+            term.weight = number(text.substring(at + 1));
+            text = text.substring(0, at).trim();
+        }
+        String[] tokens = text.split("\\s+");
+        if (tokens.length > 2 || tokens[0].isEmpty()) {
+            throw new ErrorHand();
+        }
+        if (tokens.length == 2) {
+            term.shape = filter(tokens[1]);
+        }
+
+        String hand = tokens[0];
+        if (hand.startsWith(TOP) && hand.endsWith("%")) {
+            if (table == null) {
+                throw new ErrorHand(hand + " needs the preflop table");
+            }
+            double percent = number(hand.substring(TOP.length(), hand.length() - 1));
+            if (percent > 100) {
+                throw new ErrorHand();
+            }
+            term.canonical = top(table, percent);
+            term.table = table;
+        } else if (hand.indexOf('-') >= 0) {
+            String[] symbols = hand.split("-");
+            int[] cards = new int[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                cards[i] = PackedCard.parse(symbols[i]);
+            }
+            term.index = StartingHands.index(cards);
+        } else {
+            if (hand.length() != HOLE_CARDS) {
+                throw new ErrorHand();
+            }
+            term.rankCounts = new int[Constants.RANKS.length()];
+            for (int i = 0; i < HOLE_CARDS; i++) {
+                char symbol = hand.charAt(i);
+                if (Character.toLowerCase(symbol) == ANY_RANK) {
+                    continue;
+                }
+                int rank = Constants.RANKS.indexOf(Character.toUpperCase(symbol));
+                if (rank < 0) {
+                    throw new ErrorHand();
+                }
+                term.rankCounts[rank]++;
+            }
+        }
+        return term;
+    }
+
+    /**
+     * Positive number of a weight or percentage
+     */
+    private static double number(String text) throws ErrorHand {
+        try {
+            double value = Double.parseDouble(text.trim());
+            if (!(value > 0) || Double.isInfinite(value)) {
+                throw new ErrorHand();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new ErrorHand();
+        }
+    }
+
+    private static int filter(String text) throws ErrorHand {
+        switch (text.toLowerCase()) {
+            case "ds":
+                return DOUBLE_SUITED;
+            case "ss":
+                return SINGLE_SUITED;
+            case "r":
+                return RAINBOW;
+            default:
+                throw new ErrorHand();
+        }
+    }
+
+    /**
+     * Numbers of cards of the suits in descending order as decimal digits, 2110 for single suited
+     */
+    private static int shape(int[] cards) {
+        int[] counts = new int[Constants.SUITS.length()];
+        for (int card : cards) {
+            counts[PackedCard.suit(card)]++;
+        }
+        Arrays.sort(counts);
+        int shape = 0;
+        for (int i = counts.length - 1; i >= 0; i--) {
+            shape = shape * 10 + counts[i];
+        }
+        return shape;
+    }
+
+    /**
+     * Canonical hands of the best percent of all hands by equity against a random hand
+     * A canonical hand is taken whole, so the range may be slightly larger.
+     */
+    private static boolean[] top(PreflopTable table, double percent) {
+        int[] sizes = new int[StartingHands.CANONICAL_HANDS];
+        for (int index = 0; index < StartingHands.HANDS; index++) {
+            sizes[table.canonicalIndex(index)]++;
+        }
+        Integer[] order = new Integer[StartingHands.CANONICAL_HANDS];
+        for (int canonical = 0; canonical < order.length; canonical++) {
+            order[canonical] = canonical;
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(table.getValue(b, 0, PreflopTable.EQUITY),
+                table.getValue(a, 0, PreflopTable.EQUITY)));
+
+        boolean[] taken = new boolean[StartingHands.CANONICAL_HANDS];
+        long limit = Math.round(StartingHands.HANDS * percent / 100);
+        long hands = 0;
+        for (int i = 0; i < order.length && hands < limit; i++) {
+            taken[order[i]] = true;
+            hands += sizes[order[i]];
+        }
+        return taken;
+    }
+
+    /**
+     * One term of the expression, exactly one of the hand patterns is set
+     */
+    private static class Term {
+        private double weight = 1;
+        private int shape;
+        private int index = -1;
+        private int[] rankCounts;
+        private boolean[] canonical;
+        private PreflopTable table;
+
+        boolean matches(int handIndex, int[] handRankCounts, int handShape) {
+            if (shape != 0 && shape != handShape) {
+                return false;
+            }
+            if (rankCounts != null) {
+                // the x cards have the other ranks, so only the given ranks are counted
+                for (int rank = 0; rank < rankCounts.length; rank++) {
+                    if (rankCounts[rank] != 0 && handRankCounts[rank] != rankCounts[rank]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (canonical != null) {
+                return canonical[table.canonicalIndex(handIndex)];
+            }
+            return handIndex == index;
+        }
+    }
+}
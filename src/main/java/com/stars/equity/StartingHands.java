@@ -0,0 +1,150 @@
+package com.stars.equity;
+
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Indexes of the 4 card starting hands
+ *
+ * Every hand has a colexicographic index 0-270724 of its sorted deck indexes.
+ * Hands that differ only by the names of the suits share one of the
+ * 16432 canonical indexes.
+ */
+public final class StartingHands {
+    /**
+     * Number of 4 card hands, C(52, 4)
+     */
+    public static final int HANDS = 270725;
+
+    /**
+     * Number of suit isomorphic hand classes
+     */
+    public static final int CANONICAL_HANDS = 16432;
+
+    private static final int[][] BINOMIALS = new int[PackedCard.DECK_SIZE + 1][HOLE_CARDS + 1];
+
+    static {
+        for (int n = 0; n <= PackedCard.DECK_SIZE; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= HOLE_CARDS && k <= n; k++) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + (k < n ? BINOMIALS[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private StartingHands() {
+    }
+
+    /**
+     * Colexicographic index of the hand
+     *
+     * @param hand 4 packed cards in any order
+     * @return 0-270724
+     * @throws ErrorHand if the hand has not 4 cards
+     * @throws ErrorCard if a card is unknown or used twice
+     */
+    public static int index(int[] hand) throws ErrorHand, ErrorCard {
+        if (hand.length != HOLE_CARDS) {
+            throw new ErrorHand();
+        }
+        long cards = 0;
+        for (int card : hand) {
+            if (!PackedCard.isValid(card)) {
+                throw new ErrorCard();
+            }
+            cards |= 1L << PackedCard.index(card);
+        }
+        if (Long.bitCount(cards) != HOLE_CARDS) {
+            throw new ErrorCard();
+        }
+        return index(cards);
+    }
+
+    /**
+     * Colexicographic index of the deck bits of 4 cards
+     */
+    static int index(long cards) {
+        int index = 0;
+        for (int k = 1; k <= HOLE_CARDS; k++) {
+            int card = Long.numberOfTrailingZeros(cards);
+            index += BINOMIALS[card][k];
+            cards &= cards - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Hand of the colexicographic index
+     *
+     * @param index 0-270724
+     * @return 4 packed cards, lowest deck index first
+     */
+    public static int[] cards(int index) {
+        int[] hand = new int[HOLE_CARDS];
+        for (int k = HOLE_CARDS; k > 0; k--) {
+            int card = k - 1;
+            while (BINOMIALS[card + 1][k] <= index) {
+                card++;
+            }
+            hand[k - 1] = PackedCard.fromIndex(card);
+            index -= BINOMIALS[card][k];
+        }
+        return hand;
+    }
+
+    /**
+     * Suit independent key of the hand: the rank masks of the suits in descending order
+     *
+     * @param hand 4 packed cards
+     * @return key
+     */
+    static long canonicalKey(int[] hand) {
+        int[] masks = new int[4];
+        for (int card : hand) {
+            masks[PackedCard.suit(card)] |= PackedCard.rankBit(card);
+        }
+        for (int i = 1; i < masks.length; i++) {
+            int mask = masks[i];
+            int j = i;
+            while (j > 0 && masks[j - 1] < mask) {
+                masks[j] = masks[j - 1];
+                j--;
+            }
+            masks[j] = mask;
+        }
+        return ((long) masks[0] << 39) | ((long) masks[1] << 26) | ((long) masks[2] << 13) | masks[3];
+    }
+
+    /**
+     * Canonical index of every hand
+     * The canonical indexes are numbered in the order of their first hand.
+     *
+     * @param representatives receives the colexicographic index of the first hand
+     *                        of every canonical index, {@link #CANONICAL_HANDS} long
+     * @return canonical index by colexicographic index
+     */
+    static char[] canonicalIndexes(int[] representatives) {
+        char[] canonical = new char[HANDS];
+        Map<Long, Integer> classes = new HashMap<>(CANONICAL_HANDS * 2);
+        for (int index = 0; index < HANDS; index++) {
+            Long key = canonicalKey(cards(index));
+            Integer found = classes.get(key);
+            if (found == null) {
+                found = classes.size();
+                classes.put(key, found);
+                representatives[found] = index;
+            }
+            canonical[index] = (char) found.intValue();
+        }
+        if (classes.size() != CANONICAL_HANDS) {
+            throw new IllegalStateException("Unexpected number of canonical hands " + classes.size());
+        }
+        return canonical;
+    }
+}
@@ -5,4 +5,13 @@ package com.stars.errors;
  * Can be extended to handle more data.
  */
 public class ErrorCard extends Exception {
+    public ErrorCard() {
+    }
+
+    /**
+     * @param message the bad part of the input, e.g. card Board: Xh
+     */
+    public ErrorCard(String message) {
+        super(message);
+    }
 }
@@ -5,4 +5,13 @@ package com.stars.errors;
  * Can be extended to handle more data.
  */
 public class ErrorHand extends Exception {
+    public ErrorHand() {
+    }
+
+    /**
+     * @param message the bad part of the input, e.g. range Hero: AAxz
+     */
+    public ErrorHand(String message) {
+        super(message);
+    }
 }
@@ -0,0 +1,186 @@
+package com.stars.evaluation;
+
+import com.stars.entities.PackedCard;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.BOARD_TRIPLES;
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Hi/Lo evaluation of a whole {@link DealBatch}
+ *
+ * The board triples of every deal are prepared once into arrays padded with
+ * empty triples to a multiple of the lane count; the hands combine their hole
+ * pairs with all triples. Only the best scores and the winners are found,
+ * not the best cards. Two implementations:
+ * 1. scalar - plain loops over the triples
+ * 2. vector - jdk.incubator.vector lanes over the triples, used by
+ *    {@link #create()} when the JVM runs with --add-modules jdk.incubator.vector
+ *
+ * Both skip the flush check and the Low pass when the board texture rules
+ * them out, like {@link HandEvaluator}, and give the same results.
+ * Not thread safe, each worker uses its own evaluator.
+ */
+public abstract class BatchEvaluator {
+    static final int TRIPLES = BOARD_TRIPLES.length / 3;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_EVALUATOR = "com.stars.evaluation.VectorBatchEvaluator";
+
+    /**
+     * Low mask of every Low score, the scores are unique
+     */
+    private static final int[] LOW_MASKS = new int[LoEvaluator.LOW_HANDS + 1];
+
+    static {
+        for (int low = 0; low < LoEvaluator.SCORES.length; low++) {
+            LOW_MASKS[LoEvaluator.SCORES[low]] = low;
+        }
+        LOW_MASKS[LoEvaluator.NO_LOW] = 0;
+    }
+
+    final int[] tripleRanks;
+    final int[] tripleSuits;
+    final int[] tripleProducts;
+    final int[] tripleLows;
+
+    /**
+     * Board texture of the current deal
+     */
+    boolean flushPossible;
+    boolean lowPossible;
+
+    /**
+     * @param lanes the triple arrays are padded to a multiple of the lanes
+     */
+    BatchEvaluator(int lanes) {
+        int length = (TRIPLES + lanes - 1) / lanes * lanes;
+        tripleRanks = new int[length];
+        tripleSuits = new int[length];
+        tripleProducts = new int[length];
+        tripleLows = new int[length];
+    }
+
+    /**
+     * Vector evaluator if the Vector API is available, scalar otherwise
+     */
+    public static BatchEvaluator create() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (BatchEvaluator) Class.forName(VECTOR_EVALUATOR).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall back to the scalar loops
+            }
+        }
+        return scalar();
+    }
+
+    public static BatchEvaluator scalar() {
+        return new ScalarBatchEvaluator();
+    }
+
+    /**
+     * Name of the implementation, e.g. for the benchmarks
+     */
+    public abstract String getName();
+
+    /**
+     * Evaluate all deals of the batch and find the winners
+     *
+     * @param batch deals with valid cards
+     */
+    public void evaluate(DealBatch batch) {
+        int[] players = batch.getPlayers();
+        int[] boards = batch.getBoards();
+        int[] holes = batch.getHoles();
+        int[] hiScores = batch.hiScores();
+        int[] loScores = batch.loScores();
+        int[] loMasks = batch.loMasks();
+        for (int deal = 0; deal < batch.getSize(); deal++) {
+            prepare(boards, deal * BOARD_CARDS);
+            int hiBest = 0;
+            int hiWinners = 0;
+            int loBest = LoEvaluator.NO_LOW;
+            int loWinners = 0;
+            for (int hand = 0; hand < players[deal]; hand++) {
+                int slot = deal * DealBatch.HANDS + hand;
+                long scores = evaluateHand(holes, slot * HOLE_CARDS);
+                int hi = (int) (scores >>> 32);
+                int lo = (int) scores;
+                hiScores[slot] = hi;
+                loScores[slot] = lo;
+                loMasks[slot] = LOW_MASKS[lo];
+                if (hi > hiBest) {
+                    hiBest = hi;
+                    hiWinners = 1 << hand;
+                } else if (hi == hiBest) {
+                    hiWinners |= 1 << hand;
+                }
+                if (lo > loBest) {
+                    loBest = lo;
+                    loWinners = 1 << hand;
+                } else if (lo == loBest && lo != LoEvaluator.NO_LOW) {
+                    loWinners |= 1 << hand;
+                }
+            }
+            batch.hiWinners()[deal] = hiWinners;
+            batch.loWinners()[deal] = loWinners;
+        }
+    }
+
+    /**
+     * Best Hi and Lo of one hand against the prepared triples
+     *
+     * @param holes hole cards of the batch
+     * @param offset first card of the hand
+     * @return Hi strength in the high 32 bits, Lo score in the low 32 bits
+     */
+    abstract long evaluateHand(int[] holes, int offset);
+
+    /**
+     * Precompute the triples and the texture of the board like {@link com.stars.entities.Board#prepare()},
+     * the padding triples stay empty and never score
+     */
+    private void prepare(int[] boards, int offset) {
+        int suits = 0;
+        flushPossible = false;
+        for (int card = 0; card < BOARD_CARDS; card++) {
+            // 3 bits per suit count the cards of the suit
+            suits += 1 << (PackedCard.suit(boards[offset + card]) * 3);
+        }
+        for (int suit = 0; suit < 4; suit++) {
+            flushPossible |= ((suits >>> (suit * 3)) & 7) >= 3;
+        }
+        lowPossible = false;
+        for (int triple = 0; triple < TRIPLES; triple++) {
+            int first = boards[offset + BOARD_TRIPLES[triple * 3]];
+            int second = boards[offset + BOARD_TRIPLES[triple * 3 + 1]];
+            int third = boards[offset + BOARD_TRIPLES[triple * 3 + 2]];
+            tripleRanks[triple] = PackedCard.rankBit(first | second | third);
+            tripleSuits[triple] = PackedCard.suitBit(first & second & third);
+            tripleProducts[triple] = PackedCard.prime(first) * PackedCard.prime(second) * PackedCard.prime(third);
+            int low = PackedCard.lowBit(first) | PackedCard.lowBit(second) | PackedCard.lowBit(third);
+            tripleLows[triple] = Integer.bitCount(low) == 3 ? low : 0;
+            lowPossible |= tripleLows[triple] != 0;
+        }
+    }
+
+    /**
+     * Hole pair features: rank bits, common suit bits, prime product and Low bits
+     */
+    static int pairRanks(int first, int second) {
+        return PackedCard.rankBit(first | second);
+    }
+
+    static int pairSuits(int first, int second) {
+        return PackedCard.suitBit(first & second);
+    }
+
+    static int pairProduct(int first, int second) {
+        return PackedCard.prime(first) * PackedCard.prime(second);
+    }
+
+    static int pairLow(int first, int second) {
+        return PackedCard.lowBit(first) | PackedCard.lowBit(second);
+    }
+}
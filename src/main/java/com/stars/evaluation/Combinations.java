@@ -0,0 +1,125 @@
+package com.stars.evaluation;
+
+/**
+ * Precomputed combination index tables
+ *
+ * Omaha uses exactly 2 of the 4 hole cards and exactly 3 of the 5 board cards,
+ * so every hand is checked against the same 6 x 10 index combinations.
+ * 5 and 6 card Omaha have 10 and 15 hole pairs, every variant has its own table.
+ * The tables are flat: each hole pair takes 2 slots and each board triple 3 slots.
+ */
+public final class Combinations {
+    /**
+     * Number of hole cards of 4 card Omaha
+     */
+    public static final int HOLE_CARDS = 4;
+
+    /**
+     * Number of hole cards of the smallest and the largest variant
+     */
+    public static final int MIN_HOLE_CARDS = 4;
+    public static final int MAX_HOLE_CARDS = 6;
+
+    /**
+     * Number of board cards
+     */
+    public static final int BOARD_CARDS = 5;
+
+    /**
+     * Indexes of the hole pairs
+     */
+    public static final int[] HOLE_PAIRS = combinations(HOLE_CARDS, 2);
+
+    /**
+     * Indexes of the board triples
+     */
+    public static final int[] BOARD_TRIPLES = combinations(BOARD_CARDS, 3);
+
+    private static final int[][] HOLE_PAIRS_BY_CARDS = new int[MAX_HOLE_CARDS + 1][];
+
+    /**
+     * Position of the hole pair in its table by the card positions of each variant
+     */
+    private static final int[][] PAIR_POSITIONS = new int[MAX_HOLE_CARDS + 1][];
+
+    static {
+        for (int cards = MIN_HOLE_CARDS; cards <= MAX_HOLE_CARDS; cards++) {
+            int[] pairs = cards == HOLE_CARDS ? HOLE_PAIRS : combinations(cards, 2);
+            HOLE_PAIRS_BY_CARDS[cards] = pairs;
+            PAIR_POSITIONS[cards] = new int[cards * cards];
+            for (int pair = 0; pair < pairs.length; pair += 2) {
+                PAIR_POSITIONS[cards][pairs[pair] * cards + pairs[pair + 1]] = pair;
+                PAIR_POSITIONS[cards][pairs[pair + 1] * cards + pairs[pair]] = pair;
+            }
+        }
+    }
+
+    private Combinations() {
+    }
+
+    /**
+     * Check the number of hole cards of a variant
+     *
+     * @param holeCards number of hole cards
+     * @return true for 4, 5 or 6 cards
+     */
+    public static boolean isVariant(int holeCards) {
+        return holeCards >= MIN_HOLE_CARDS && holeCards <= MAX_HOLE_CARDS;
+    }
+
+    /**
+     * Indexes of the hole pairs of the variant
+     *
+     * @param holeCards 4, 5 or 6
+     * @return flat table with 2 slots per pair, {@link #HOLE_PAIRS} for 4 cards
+     */
+    public static int[] holePairs(int holeCards) {
+        return HOLE_PAIRS_BY_CARDS[holeCards];
+    }
+
+    /**
+     * Position of the hole pair in {@link #holePairs}
+     *
+     * @param holeCards 4, 5 or 6
+     * @param first position of a card of the pair
+     * @param second position of the other card
+     * @return position of the pair, even
+     */
+    public static int holePair(int holeCards, int first, int second) {
+        return PAIR_POSITIONS[holeCards][first * holeCards + second];
+    }
+
+    /**
+     * All k of n index combinations in lexicographic order
+     *
+     * @param n number of cards
+     * @param k cards per combination
+     * @return flat table with k slots per combination
+     */
+    static int[] combinations(int n, int k) {
+        int count = 1;
+        for (int i = 0; i < k; i++) {
+            count = count * (n - i) / (i + 1);
+        }
+        int[] table = new int[count * k];
+        int[] current = new int[k];
+        for (int i = 0; i < k; i++) {
+            current[i] = i;
+        }
+        for (int position = 0; position < table.length; position += k) {
+            System.arraycopy(current, 0, table, position, k);
+            int i = k - 1;
+            while (i >= 0 && current[i] == n - k + i) {
+                i--;
+            }
+            if (i < 0) {
+                break;
+            }
+            current[i]++;
+            for (int j = i + 1; j < k; j++) {
+                current[j] = current[j - 1] + 1;
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,187 @@
+package com.stars.evaluation;
+
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Deals in struct of arrays form
+ *
+ * The cards and the results of up to {@link #getCapacity()} deals are kept
+ * in flat primitive arrays, so a {@link BatchEvaluator} can walk them without
+ * touching any objects:
+ * <pre>
+ * boards   [deal * 5 + card]
+ * holes    [(deal * HANDS + hand) * 4 + card]
+ * hiScores [deal * HANDS + hand], loScores and loMasks alike
+ * </pre>
+ * The cards are packed cards of valid 4 card Omaha deals, the caller checks them first.
+ * Not thread safe.
+ */
+public class DealBatch {
+    /**
+     * Hand slots of every deal
+     */
+    public static final int HANDS = Deal.MAX_HANDS;
+
+    private final int capacity;
+    private int size;
+
+    private final int[] players;
+    private final int[] boards;
+    private final int[] holes;
+
+    private final int[] hiScores;
+    private final int[] loScores;
+    private final int[] loMasks;
+    private final int[] hiWinners;
+    private final int[] loWinners;
+
+    /**
+     * @param capacity maximum number of deals
+     */
+    public DealBatch(int capacity) {
+        this.capacity = capacity;
+        players = new int[capacity];
+        boards = new int[capacity * BOARD_CARDS];
+        holes = new int[capacity * HANDS * HOLE_CARDS];
+        hiScores = new int[capacity * HANDS];
+        loScores = new int[capacity * HANDS];
+        loMasks = new int[capacity * HANDS];
+        hiWinners = new int[capacity];
+        loWinners = new int[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Number of deals filled in directly through the arrays
+     *
+     * @param size 0 up to the capacity
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copy the cards of the parsed deal
+     *
+     * @param deal Deal with status OK
+     * @return position of the deal in the batch
+     */
+    public int add(Deal deal) {
+        int index = size++;
+        int count = deal.getPlayers();
+        players[index] = count;
+        System.arraycopy(deal.getBoard().getCards(), 0, boards, index * BOARD_CARDS, BOARD_CARDS);
+        Hand[] hands = deal.getHands();
+        for (int hand = 0; hand < count; hand++) {
+            System.arraycopy(hands[hand].getHand(), 0, holes, (index * HANDS + hand) * HOLE_CARDS, HOLE_CARDS);
+        }
+        return index;
+    }
+
+    /**
+     * Copy the results of the evaluated deal back to the Deal
+     * Only the scores, the Low masks and the winners are set, not the best cards.
+     *
+     * @param index position of the deal in the batch
+     * @param deal Deal the cards came from
+     */
+    public void store(int index, Deal deal) {
+        Hand[] hands = deal.getHands();
+        for (int hand = 0; hand < players[index]; hand++) {
+            int slot = index * HANDS + hand;
+            Hand target = hands[hand];
+            target.setHiScore(hiScores[slot]);
+            target.setRank(HiEvaluator.category(hiScores[slot]));
+            target.setLoScore(loScores[slot]);
+            target.setLoHand(loMasks[slot]);
+        }
+        int hiBest = hiScores[index * HANDS + Integer.numberOfTrailingZeros(hiWinners[index])];
+        int loBest = loWinners[index] == 0 ? LoEvaluator.NO_LOW
+                : loScores[index * HANDS + Integer.numberOfTrailingZeros(loWinners[index])];
+        deal.setHi(hiBest, hiWinners[index]);
+        deal.setLo(loBest, loWinners[index]);
+    }
+
+    /**
+     * Number of hands of every deal
+     */
+    public int[] getPlayers() {
+        return players;
+    }
+
+    /**
+     * Packed board cards, 5 per deal
+     */
+    public int[] getBoards() {
+        return boards;
+    }
+
+    /**
+     * Packed hole cards, 4 per hand and {@link #HANDS} hands per deal
+     */
+    public int[] getHoles() {
+        return holes;
+    }
+
+    public int getHiScore(int deal, int hand) {
+        return hiScores[deal * HANDS + hand];
+    }
+
+    public int getLoScore(int deal, int hand) {
+        return loScores[deal * HANDS + hand];
+    }
+
+    /**
+     * Low mask of the hand, 0 if it did not qualify
+     */
+    public int getLoMask(int deal, int hand) {
+        return loMasks[deal * HANDS + hand];
+    }
+
+    public int getHiWinners(int deal) {
+        return hiWinners[deal];
+    }
+
+    public int getLoWinners(int deal) {
+        return loWinners[deal];
+    }
+
+    int[] hiScores() {
+        return hiScores;
+    }
+
+    int[] loScores() {
+        return loScores;
+    }
+
+    int[] loMasks() {
+        return loMasks;
+    }
+
+    int[] hiWinners() {
+        return hiWinners;
+    }
+
+    int[] loWinners() {
+        return loWinners;
+    }
+}
@@ -0,0 +1,232 @@
+package com.stars.evaluation;
+
+import com.stars.Constants;
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.BOARD_TRIPLES;
+
+/**
+ * Street by street evaluation of a live deal
+ *
+ * The board cards are added as they are dealt. The hole pair data of every
+ * hand is computed once and each new board card evaluates only the triples
+ * it completes: 1 on the flop, 3 on the turn and 6 on the river.
+ * The best Hi and Lo can only improve, so they are updated in place and
+ * are available for every hand after each street.
+ * Not thread safe, one session per deal.
+ */
+public class DealSession {
+    private static final int TRIPLES = BOARD_TRIPLES.length / 3;
+
+    /**
+     * Triples completed by each board card, the triple uses the card as its last card
+     */
+    private static final int[][] NEW_TRIPLES = new int[BOARD_CARDS][];
+
+    static {
+        for (int card = 0; card < BOARD_CARDS; card++) {
+            int count = 0;
+            int[] found = new int[TRIPLES];
+            for (int triple = 0; triple < TRIPLES; triple++) {
+                if (BOARD_TRIPLES[triple * 3 + 2] == card) {
+                    found[count++] = triple;
+                }
+            }
+            NEW_TRIPLES[card] = new int[count];
+            System.arraycopy(found, 0, NEW_TRIPLES[card], 0, count);
+        }
+    }
+
+    private final Deal deal = new Deal();
+    private final int players;
+    private final int pairs;
+    private final int[] pairRanks;
+    private final int[] pairSuits;
+    private final int[] pairProducts;
+    private final int[] pairLows;
+    private final int[] hiCombinations;
+
+    private int boardSize;
+    private long dead;
+
+    /**
+     * Start the session before the flop
+     *
+     * @param hands packed hole cards of 2 up to 10 hands, 4, 5 or 6 cards each
+     * @throws ErrorHand if the number of hands or cards is wrong
+     * @throws ErrorCard if a card is unknown or used twice
+     */
+    public DealSession(int[][] hands) throws ErrorHand, ErrorCard {
+        if (hands.length < Constants.MIN_PLAYERS || hands.length > Constants.MAX_PLAYERS) {
+            throw new ErrorHand();
+        }
+        int holeCards = hands[0].length;
+        if (!Combinations.isVariant(holeCards)) {
+            throw new ErrorHand();
+        }
+        int[] holePairs = Combinations.holePairs(holeCards);
+        players = hands.length;
+        pairs = holePairs.length / 2;
+        pairRanks = new int[players * pairs];
+        pairSuits = new int[players * pairs];
+        pairProducts = new int[players * pairs];
+        pairLows = new int[players * pairs];
+        hiCombinations = new int[players];
+        for (int player = 0; player < players; player++) {
+            if (hands[player].length != holeCards) {
+                throw new ErrorHand();
+            }
+            for (int card : hands[player]) {
+                dead = markDead(dead, card);
+            }
+            Hand hand = deal.getHands()[player];
+            System.arraycopy(hands[player], 0, hand.setHoleCards(holeCards), 0, holeCards);
+            hand.reset();
+            for (int pair = 0; pair < pairs; pair++) {
+                int first = hands[player][holePairs[pair * 2]];
+                int second = hands[player][holePairs[pair * 2 + 1]];
+                int slot = player * pairs + pair;
+                pairRanks[slot] = PackedCard.rankBit(first | second);
+                pairSuits[slot] = PackedCard.suitBit(first & second);
+                pairProducts[slot] = PackedCard.prime(first) * PackedCard.prime(second);
+                pairLows[slot] = PackedCard.lowBit(first) | PackedCard.lowBit(second);
+            }
+        }
+        deal.setPlayers(players);
+        deal.setStatus(Deal.OK);
+    }
+
+    /**
+     * Add dealt board cards
+     * All cards are checked before the first is added, so on an error the
+     * session is unchanged and the street can be dealt again.
+     *
+     * @param cards packed cards in the order they were dealt
+     * @throws ErrorHand if the cards do not fit on the board
+     * @throws ErrorCard if a card is unknown or used twice
+     */
+    public void deal(int... cards) throws ErrorHand, ErrorCard {
+        long used = dead;
+        for (int i = 0; i < cards.length; i++) {
+            if (boardSize + i == BOARD_CARDS) {
+                throw new ErrorHand();
+            }
+            used = markDead(used, cards[i]);
+        }
+        dead = used;
+        for (int card : cards) {
+            deal.getBoard().getCards()[boardSize] = card;
+            for (int triple : NEW_TRIPLES[boardSize]) {
+                evaluateTriple(triple);
+            }
+            boardSize++;
+        }
+        if (boardSize >= 3) {
+            for (int player = 0; player < players; player++) {
+                Hand hand = deal.getHands()[player];
+                hand.setRank(HiEvaluator.category(hand.getHiScore()));
+            }
+            HandEvaluator.winners(deal);
+        }
+    }
+
+    /**
+     * Number of board cards dealt so far
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Current best Hi and Lo of the hand
+     * The results are available from the flop on.
+     *
+     * @param player index of the hand
+     * @return Hand
+     */
+    public Hand getHand(int player) {
+        return deal.getHands()[player];
+    }
+
+    /**
+     * Bits of the hands currently winning Hi, 0 before the flop
+     */
+    public int getHiWinners() {
+        return boardSize >= 3 ? deal.getHiWinners() : 0;
+    }
+
+    /**
+     * Bits of the hands currently winning Lo, 0 before the flop or if no hand qualifies
+     */
+    public int getLoWinners() {
+        return boardSize >= 3 ? deal.getLoWinners() : 0;
+    }
+
+    /**
+     * Combine the new board triple with the hole pairs of all hands
+     *
+     * Equal Hi hands keep the first combination in the order of
+     * {@link HandEvaluator}, so both report the same best five cards.
+     */
+    private void evaluateTriple(int triple) {
+        int[] board = deal.getBoard().getCards();
+        int first = board[BOARD_TRIPLES[triple * 3]];
+        int second = board[BOARD_TRIPLES[triple * 3 + 1]];
+        int third = board[BOARD_TRIPLES[triple * 3 + 2]];
+        int tripleRanks = PackedCard.rankBit(first | second | third);
+        int tripleSuits = PackedCard.suitBit(first & second & third);
+        int tripleProduct = PackedCard.prime(first) * PackedCard.prime(second) * PackedCard.prime(third);
+        int tripleLow = PackedCard.lowBit(first) | PackedCard.lowBit(second) | PackedCard.lowBit(third);
+        if (Integer.bitCount(tripleLow) != 3) {
+            tripleLow = 0;
+        }
+
+        for (int player = 0; player < players; player++) {
+            Hand hand = deal.getHands()[player];
+            for (int pair = 0; pair < pairs; pair++) {
+                int slot = player * pairs + pair;
+                int strength = HiEvaluator.evaluate(pairRanks[slot] | tripleRanks,
+                        pairSuits[slot] & tripleSuits, pairProducts[slot] * tripleProduct);
+                int combination = pair * TRIPLES + triple;
+                if (strength > hand.getHiScore()
+                        || (strength == hand.getHiScore() && combination < hiCombinations[player])) {
+                    hand.setHiScore(strength);
+                    hand.setHiCombination(pair * 2, triple);
+                    hiCombinations[player] = combination;
+                }
+                int low = pairLows[slot] | tripleLow;
+                int score = LoEvaluator.evaluate(low);
+                if (score > hand.getLoScore()) {
+                    hand.setLoScore(score);
+                    hand.setLoHand(low);
+                    hand.setLoCombination(pair * 2, triple);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param dead bits of the cards in use
+     * @return dead with the card
+     * @throws ErrorCard if the card is unknown or already in use
+     */
+    private static long markDead(long dead, int card) throws ErrorCard {
+        if (!PackedCard.isValid(card)) {
+            throw new ErrorCard();
+        }
+        long bit = 1L << PackedCard.index(card);
+        if ((dead & bit) != 0) {
+            throw new ErrorCard();
+        }
+        return dead | bit;
+    }
+}
@@ -0,0 +1,160 @@
+package com.stars.evaluation;
+
+import com.stars.entities.Board;
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+
+/**
+ * Omaha Hi/Lo hand evaluation
+ *
+ * Finds the best Hi and Lo of each hand by combining its hole pairs with
+ * the precomputed board triples, and the winners of the deal.
+ * Stateless, all results are kept in the Hand and the Deal.
+ */
+public final class HandEvaluator {
+    private static final int TRIPLE_MASK = (1 << Board.TRIPLE_BITS) - 1;
+
+    private HandEvaluator() {
+    }
+
+    /**
+     * Evaluate all hands of the deal and find the winners
+     *
+     * @param deal parsed Deal with prepared board
+     */
+    public static void evaluate(Deal deal) {
+        Hand[] hands = deal.getHands();
+        int players = deal.getPlayers();
+        for (int i = 0; i < players; i++) {
+            hands[i].reset();
+            evaluate(hands[i]);
+        }
+        winners(deal);
+    }
+
+    /**
+     * Find the winners of already evaluated hands
+     *
+     * @param deal Deal with evaluated hands
+     */
+    public static void winners(Deal deal) {
+        evaluateHiHand(deal, deal.getHands(), deal.getPlayers());
+        evaluateLoHand(deal, deal.getHands(), deal.getPlayers());
+    }
+
+    /**
+     * Start the cards processing
+     *
+     * Each hole pair of the variant is combined with the precomputed data of the board triples.
+     * The board texture prunes the work that can not change the result:
+     * 1. without a flush the strength depends only on the ranks, the best
+     *    triple of the pair ranks is cached by the board and shared by all
+     *    pairs of the same ranks of all hands; the suits are checked only for
+     *    a suited pair on a board with 3 cards of one suit
+     * 2. Low only for pairs of 2 different Low ranks, the best Low triple is
+     *    cached by the board the same way; not at all on a board without a Low
+     * So the cost grows with the distinct pair ranks, not with the 60, 100 or
+     * 150 combinations, and the results stay the same as with all of them in order.
+     * @param hand Hand to be processed
+     */
+    public static void evaluate(Hand hand) {
+        int[] evalHand = hand.getHand();
+        int[] pairs = Combinations.holePairs(evalHand.length);
+        Board board = hand.getBoard();
+        boolean flushPossible = board.isFlushPossible();
+
+        for (int pair = 0; pair < pairs.length; pair += 2) {
+            int first = evalHand[pairs[pair]];
+            int second = evalHand[pairs[pair + 1]];
+            int pairKey = HiEvaluator.pairKey(first, second);
+            int pairSuits = flushPossible ? PackedCard.suitBit(first & second) : 0;
+            if (pairSuits == 0) {
+                int best = board.getBestRanks(pairKey);
+                if (best >>> Board.TRIPLE_BITS > hand.getHiScore()) {
+                    hand.setHiScore(best >>> Board.TRIPLE_BITS);
+                    hand.setHiCombination(pair, best & TRIPLE_MASK);
+                }
+                continue;
+            }
+            int pairRanks = PackedCard.rankBit(first | second);
+            for (int triple = 0; triple < board.getTriples(); triple++) {
+                int strength = (pairSuits & board.getTripleSuits(triple)) != 0
+                        ? HiEvaluator.evaluate(pairRanks | board.getTripleRanks(triple), pairSuits, 0)
+                        : HiEvaluator.evaluateRanks(pairKey, board.getTripleKey(triple));
+                if (strength > hand.getHiScore()) {
+                    hand.setHiScore(strength);
+                    hand.setHiCombination(pair, triple);
+                }
+            }
+        }
+        hand.setRank(HiEvaluator.category(hand.getHiScore()));
+
+        if (board.getLowTripleCount() == 0) {
+            return;
+        }
+        for (int pair = 0; pair < pairs.length; pair += 2) {
+            int pairLow = PackedCard.lowBit(evalHand[pairs[pair]]) | PackedCard.lowBit(evalHand[pairs[pair + 1]]);
+            if (Integer.bitCount(pairLow) != 2) {
+                continue;
+            }
+            int best = board.getBestLow(pairLow);
+            if (best >>> Board.TRIPLE_BITS > hand.getLoScore()) {
+                int triple = best & TRIPLE_MASK;
+                hand.setLoScore(best >>> Board.TRIPLE_BITS);
+                hand.setLoHand(pairLow | board.getTripleLow(triple));
+                hand.setLoCombination(pair, triple);
+            }
+        }
+    }
+
+    /**
+     * Determine Hi Hand winner
+     *
+     * Works with already evaluated hands.
+     * All winners are found in one pass over the scores.
+     *
+     * @param deal Deal receiving the winners
+     * @param hands evaluated hands
+     * @param players number of hands in use
+     */
+    private static void evaluateHiHand(Deal deal, Hand[] hands, int players) {
+        int best = hands[0].getHiScore();
+        int winners = 1;
+        for (int i = 1; i < players; i++) {
+            int score = hands[i].getHiScore();
+            if (score > best) {
+                best = score;
+                winners = 1 << i;
+            } else if (score == best) {
+                winners |= 1 << i;
+            }
+        }
+        deal.setHi(best, winners);
+    }
+
+    /**
+     * Determine Lo Hand winner
+     *
+     * Works with already evaluated hands.
+     * All winners are found in one pass over the scores.
+     *
+     * @param deal Deal receiving the winners
+     * @param hands evaluated hands
+     * @param players number of hands in use
+     */
+    private static void evaluateLoHand(Deal deal, Hand[] hands, int players) {
+        int best = LoEvaluator.NO_LOW;
+        int winners = 0;
+        for (int i = 0; i < players; i++) {
+            int score = hands[i].getLoScore();
+            if (score > best) {
+                best = score;
+                winners = 1 << i;
+            } else if (score == best && best != LoEvaluator.NO_LOW) {
+                winners |= 1 << i;
+            }
+        }
+        deal.setLo(best, winners);
+    }
+}
@@ -0,0 +1,304 @@
+package com.stars.evaluation;
+
+import com.stars.HandEnum;
+import com.stars.entities.PackedCard;
+
+import java.util.Arrays;
+
+/**
+ * Table driven 5 card Hi evaluator
+ *
+ * Every 5 card combination is scored with a few array reads:
+ * 1. flush - lookup by the rank bitmask in the flush table
+ * 2. five different ranks - lookup by the rank bitmask in the unique table
+ * 3. anything paired - lookup by the product of the rank primes in an open addressing table
+ *
+ * For Omaha the 5 cards are always a hole pair and a board triple, so there
+ * is also a table of all non flush strengths addressed by the keys of the
+ * pair ranks and the triple ranks: one read without the unique/paired
+ * branch and the hash probing, see {@link #evaluateRanks}.
+ *
+ * The returned strength is a canonical 32 bit value, higher is better:
+ * <pre>
+ * xxxxxxxx ccccaaaa bbbbdddd eeeeffff
+ *
+ * c = category, the rank of the HandEnum
+ * a-f = deciding ranks 0-12 ordered by importance
+ * </pre>
+ * e.g. Full House K-K-K-Q-Q has K in a and Q in b, a straight has only its
+ * top card in a (the wheel is 5 high). Two equal strengths are a tie, so
+ * hands can be compared, sorted and bucketed with plain int operations.
+ * @see PackedCard
+ */
+public final class HiEvaluator {
+    /**
+     * Position of the category in the strength
+     */
+    public static final int CATEGORY_SHIFT = 20;
+
+    private static final int RANK_MASKS = 1 << 13;
+
+    // the tables are shared with the batch evaluators of the package
+    static final int HASH_BITS = 14;
+    static final int HASH_MASK = (1 << HASH_BITS) - 1;
+    static final int HASH_MULTIPLIER = 0x9E3779B1;
+
+    static final int[] FLUSHES = new int[RANK_MASKS];
+    static final int[] UNIQUE5 = new int[RANK_MASKS];
+    static final int[] PRODUCT_KEYS = new int[1 << HASH_BITS];
+    static final int[] PRODUCT_VALUES = new int[1 << HASH_BITS];
+
+    /**
+     * Number of pair keys, the 91 pairs of ranks
+     */
+    public static final int RANK_PAIRS = 13 * 14 / 2;
+
+    // 455 triples of ranks, the ranks of the cards in any order
+    private static final int TRIPLES = 13 * 14 * 15 / 6;
+    private static final int[] PAIR_KEYS = new int[13 * 13];
+    private static final int[] TRIPLE_KEYS = new int[13 * 13 * 13];
+    private static final int[] RANKS5 = new int[RANK_PAIRS * TRIPLES];
+
+    /**
+     * All generated tables in the order of the resource
+     * @see LookupTables
+     */
+    static final int[][] TABLES = {FLUSHES, UNIQUE5, PRODUCT_KEYS, PRODUCT_VALUES, PAIR_KEYS, TRIPLE_KEYS, RANKS5};
+
+    static {
+        long start = System.nanoTime();
+        if (!LookupTables.load(TABLES, start)) {
+            generate();
+            LookupTables.generated(start);
+        }
+    }
+
+    private HiEvaluator() {
+    }
+
+    /**
+     * Evaluate 5 packed cards
+     *
+     * @return strength, higher is better
+     */
+    public static int evaluate(int c1, int c2, int c3, int c4, int c5) {
+        return evaluate((c1 | c2 | c3 | c4 | c5) >>> 16, (c1 & c2 & c3 & c4 & c5 & 0xF000) >>> 12,
+                (c1 & 0xFF) * (c2 & 0xFF) * (c3 & 0xFF) * (c4 & 0xFF) * (c5 & 0xFF));
+    }
+
+    /**
+     * Evaluate 5 cards from their combined features
+     * This allows the features of the card groups to be prepared once and reused.
+     *
+     * @param ranks OR of the rank bits of all cards
+     * @param suits AND of the suit bits of all cards, non zero for a flush
+     * @param product product of the rank primes of all cards
+     * @return strength, higher is better
+     */
+    public static int evaluate(int ranks, int suits, int product) {
+        if (suits != 0) {
+            return FLUSHES[ranks];
+        }
+        int unique = UNIQUE5[ranks];
+        if (unique != 0) {
+            return unique;
+        }
+        return paired(product);
+    }
+
+    /**
+     * Key of the ranks of a hole pair, 0 up to {@link #RANK_PAIRS} - 1
+     *
+     * @param first packed card
+     * @param second packed card
+     */
+    public static int pairKey(int first, int second) {
+        return PAIR_KEYS[PackedCard.rank(first) * 13 + PackedCard.rank(second)];
+    }
+
+    /**
+     * Key of the ranks of a board triple
+     *
+     * @param first packed card
+     * @param second packed card
+     * @param third packed card
+     */
+    public static int tripleKey(int first, int second, int third) {
+        return TRIPLE_KEYS[(PackedCard.rank(first) * 13 + PackedCard.rank(second)) * 13 + PackedCard.rank(third)];
+    }
+
+    /**
+     * Evaluate a hole pair and a board triple without a flush
+     *
+     * @param pairKey value of {@link #pairKey}
+     * @param tripleKey value of {@link #tripleKey}
+     * @return strength, same as {@link #evaluate} of the cards without a flush
+     */
+    public static int evaluateRanks(int pairKey, int tripleKey) {
+        return RANKS5[tripleKey + pairKey];
+    }
+
+    /**
+     * Hand category of the strength
+     *
+     * @param strength value returned by {@link #evaluate}
+     * @return HandEnum
+     */
+    public static HandEnum category(int strength) {
+        return HandEnum.valueOfRank(strength >>> CATEGORY_SHIFT);
+    }
+
+    private static int paired(int product) {
+        int slot = (product * HASH_MULTIPLIER) >>> (32 - HASH_BITS);
+        int key;
+        while ((key = PRODUCT_KEYS[slot]) != product) {
+            if (key == 0) {
+                return 0;
+            }
+            slot = (slot + 1) & HASH_MASK;
+        }
+        return PRODUCT_VALUES[slot];
+    }
+
+    /**
+     * Builds all lookup tables, also over the loaded ones
+     */
+    static void generate() {
+        for (int[] table : TABLES) {
+            Arrays.fill(table, 0);
+        }
+        int[] ranks = new int[5];
+        for (int a = 0; a < 13; a++) {
+            for (int b = a; b < 13; b++) {
+                for (int c = b; c < 13; c++) {
+                    for (int d = c; d < 13; d++) {
+                        for (int e = d; e < 13; e++) {
+                            if (a == e) {
+                                continue;
+                            }
+                            ranks[0] = e;
+                            ranks[1] = d;
+                            ranks[2] = c;
+                            ranks[3] = b;
+                            ranks[4] = a;
+                            int mask = (1 << a) | (1 << b) | (1 << c) | (1 << d) | (1 << e);
+                            if (Integer.bitCount(mask) == 5) {
+                                UNIQUE5[mask] = strength(ranks, false);
+                                FLUSHES[mask] = strength(ranks, true);
+                            } else {
+                                int product = 1;
+                                for (int rank : ranks) {
+                                    product *= PackedCard.prime(PackedCard.of(rank, 0));
+                                }
+                                int slot = (product * HASH_MULTIPLIER) >>> (32 - HASH_BITS);
+                                while (PRODUCT_KEYS[slot] != 0) {
+                                    slot = (slot + 1) & HASH_MASK;
+                                }
+                                PRODUCT_KEYS[slot] = product;
+                                PRODUCT_VALUES[slot] = strength(ranks, false);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        generateRanks();
+    }
+
+    /**
+     * Builds the table of the pair and triple ranks from the other tables
+     * Impossible ranks, like 5 aces, keep strength 0.
+     */
+    private static void generateRanks() {
+        int pairs = 0;
+        for (int a = 0; a < 13; a++) {
+            for (int b = a; b < 13; b++) {
+                PAIR_KEYS[a * 13 + b] = pairs;
+                PAIR_KEYS[b * 13 + a] = pairs;
+                pairs++;
+            }
+        }
+        int triples = 0;
+        for (int a = 0; a < 13; a++) {
+            for (int b = a; b < 13; b++) {
+                for (int c = b; c < 13; c++) {
+                    int key = triples++ * RANK_PAIRS;
+                    int[] ranks = {a, b, c};
+                    for (int[] order : new int[][] {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}}) {
+                        TRIPLE_KEYS[(ranks[order[0]] * 13 + ranks[order[1]]) * 13 + ranks[order[2]]] = key;
+                    }
+                    for (int d = 0; d < 13; d++) {
+                        for (int e = d; e < 13; e++) {
+                            int mask = 0;
+                            int product = 1;
+                            for (int rank : new int[] {a, b, c, d, e}) {
+                                mask |= 1 << rank;
+                                product *= PackedCard.prime(PackedCard.of(rank, 0));
+                            }
+                            RANKS5[key + PAIR_KEYS[d * 13 + e]] = evaluate(mask, 0, product);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Strength of the ranks
+     *
+     * @param ranks ranks in descending order
+     * @param flush all cards of the same suit
+     */
+    private static int strength(int[] ranks, boolean flush) {
+        int[] counts = new int[13];
+        for (int rank : ranks) {
+            counts[rank]++;
+        }
+        int key = 0;
+        int shift = 16;
+        for (int times = 4; times > 0; times--) {
+            for (int rank = 12; rank >= 0; rank--) {
+                if (counts[rank] == times) {
+                    key |= rank << shift;
+                    shift -= 4;
+                }
+            }
+        }
+
+        int distinct = 0;
+        int pairs = 0;
+        int most = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                distinct++;
+            }
+            if (count == 2) {
+                pairs++;
+            }
+            most = Math.max(most, count);
+        }
+
+        HandEnum category;
+        if (distinct == 5) {
+            int straight = -1;
+            if (ranks[0] - ranks[4] == 4) {
+                straight = ranks[0];
+            } else if (ranks[0] == PackedCard.ACE && ranks[1] == 3) {
+                straight = 3;
+            }
+            if (straight >= 0) {
+                category = flush ? HandEnum.STRAIGHT_FLUSH : HandEnum.STRAIGHT;
+                key = straight << 16;
+            } else {
+                category = flush ? HandEnum.FLUSH : HandEnum.HIGH_CARD;
+            }
+        } else if (most == 4) {
+            category = HandEnum.FOUR_OF_KIND;
+        } else if (most == 3) {
+            category = pairs == 1 ? HandEnum.FULL : HandEnum.TREE_OF_KUND;
+        } else {
+            category = pairs == 2 ? HandEnum.TWO_PAIR : HandEnum.ONE_PAIR;
+        }
+        return (category.getRank() << CATEGORY_SHIFT) | key;
+    }
+}
@@ -0,0 +1,88 @@
+package com.stars.evaluation;
+
+/**
+ * Omaha 8-or-better Low evaluator
+ *
+ * Ranks A-8 are kept as an 8 bit mask (ace = bit 0, eight = bit 7).
+ * A hole pair and a board triple qualify for Low only if their masks together
+ * have 5 bits: that means 5 different ranks and none of them above 8.
+ * All 56 qualifying masks are ordered in a precomputed table.
+ * @see com.stars.entities.PackedCard#lowBit
+ */
+public final class LoEvaluator {
+    /**
+     * Score of the hand that did not qualify for Low
+     */
+    public static final int NO_LOW = 0;
+
+    /**
+     * Number of qualifying Low hands
+     */
+    public static final int LOW_HANDS = 56;
+
+    private static final String SYMBOLS = "A2345678";
+
+    static final int[] SCORES = new int[256];
+    private static final String[] TEXTS = new String[256];
+
+    static {
+        generate();
+    }
+
+    private LoEvaluator() {
+    }
+
+    /**
+     * Score of the Low mask
+     *
+     * @param low 8 bit Low mask of 5 cards
+     * @return score 1-56, higher is better, or {@link #NO_LOW}
+     */
+    public static int evaluate(int low) {
+        return SCORES[low];
+    }
+
+    /**
+     * Score of hole pair combined with board triple
+     *
+     * @param pairLow Low mask of the hole pair
+     * @param tripleLow Low mask of the board triple
+     * @return score 1-56, higher is better, or {@link #NO_LOW}
+     */
+    public static int evaluate(int pairLow, int tripleLow) {
+        return SCORES[pairLow | tripleLow];
+    }
+
+    /**
+     * Low hand as text starting with the highest card e.g. 7652A
+     *
+     * @param low qualifying Low mask
+     * @return String
+     */
+    public static String toString(int low) {
+        return TEXTS[low];
+    }
+
+    /**
+     * Orders the masks with 5 bits
+     *
+     * The highest card decides first, then the next one and so on, which is
+     * the same as comparing the masks as numbers: the lower mask is the better Low.
+     */
+    private static void generate() {
+        int score = LOW_HANDS;
+        for (int low = 0; low < SCORES.length; low++) {
+            if (Integer.bitCount(low) == 5) {
+                SCORES[low] = score--;
+                char[] text = new char[5];
+                int position = 0;
+                for (int bit = 7; bit >= 0; bit--) {
+                    if ((low & (1 << bit)) != 0) {
+                        text[position++] = SYMBOLS.charAt(bit);
+                    }
+                }
+                TEXTS[low] = new String(text);
+            }
+        }
+    }
+}
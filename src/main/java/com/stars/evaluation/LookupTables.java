@@ -0,0 +1,232 @@
+package com.stars.evaluation;
+
+import com.stars.entities.PackedCard;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Hi lookup tables packaged as a class path resource
+ *
+ * The build generates the tables into {@value #RESOURCE} next to the classes
+ * in the process-classes phase. The tables are loaded when the HiEvaluator is
+ * first used: a resource in a directory is memory mapped, a resource in a jar
+ * is read in one piece, and the ints are copied into the arrays of the evaluator.
+ * Without the resource, or with a resource of other tables, they are generated
+ * in process as before.
+ *
+ * The resource is only used when it was generated by the same classes: the
+ * CRC32 of the class files of the generator is stored with the tables and
+ * compared with the classes on the class path, so a resource left behind by
+ * an older build is ignored without a version to bump by hand. A CRC32 of the
+ * tables catches damaged files.
+ *
+ * Format: "OMHT", format version, 3 reserved bytes, CRC32 of the generator
+ * classes, CRC32 of the tables, number of tables, then for every table its int
+ * length and the big endian ints.
+ */
+public final class LookupTables {
+    static final String RESOURCE = "hi-tables.bin";
+
+    /**
+     * Version of the format, the content is checked by the checksums
+     */
+    static final int VERSION = 2;
+
+    /**
+     * Classes whose code decides the content of the tables
+     */
+    private static final Class<?>[] GENERATOR = {HiEvaluator.class, PackedCard.class};
+
+    private static final byte[] MAGIC = {'O', 'M', 'H', 'T'};
+    private static final int HEADER = 16;
+
+    private static String source = "not loaded";
+    private static long loadNanos;
+
+    private LookupTables() {
+    }
+
+    /**
+     * How the tables were obtained: mapped, read or generated
+     */
+    public static String getSource() {
+        return source;
+    }
+
+    /**
+     * Time to load or generate the tables
+     */
+    public static long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /**
+     * Source and time for the reports, e.g. mapped hi-tables.bin in 1.2 ms
+     */
+    public static String describe() {
+        return String.format("%s in %.1f ms", source, loadNanos / 1e6);
+    }
+
+    /**
+     * Fill the tables from the resource
+     *
+     * @param tables arrays of the expected lengths
+     * @param start System.nanoTime() of the start of the loading
+     * @return false if the resource is missing or does not fit the tables
+     */
+    static boolean load(int[][] tables, long start) {
+        URL url = LookupTables.class.getResource(RESOURCE);
+        if (url == null) {
+            return false;
+        }
+        String how;
+        ByteBuffer buffer;
+        try {
+            if ("file".equals(url.getProtocol())) {
+                try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                how = "mapped";
+            } else {
+                try (InputStream input = url.openStream()) {
+                    buffer = ByteBuffer.wrap(input.readAllBytes());
+                }
+                how = "read";
+            }
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return false;
+        }
+        if (!read(buffer, tables)) {
+            return false;
+        }
+        loaded(how + " " + RESOURCE, start);
+        return true;
+    }
+
+    /**
+     * Record the tables generated in process
+     *
+     * @param start System.nanoTime() of the start of the generation
+     */
+    static void generated(long start) {
+        loaded("generated", start);
+    }
+
+    private static void loaded(String how, long start) {
+        loadNanos = System.nanoTime() - start;
+        source = how;
+    }
+
+    /**
+     * Check the resource and copy its tables
+     *
+     * @return false if the resource is damaged, of another format or of other generator classes
+     */
+    static boolean read(ByteBuffer buffer, int[][] tables) {
+        if (buffer.remaining() < HEADER + 4) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        if (buffer.get(MAGIC.length) != VERSION || buffer.getInt(HEADER) != tables.length) {
+            return false;
+        }
+        int position = HEADER + 4;
+        for (int[] table : tables) {
+            if (buffer.limit() - position < 4 || buffer.getInt(position) != table.length
+                    || buffer.limit() - position - 4 < table.length * 4L) {
+                return false;
+            }
+            position += 4 + table.length * 4;
+        }
+        Integer generator = generatorChecksum();
+        if (generator == null || buffer.getInt(8) != generator) {
+            return false;
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().position(HEADER).limit(position));
+        if (buffer.getInt(12) != (int) checksum.getValue()) {
+            return false;
+        }
+        IntBuffer ints = buffer.position(HEADER + 4).slice().asIntBuffer();
+        for (int[] table : tables) {
+            ints.get();
+            ints.get(table);
+        }
+        return true;
+    }
+
+    /**
+     * CRC32 of the class files of the generator on the class path
+     *
+     * @return null if a class file can not be read
+     */
+    private static Integer generatorChecksum() {
+        CRC32 checksum = new CRC32();
+        for (Class<?> type : GENERATOR) {
+            try (InputStream input = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+                if (input == null) {
+                    return null;
+                }
+                checksum.update(input.readAllBytes());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Generate the tables into the resource, run by the build
+     *
+     * @param args directory of the classes
+     * @throws IOException if the resource can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        HiEvaluator.generate();
+        String pack = LookupTables.class.getPackageName().replace('.', '/');
+        Path file = Paths.get(args[0]).resolve(pack).resolve(RESOURCE);
+        Files.createDirectories(file.getParent());
+        Integer generator = generatorChecksum();
+        if (generator == null) {
+            throw new IOException("Class files of the generator not found");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream tables = new DataOutputStream(bytes);
+        tables.writeInt(HiEvaluator.TABLES.length);
+        for (int[] table : HiEvaluator.TABLES) {
+            tables.writeInt(table.length);
+            for (int value : table) {
+                tables.writeInt(value);
+            }
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.write(MAGIC);
+            output.write(new byte[] {VERSION, 0, 0, 0});
+            output.writeInt(generator);
+            output.writeInt((int) checksum.getValue());
+            bytes.writeTo(output);
+        }
+        System.out.printf("Generated %s, %d bytes in %.1f ms%n", file, Files.size(file), (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -0,0 +1,41 @@
+package com.stars.evaluation;
+
+import static com.stars.evaluation.Combinations.HOLE_PAIRS;
+
+/**
+ * Scalar batch evaluator, loops over the hole pairs and the board triples
+ */
+class ScalarBatchEvaluator extends BatchEvaluator {
+    ScalarBatchEvaluator() {
+        super(1);
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    long evaluateHand(int[] holes, int offset) {
+        int hi = 0;
+        int lo = LoEvaluator.NO_LOW;
+        for (int pair = 0; pair < HOLE_PAIRS.length; pair += 2) {
+            int first = holes[offset + HOLE_PAIRS[pair]];
+            int second = holes[offset + HOLE_PAIRS[pair + 1]];
+            int ranks = pairRanks(first, second);
+            int suits = flushPossible ? pairSuits(first, second) : 0;
+            int product = pairProduct(first, second);
+            for (int triple = 0; triple < TRIPLES; triple++) {
+                hi = Math.max(hi, HiEvaluator.evaluate(ranks | tripleRanks[triple],
+                        suits & tripleSuits[triple], product * tripleProducts[triple]));
+            }
+            int low = pairLow(first, second);
+            if (lowPossible && Integer.bitCount(low) == 2) {
+                for (int triple = 0; triple < TRIPLES; triple++) {
+                    lo = Math.max(lo, LoEvaluator.SCORES[low | tripleLows[triple]]);
+                }
+            }
+        }
+        return (long) hi << 32 | lo;
+    }
+}
@@ -0,0 +1,93 @@
+package com.stars.evaluation;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.stars.evaluation.Combinations.HOLE_PAIRS;
+
+/**
+ * Vector API batch evaluator
+ *
+ * The lanes hold the board triples; every hole pair is broadcast and combined
+ * with all triples at once: OR of the rank masks, AND of the suits, product of
+ * the primes and OR of the Low masks. The Hi and Lo tables are read with
+ * gathers, the flush table only if a lane has a flush; the paired hands probe the product hash table lane by lane until
+ * every lane found its product or an empty slot.
+ * Loaded only through {@link BatchEvaluator#create()}.
+ */
+class VectorBatchEvaluator extends BatchEvaluator {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private final int[] indexes = new int[SPECIES.length()];
+
+    VectorBatchEvaluator() {
+        super(SPECIES.length());
+    }
+
+    @Override
+    public String getName() {
+        return "vector " + SPECIES.length() + " lanes";
+    }
+
+    @Override
+    long evaluateHand(int[] holes, int offset) {
+        IntVector hiBest = IntVector.zero(SPECIES);
+        IntVector loBest = IntVector.zero(SPECIES);
+        for (int lane = 0; lane < tripleRanks.length; lane += SPECIES.length()) {
+            IntVector ranks = IntVector.fromArray(SPECIES, tripleRanks, lane);
+            IntVector suits = IntVector.fromArray(SPECIES, tripleSuits, lane);
+            IntVector products = IntVector.fromArray(SPECIES, tripleProducts, lane);
+            IntVector lows = IntVector.fromArray(SPECIES, tripleLows, lane);
+            for (int pair = 0; pair < HOLE_PAIRS.length; pair += 2) {
+                int first = holes[offset + HOLE_PAIRS[pair]];
+                int second = holes[offset + HOLE_PAIRS[pair + 1]];
+                IntVector rankMask = ranks.or(pairRanks(first, second));
+                IntVector suitMask = suits.and(flushPossible ? pairSuits(first, second) : 0);
+                IntVector product = products.mul(pairProduct(first, second));
+
+                IntVector hi = paired(product);
+                rankMask.intoArray(indexes, 0);
+                IntVector unique = IntVector.fromArray(SPECIES, HiEvaluator.UNIQUE5, 0, indexes, 0);
+                hi = hi.blend(unique, unique.compare(VectorOperators.NE, 0));
+                VectorMask<Integer> flushes = suitMask.compare(VectorOperators.NE, 0);
+                if (flushes.anyTrue()) {
+                    hi = hi.blend(IntVector.fromArray(SPECIES, HiEvaluator.FLUSHES, 0, indexes, 0), flushes);
+                }
+                hiBest = hiBest.max(hi);
+                int pairLow = pairLow(first, second);
+                if (lowPossible && Integer.bitCount(pairLow) == 2) {
+                    loBest = loBest.max(gather(LoEvaluator.SCORES, lows.or(pairLow)));
+                }
+            }
+        }
+        int hi = hiBest.reduceLanes(VectorOperators.MAX);
+        int lo = loBest.reduceLanes(VectorOperators.MAX);
+        return (long) hi << 32 | lo;
+    }
+
+    /**
+     * Strength of the paired hands, linear probing of all lanes together
+     */
+    private IntVector paired(IntVector product) {
+        IntVector slot = product.mul(HiEvaluator.HASH_MULTIPLIER)
+                .lanewise(VectorOperators.LSHR, 32 - HiEvaluator.HASH_BITS);
+        IntVector keys = gather(HiEvaluator.PRODUCT_KEYS, slot);
+        VectorMask<Integer> probing = keys.compare(VectorOperators.NE, product)
+                .andNot(keys.compare(VectorOperators.EQ, 0));
+        while (probing.anyTrue()) {
+            slot = slot.add(1, probing).and(HiEvaluator.HASH_MASK);
+            keys = gather(HiEvaluator.PRODUCT_KEYS, slot);
+            probing = probing.and(keys.compare(VectorOperators.NE, product))
+                    .andNot(keys.compare(VectorOperators.EQ, 0));
+        }
+        // an empty slot has the value 0 like a product that is not in the table
+        return gather(HiEvaluator.PRODUCT_VALUES, slot);
+    }
+
+    private IntVector gather(int[] table, IntVector index) {
+        index.intoArray(indexes, 0);
+        return IntVector.fromArray(SPECIES, table, 0, indexes, 0);
+    }
+}
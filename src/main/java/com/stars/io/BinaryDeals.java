@@ -0,0 +1,155 @@
+package com.stars.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Binary deal and result format
+ *
+ * Deal file: 8 byte header "OMHD", version, 3 reserved bytes, then records
+ * starting with a type byte, the type in the high 4 bits:
+ * 1. deal - players in the low 4 bits, then the cards as 6 bit deck indexes,
+ *    board first and then the hands, packed from the highest bit and padded
+ *    to whole bytes (11 bytes for 2 hands instead of about 60 in text)
+ * 2. names - int length, count byte, then for every name a length byte and
+ *    UTF-8 bytes; the names of the following deals by their position
+ * 3. raw - int length and the text of a line that is not in canonical form,
+ *    e.g. a line with an error, evaluated by the text parser
+ * 4. variant deal - a deal of 5 or 6 card Omaha, players in the low 4 bits,
+ *    a byte with the number of hole cards and then the cards like a deal;
+ *    4 card deals keep the shorter deal record
+ *
+ * Result file: 8 byte header "OMHR", version, 3 reserved bytes, then
+ * {@link #RESULT_RECORD} bytes per deal: status, players, Hi winner bits (short),
+ * Lo winner bits (short), Hi category 1-9 and the Low mask of the Lo winners.
+ * Multi byte values are big endian.
+ */
+public final class BinaryDeals {
+    public static final byte[] DEALS_MAGIC = {'O', 'M', 'H', 'D'};
+    public static final byte[] RESULTS_MAGIC = {'O', 'M', 'H', 'R'};
+    public static final int VERSION = 1;
+    public static final int HEADER = 8;
+
+    /**
+     * Size of a result record
+     */
+    public static final int RESULT_RECORD = 8;
+
+    static final int DEAL = 1;
+    static final int NAMES = 2;
+    static final int RAW = 3;
+    static final int VARIANT_DEAL = 4;
+
+    static final int CARD_BITS = 6;
+
+    private BinaryDeals() {
+    }
+
+    /**
+     * File header
+     *
+     * @param magic {@link #DEALS_MAGIC} or {@link #RESULTS_MAGIC}
+     * @return 8 bytes
+     */
+    public static byte[] header(byte[] magic) {
+        byte[] header = new byte[HEADER];
+        System.arraycopy(magic, 0, header, 0, magic.length);
+        header[4] = VERSION;
+        return header;
+    }
+
+    /**
+     * Check if the file starts with the deal header
+     *
+     * @param path input file
+     * @return true for a binary deal file
+     * @throws IOException if the file can not be read
+     */
+    public static boolean isDeals(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                continue;
+            }
+            return isHeader(header, 0, header.position(), DEALS_MAGIC);
+        }
+    }
+
+    /**
+     * Check the header of the data
+     *
+     * @param buffer data
+     * @param position start of the header
+     * @param limit end of the data
+     * @param magic expected magic
+     * @return true if the header matches
+     */
+    static boolean isHeader(ByteBuffer buffer, int position, int limit, byte[] magic) {
+        if (limit - position < HEADER) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (buffer.get(position + i) != magic[i]) {
+                return false;
+            }
+        }
+        return buffer.get(position + magic.length) == VERSION;
+    }
+
+    /**
+     * Bytes of the packed cards of a deal
+     *
+     * @param players number of hands
+     * @param holeCards cards per hand
+     */
+    static int cardBytes(int players, int holeCards) {
+        return ((BOARD_CARDS + players * holeCards) * CARD_BITS + 7) / 8;
+    }
+
+    static int type(ByteBuffer buffer, int position) {
+        return (buffer.get(position) & 0xFF) >>> 4;
+    }
+
+    /**
+     * Length of the record
+     *
+     * @param buffer data
+     * @param position start of the record
+     * @param limit end of the data
+     * @return length or -1 if the record is not complete
+     * @throws IOException on unknown record type
+     */
+    static int recordLength(ByteBuffer buffer, int position, int limit) throws IOException {
+        if (position >= limit) {
+            return -1;
+        }
+        int length;
+        int type = type(buffer, position);
+        if (type == DEAL) {
+            length = 1 + cardBytes(buffer.get(position) & 0x0F, HOLE_CARDS);
+        } else if (type == VARIANT_DEAL) {
+            if (limit - position < 2) {
+                return -1;
+            }
+            length = 2 + cardBytes(buffer.get(position) & 0x0F, buffer.get(position + 1) & 0xFF);
+        } else if (type == NAMES || type == RAW) {
+            if (limit - position < 5) {
+                return -1;
+            }
+            int payload = buffer.getInt(position + 1);
+            if (payload < 0) {
+                throw new IOException("Invalid record length at " + position);
+            }
+            length = 5 + payload;
+        } else {
+            throw new IOException("Unknown record type " + type + " at " + position);
+        }
+        return limit - position < length ? -1 : length;
+    }
+}
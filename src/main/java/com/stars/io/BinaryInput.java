@@ -0,0 +1,111 @@
+package com.stars.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory mapped binary deal file
+ *
+ * The file is mapped in windows like {@link MappedInput}; the records of a
+ * window are split into chunks with {@link #skip(int, int)}, which also keeps
+ * track of the names record in effect at the start of every chunk, so the
+ * chunks can be decoded independently.
+ *
+ * @see BinaryDeals
+ */
+public class BinaryInput implements Closeable {
+    private final FileChannel channel;
+    private final long size;
+    private long position = BinaryDeals.HEADER;
+    private ByteBuffer window;
+    private int consumed;
+    private byte[] names;
+
+    /**
+     * @param path binary deal file
+     * @throws IOException if the file can not be opened or has no deal header
+     */
+    public BinaryInput(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, BinaryDeals.HEADER));
+        if (!BinaryDeals.isHeader(header, 0, header.limit(), BinaryDeals.DEALS_MAGIC)) {
+            channel.close();
+            throw new IOException("Not a binary deal file: " + path);
+        }
+    }
+
+    /**
+     * Map the next window, starting with the first record not returned by {@link #skip}
+     *
+     * @return buffer with the records from 0 to its limit, null at the end of the file
+     * @throws IOException on read error
+     */
+    public ByteBuffer next() throws IOException {
+        if (window != null) {
+            position += consumed;
+        }
+        if (position >= size) {
+            return null;
+        }
+        int length = (int) Math.min(MappedInput.WINDOW, size - position);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        window = mapped;
+        consumed = 0;
+        return window;
+    }
+
+    /**
+     * Skip complete records of the current window
+     *
+     * @param start first byte of a record
+     * @param bytes minimum number of bytes to skip, if the window has enough records
+     * @return end of the last skipped record, start if the window has no complete record left
+     * @throws IOException on broken or truncated record
+     */
+    public int skip(int start, int bytes) throws IOException {
+        int limit = window.limit();
+        int target = (int) Math.min((long) start + bytes, limit);
+        int record = start;
+        while (record < target) {
+            int length = BinaryDeals.recordLength(window, record, limit);
+            if (length < 0) {
+                if (position + limit >= size) {
+                    throw new IOException("Truncated record at " + (position + record));
+                }
+                if (record == 0) {
+                    throw new IOException("Record longer than " + MappedInput.WINDOW + " bytes at " + position);
+                }
+                break;
+            }
+            if (BinaryDeals.type(window, record) == BinaryDeals.NAMES) {
+                names = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    names[i] = window.get(record + i);
+                }
+            }
+            record += length;
+        }
+        consumed = record;
+        return record;
+    }
+
+    /**
+     * Names record in effect at the end of the last skipped record
+     *
+     * @return complete names record, null if there was none yet
+     */
+    public byte[] getNames() {
+        return names;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
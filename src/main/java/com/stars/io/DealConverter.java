@@ -0,0 +1,146 @@
+package com.stars.io;
+
+import com.stars.entities.Deal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming converter between text and binary deal files
+ *
+ * Lines in the canonical form written by {@link DealText} become deal
+ * records, all other lines are kept as raw records, so converting back
+ * gives the same lines and the same results, errors included.
+ * Lines are written back with the platform line separator.
+ */
+public final class DealConverter {
+    private static final int BLOCK = 1 << 20;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private DealConverter() {
+    }
+
+    /**
+     * Convert a text deal file to binary
+     *
+     * @param input text file
+     * @param output binary file
+     * @return number of lines
+     * @throws IOException on read or write error
+     */
+    public static long toBinary(Path input, Path output) throws IOException {
+        DealParser parser = new DealParser();
+        DealText text = new DealText();
+        DealWriter writer = new DealWriter(BLOCK + BLOCK / 4);
+        Deal deal = new Deal();
+        long lines = 0;
+        try (MappedInput mapped = new MappedInput(input); FileChannel channel = create(output)) {
+            writer.writeHeader();
+            ByteBuffer window;
+            while ((window = mapped.next()) != null) {
+                int limit = window.limit();
+                int position = 0;
+                while (position < limit) {
+                    int lineEnd = MappedInput.lineEnd(window, position, limit);
+                    if (parser.parse(window, position, lineEnd, deal) != Deal.OK
+                            || !isCanonical(text, deal, window, position, lineEnd)
+                            || !writer.writeDeal(deal)) {
+                        writer.writeRaw(window, position, lineEnd);
+                    }
+                    lines++;
+                    if (writer.size() >= BLOCK) {
+                        writer.writeTo(channel);
+                    }
+                    position = MappedInput.nextLine(window, lineEnd, limit);
+                }
+            }
+            writer.writeTo(channel);
+        }
+        return lines;
+    }
+
+    /**
+     * Convert a binary deal file to text
+     *
+     * @param input binary file
+     * @param output text file
+     * @return number of lines
+     * @throws IOException on read or write error
+     */
+    public static long toText(Path input, Path output) throws IOException {
+        DealDecoder decoder = new DealDecoder();
+        Deal deal = new Deal();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK + BLOCK / 4);
+        long lines = 0;
+        try (BinaryInput binary = new BinaryInput(input); FileChannel channel = create(output)) {
+            ByteBuffer window;
+            while ((window = binary.next()) != null) {
+                int start = 0;
+                int end;
+                while ((end = binary.skip(start, BLOCK)) > start) {
+                    int position = start;
+                    while ((position = decoder.decode(window, position, end, deal)) >= 0) {
+                        ByteBuffer line = decoder.getLine();
+                        block = write(block, line, decoder.getLineStart(), decoder.getLineEnd(), channel);
+                        lines++;
+                    }
+                    start = end;
+                }
+            }
+            flush(block, channel);
+        }
+        return lines;
+    }
+
+    /**
+     * Check that the line is exactly the rendered deal
+     */
+    private static boolean isCanonical(DealText text, Deal deal, ByteBuffer input, int start, int end) {
+        int length = text.render(deal);
+        if (length != end - start) {
+            return false;
+        }
+        byte[] bytes = text.getBytes();
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != input.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer write(ByteBuffer block, ByteBuffer line, int start, int end,
+                                    WritableByteChannel channel) throws IOException {
+        int length = end - start + LINE_SEPARATOR.length;
+        if (block.remaining() < length) {
+            flush(block, channel);
+            if (block.capacity() < length) {
+                block = ByteBuffer.allocate(length);
+            }
+        }
+        for (int position = start; position < end; position++) {
+            block.put(line.get(position));
+        }
+        block.put(LINE_SEPARATOR);
+        return block;
+    }
+
+    private static void flush(ByteBuffer block, WritableByteChannel channel) throws IOException {
+        block.flip();
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+        block.clear();
+    }
+
+    private static FileChannel create(Path output) throws IOException {
+        return FileChannel.open(output,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,212 @@
+package com.stars.io;
+
+import com.stars.Constants;
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import com.stars.evaluation.Combinations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Decoder of the binary deal records
+ *
+ * Unpacks the 6 bit card codes straight into the reused Deal and checks them
+ * like the text parser: a wrong number of hands is an error in hand/board,
+ * an unknown or duplicate card is an error in card. Raw records are parsed
+ * by the text parser. Hands without a name in the current names record
+ * are called HandA, HandB and so on.
+ * Not thread safe, each worker uses its own decoder.
+ *
+ * @see BinaryDeals
+ */
+public class DealDecoder {
+    private final DealParser parser = new DealParser();
+    private final DealText text = new DealText();
+
+    private final String[] names = new String[Deal.MAX_HANDS];
+    private final String[] defaultNames = new String[Deal.MAX_HANDS];
+
+    private Deal deal;
+    private ByteBuffer textLine;
+    private ByteBuffer line;
+    private int lineStart;
+    private int lineEnd;
+    private boolean raw;
+
+    public DealDecoder() {
+        for (int i = 0; i < defaultNames.length; i++) {
+            defaultNames[i] = "Hand" + (char) ('A' + i);
+        }
+        System.arraycopy(defaultNames, 0, names, 0, names.length);
+    }
+
+    /**
+     * Set the names in effect, e.g. at the start of a chunk
+     *
+     * @param record complete names record or null for the default names
+     * @throws IOException if the record is broken
+     */
+    public void useNames(byte[] record) throws IOException {
+        if (record == null) {
+            System.arraycopy(defaultNames, 0, names, 0, names.length);
+        } else {
+            readNames(ByteBuffer.wrap(record), 0);
+        }
+    }
+
+    /**
+     * Decode the next deal
+     * Names records on the way are applied to the following deals.
+     *
+     * @param input complete records
+     * @param position first byte of a record
+     * @param limit end of the records
+     * @param deal Deal to fill in, the status is set like by the text parser
+     * @return end of the decoded deal record, -1 if there is no deal before the limit
+     * @throws IOException on broken record
+     */
+    public int decode(ByteBuffer input, int position, int limit, Deal deal) throws IOException {
+        while (position < limit) {
+            int length = BinaryDeals.recordLength(input, position, limit);
+            if (length < 0) {
+                throw new IOException("Truncated record at " + position);
+            }
+            int type = BinaryDeals.type(input, position);
+            if (type == BinaryDeals.NAMES) {
+                readNames(input, position);
+            } else if (type == BinaryDeals.RAW) {
+                raw = true;
+                line = input;
+                lineStart = position + 5;
+                lineEnd = position + length;
+                this.deal = null;
+                parser.parse(input, lineStart, lineEnd, deal);
+                return position + length;
+            } else {
+                raw = false;
+                this.deal = deal;
+                deal.setStatus(readDeal(input, position, deal));
+                return position + length;
+            }
+            position += length;
+        }
+        return -1;
+    }
+
+    /**
+     * Text of the last decoded deal, rendered on demand for deal records
+     *
+     * @return buffer with the line from {@link #getLineStart()} to {@link #getLineEnd()}
+     */
+    public ByteBuffer getLine() {
+        if (!raw && deal != null) {
+            lineEnd = text.render(deal);
+            lineStart = 0;
+            if (textLine == null || textLine.array() != text.getBytes()) {
+                textLine = ByteBuffer.wrap(text.getBytes());
+            }
+            line = textLine;
+            deal = null;
+        }
+        return line;
+    }
+
+    public int getLineStart() {
+        return lineStart;
+    }
+
+    public int getLineEnd() {
+        return lineEnd;
+    }
+
+    /**
+     * Unpack the cards, board first, most significant bits first
+     *
+     * @return status of the deal
+     */
+    private int readDeal(ByteBuffer input, int position, Deal deal) {
+        int players = input.get(position) & 0x0F;
+        int holeCards = HOLE_CARDS;
+        int next = position + 1;
+        if (BinaryDeals.type(input, position) == BinaryDeals.VARIANT_DEAL) {
+            holeCards = input.get(next++) & 0xFF;
+        }
+        if (players < Constants.MIN_PLAYERS || players > Constants.MAX_PLAYERS || !Combinations.isVariant(holeCards)) {
+            deal.setPlayers(0);
+            return Deal.ERROR_HAND;
+        }
+        deal.setPlayers(players);
+        long bits = 0;
+        int count = 0;
+        long seen = 0;
+        boolean valid = true;
+        Hand[] hands = deal.getHands();
+        for (int hand = 0; hand < players; hand++) {
+            hands[hand].setHoleCards(holeCards);
+        }
+        for (int i = 0; i < BOARD_CARDS + players * holeCards; i++) {
+            if (count < BinaryDeals.CARD_BITS) {
+                bits = (bits << 8) | (input.get(next++) & 0xFF);
+                count += 8;
+            }
+            count -= BinaryDeals.CARD_BITS;
+            int code = (int) (bits >>> count) & 0x3F;
+            int card = PackedCard.INVALID;
+            if (code < PackedCard.DECK_SIZE && (seen & (1L << code)) == 0) {
+                seen |= 1L << code;
+                card = PackedCard.fromIndex(code);
+            } else {
+                valid = false;
+            }
+            if (i < BOARD_CARDS) {
+                deal.getBoard().getCards()[i] = card;
+            } else {
+                int hand = (i - BOARD_CARDS) / holeCards;
+                hands[hand].getHand()[(i - BOARD_CARDS) % holeCards] = card;
+            }
+        }
+        for (int hand = 0; hand < players; hand++) {
+            hands[hand].setName(names[hand]);
+        }
+        if (!valid) {
+            return Deal.ERROR_CARD;
+        }
+        deal.getBoard().prepare();
+        return Deal.OK;
+    }
+
+    /**
+     * Apply the names record, the String objects stay the same for all
+     * following deals so the encoders can reuse their bytes
+     */
+    private void readNames(ByteBuffer input, int position) throws IOException {
+        System.arraycopy(defaultNames, 0, names, 0, names.length);
+        int end = position + 5 + input.getInt(position + 1);
+        int next = position + 5;
+        if (next >= end) {
+            throw new IOException("Broken names record at " + position);
+        }
+        int count = Math.min(input.get(next++) & 0xFF, names.length);
+        for (int i = 0; i < count; i++) {
+            if (next >= end) {
+                throw new IOException("Broken names record at " + position);
+            }
+            int length = input.get(next++) & 0xFF;
+            if (next + length > end) {
+                throw new IOException("Broken names record at " + position);
+            }
+            byte[] name = new byte[length];
+            for (int b = 0; b < length; b++) {
+                name[b] = input.get(next + b);
+            }
+            names[i] = new String(name, StandardCharsets.UTF_8);
+            next += length;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.stars.io;
+
+import com.stars.Constants;
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import com.stars.evaluation.Combinations;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Byte level parser of the input line
+ *
+ * Decodes the line straight into packed cards of the reused Deal:
+ * HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd
+ *
+ * The hands have 4, 5 or 6 cards for 4, 5 and 6 card Omaha,
+ * all hands of the line have the same number of cards. An empty card from a
+ * leading or doubled dash counts like in the 4 card format, where it made a
+ * 4 card hand a hand error, so a 5 or 6 card hand with one is a hand error too.
+ * The board label is matched ignoring the case, the names of the hands are kept as given.
+ * Errors are reported with the status of the deal instead of exceptions.
+ * The numbers of cards of the first hand and the board are checked first,
+ * then the cards of the first hand and of the board, then every other hand
+ * in the order of the line, its number of cards before its cards.
+ * Not thread safe, each worker uses its own parser.
+ */
+public class DealParser {
+    private static final byte[] BOARD = Constants.BOARD.getBytes(StandardCharsets.UTF_8);
+
+    private static final int MAX_TOKENS = Constants.MAX_PLAYERS + 1;
+
+    private final int[] tokenStart = new int[MAX_TOKENS];
+    private final int[] tokenColon = new int[MAX_TOKENS];
+    private final int[] tokenEnd = new int[MAX_TOKENS];
+
+    private final byte[][] nameBytes = new byte[Constants.MAX_PLAYERS][];
+    private final String[] names = new String[Constants.MAX_PLAYERS];
+
+    /**
+     * Parse the line into the deal
+     *
+     * @param input line bytes
+     * @param start first byte of the line
+     * @param end end of the line without the line separator
+     * @param deal Deal to fill in
+     * @return status of the deal
+     */
+    public int parse(ByteBuffer input, int start, int end, Deal deal) {
+        int status = parseDeal(input, start, end, deal);
+        deal.setStatus(status);
+        return status;
+    }
+
+    private int parseDeal(ByteBuffer input, int start, int end, Deal deal) {
+        int tokens = 0;
+        int board = -1;
+        int position = start;
+        while (true) {
+            while (position < end && isSeparator(input.get(position))) {
+                position++;
+            }
+            if (position == end) {
+                break;
+            }
+            int colon = -1;
+            int tokenBegin = position;
+            while (position < end && !isSeparator(input.get(position))) {
+                if (colon < 0 && input.get(position) == ':') {
+                    colon = position;
+                }
+                position++;
+            }
+            if (colon < 0 || tokens == MAX_TOKENS) {
+                return Deal.ERROR_HAND;
+            }
+            if (isBoard(input, tokenBegin, colon)) {
+                if (board >= 0) {
+                    return Deal.ERROR_HAND;
+                }
+                board = tokens;
+            }
+            tokenStart[tokens] = tokenBegin;
+            tokenColon[tokens] = colon;
+            tokenEnd[tokens] = position;
+            tokens++;
+        }
+
+        int players = tokens - 1;
+        if (board < 0 || players < Constants.MIN_PLAYERS || players > Constants.MAX_PLAYERS) {
+            return Deal.ERROR_HAND;
+        }
+
+        Hand[] hands = deal.getHands();
+        int holeCards = 0;
+        int player = 0;
+        for (int token = 0; token < tokens; token++) {
+            if (token == board) {
+                continue;
+            }
+            int count = countCards(input, tokenColon[token] + 1, tokenEnd[token]);
+            if (player == 0) {
+                holeCards = count;
+                if (countCards(input, tokenColon[board] + 1, tokenEnd[board]) != BOARD_CARDS) {
+                    return Deal.ERROR_HAND;
+                }
+            }
+            if (count != holeCards || !Combinations.isVariant(count)
+                    || (count > HOLE_CARDS && hasEmptyCard(input, tokenColon[token] + 1, tokenEnd[token]))) {
+                return Deal.ERROR_HAND;
+            }
+            Hand hand = hands[player];
+            int status = parseCards(input, tokenColon[token] + 1, tokenEnd[token], hand.setHoleCards(holeCards), holeCards);
+            if (status == Deal.OK && player == 0) {
+                status = parseCards(input, tokenColon[board] + 1, tokenEnd[board], deal.getBoard().getCards(), BOARD_CARDS);
+            }
+            if (status != Deal.OK) {
+                return status;
+            }
+            hand.setName(name(player, input, tokenStart[token], tokenColon[token]));
+            player++;
+        }
+        deal.setPlayers(players);
+
+        if (hasDuplicates(deal)) {
+            return Deal.ERROR_CARD;
+        }
+        deal.getBoard().prepare();
+        return Deal.OK;
+    }
+
+    /**
+     * Parse dash separated cards
+     * Trailing empty cards are ignored the same way String.split does.
+     *
+     * @return status
+     */
+    private int parseCards(ByteBuffer input, int start, int end, int[] cards, int expected) {
+        if (countCards(input, start, end) != expected) {
+            return Deal.ERROR_HAND;
+        }
+        while (end > start && input.get(end - 1) == '-') {
+            end--;
+        }
+
+        int card = 0;
+        int cardStart = start;
+        for (int position = start; position <= end; position++) {
+            if (position == end || input.get(position) == '-') {
+                int code = (position - cardStart == 2)
+                        ? PackedCard.parse(input.get(cardStart) & 0xFF, input.get(cardStart + 1) & 0xFF)
+                        : PackedCard.INVALID;
+                if (code == PackedCard.INVALID) {
+                    return Deal.ERROR_CARD;
+                }
+                cards[card++] = code;
+                cardStart = position + 1;
+            }
+        }
+        return Deal.OK;
+    }
+
+    /**
+     * Number of dash separated cards without the trailing empty ones
+     */
+    private static int countCards(ByteBuffer input, int start, int end) {
+        while (end > start && input.get(end - 1) == '-') {
+            end--;
+        }
+        int count = (end > start) ? 1 : 0;
+        for (int position = start; position < end; position++) {
+            if (input.get(position) == '-') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Whether a card is empty, from a leading or doubled dash
+     */
+    private static boolean hasEmptyCard(ByteBuffer input, int start, int end) {
+        while (end > start && input.get(end - 1) == '-') {
+            end--;
+        }
+        for (int position = start; position < end; position++) {
+            if (input.get(position) == '-' && (position == start || input.get(position - 1) == '-')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasDuplicates(Deal deal) {
+        long seen = 0;
+        for (int card : deal.getBoard().getCards()) {
+            seen |= 1L << PackedCard.index(card);
+        }
+        int count = BOARD_CARDS;
+        Hand[] hands = deal.getHands();
+        for (int player = 0; player < deal.getPlayers(); player++) {
+            for (int card : hands[player].getHand()) {
+                seen |= 1L << PackedCard.index(card);
+                count++;
+            }
+        }
+        return Long.bitCount(seen) != count;
+    }
+
+    /**
+     * Name of the hand
+     * The String is reused while the same name repeats at the same position.
+     */
+    private String name(int player, ByteBuffer input, int start, int end) {
+        byte[] cached = nameBytes[player];
+        int length = end - start;
+        boolean same = cached != null && cached.length == length;
+        for (int i = 0; same && i < length; i++) {
+            same = cached[i] == input.get(start + i);
+        }
+        if (!same) {
+            cached = new byte[length];
+            for (int i = 0; i < length; i++) {
+                cached[i] = input.get(start + i);
+            }
+            nameBytes[player] = cached;
+            names[player] = new String(cached, StandardCharsets.UTF_8);
+        }
+        return names[player];
+    }
+
+    /**
+     * Board label in any case, board: and BOARD: are accepted as before
+     * The label only has letters, setting the lower case bit ignores their case.
+     */
+    private boolean isBoard(ByteBuffer input, int start, int end) {
+        if (end - start != BOARD.length) {
+            return false;
+        }
+        for (int i = 0; i < BOARD.length; i++) {
+            if ((input.get(start + i) | 0x20) != (BOARD[i] | 0x20)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSeparator(byte symbol) {
+        return symbol == ' ' || symbol == '\t' || symbol == '\r' || symbol == '\n' || symbol == 0x0B || symbol == '\f';
+    }
+}
@@ -0,0 +1,99 @@
+package com.stars.io;
+
+import com.stars.Constants;
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Canonical text of a deal
+ *
+ * Renders the hands in order and the board last:
+ * HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd
+ * Cards that are not in the deck are rendered as ??.
+ * Not thread safe, the bytes are reused.
+ */
+public class DealText {
+    private static final byte[] BOARD = (Constants.BOARD + ":").getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] UNKNOWN = {'?', '?'};
+
+    private byte[] bytes = new byte[128];
+    private int length;
+
+    private final String[] names = new String[Deal.MAX_HANDS];
+    private final byte[][] nameBytes = new byte[Deal.MAX_HANDS][];
+
+    /**
+     * Render the deal
+     *
+     * @param deal deal with names and cards
+     * @return length of the text
+     */
+    public int render(Deal deal) {
+        length = 0;
+        for (int player = 0; player < deal.getPlayers(); player++) {
+            append(name(deal, player));
+            append((byte) ':');
+            cards(deal.getHands()[player].getHand());
+            append((byte) ' ');
+        }
+        append(BOARD);
+        cards(deal.getBoard().getCards());
+        return length;
+    }
+
+    /**
+     * Text of the last rendered deal, from 0 to its length
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    private void cards(int[] cards) {
+        for (int i = 0; i < cards.length; i++) {
+            if (i > 0) {
+                append((byte) '-');
+            }
+            if (PackedCard.isValid(cards[i])) {
+                append((byte) PackedCard.rankChar(cards[i]));
+                append((byte) PackedCard.suitChar(cards[i]));
+            } else {
+                append(UNKNOWN);
+            }
+        }
+    }
+
+    private byte[] name(Deal deal, int player) {
+        String name = deal.getHands()[player].getName();
+        if (names[player] != name) {
+            names[player] = name;
+            nameBytes[player] = name.getBytes(StandardCharsets.UTF_8);
+        }
+        return nameBytes[player];
+    }
+
+    private void append(byte[] data) {
+        ensure(data.length);
+        System.arraycopy(data, 0, bytes, length, data.length);
+        length += data.length;
+    }
+
+    private void append(byte symbol) {
+        ensure(1);
+        bytes[length++] = symbol;
+    }
+
+    private void ensure(int size) {
+        if (length + size > bytes.length) {
+            byte[] larger = new byte[Math.max(length + size, bytes.length * 2)];
+            System.arraycopy(bytes, 0, larger, 0, length);
+            bytes = larger;
+        }
+    }
+}
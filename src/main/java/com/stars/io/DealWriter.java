@@ -0,0 +1,176 @@
+package com.stars.io;
+
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static com.stars.evaluation.Combinations.BOARD_CARDS;
+import static com.stars.evaluation.Combinations.HOLE_CARDS;
+
+/**
+ * Writer of the binary deal records
+ *
+ * Packs the cards of parsed deals into a reusable byte buffer. A names record
+ * is written only when the names differ from the previous deal, so a stream
+ * of deals between the same players costs about 11 bytes per heads up deal.
+ * Not thread safe.
+ *
+ * @see BinaryDeals
+ */
+public class DealWriter {
+    private static final int MAX_NAME = 0xFF;
+
+    private byte[] buffer;
+    private int size;
+
+    private final String[] names = new String[Deal.MAX_HANDS];
+    private final byte[][] nameBytes = new byte[Deal.MAX_HANDS][];
+    private int namesWritten = -1;
+
+    /**
+     * @param capacity initial size of the buffer
+     */
+    public DealWriter(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    /**
+     * Append the file header
+     */
+    public void writeHeader() {
+        append(BinaryDeals.header(BinaryDeals.DEALS_MAGIC), 0, BinaryDeals.HEADER);
+    }
+
+    /**
+     * Append the deal record, preceded by a names record if the names changed
+     *
+     * @param deal parsed deal with status OK
+     * @return false if a name is longer than 255 bytes, nothing is written then
+     */
+    public boolean writeDeal(Deal deal) {
+        int players = deal.getPlayers();
+        Hand[] hands = deal.getHands();
+        boolean changed = namesWritten != players;
+        for (int i = 0; i < players; i++) {
+            String name = hands[i].getName();
+            if (names[i] != name) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > MAX_NAME) {
+                    namesWritten = -1;
+                    return false;
+                }
+                changed |= !name.equals(names[i]);
+                names[i] = name;
+                nameBytes[i] = bytes;
+            }
+        }
+        if (changed) {
+            writeNames(players);
+        }
+
+        int holeCards = deal.getHoleCards();
+        ensure(2 + BinaryDeals.cardBytes(players, holeCards));
+        if (holeCards == HOLE_CARDS) {
+            buffer[size++] = (byte) (BinaryDeals.DEAL << 4 | players);
+        } else {
+            buffer[size++] = (byte) (BinaryDeals.VARIANT_DEAL << 4 | players);
+            buffer[size++] = (byte) holeCards;
+        }
+        long bits = 0;
+        int count = 0;
+        for (int i = 0; i < BOARD_CARDS + players * holeCards; i++) {
+            int card = (i < BOARD_CARDS) ? deal.getBoard().getCards()[i]
+                    : hands[(i - BOARD_CARDS) / holeCards].getHand()[(i - BOARD_CARDS) % holeCards];
+            bits = (bits << BinaryDeals.CARD_BITS) | PackedCard.index(card);
+            count += BinaryDeals.CARD_BITS;
+            while (count >= 8) {
+                count -= 8;
+                buffer[size++] = (byte) (bits >>> count);
+            }
+        }
+        if (count > 0) {
+            buffer[size++] = (byte) (bits << (8 - count));
+        }
+        return true;
+    }
+
+    /**
+     * Append a raw record with the text of the line
+     *
+     * @param input input bytes
+     * @param start first byte of the line
+     * @param end end of the line without the line separator
+     */
+    public void writeRaw(ByteBuffer input, int start, int end) {
+        ensure(5 + end - start);
+        buffer[size++] = (byte) (BinaryDeals.RAW << 4);
+        putInt(end - start);
+        for (int position = start; position < end; position++) {
+            buffer[size++] = input.get(position);
+        }
+    }
+
+    /**
+     * Bytes waiting to be written
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Write all records and clear the buffer
+     *
+     * @param channel output
+     * @throws IOException on write error
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(buffer, 0, size);
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        size = 0;
+    }
+
+    private void writeNames(int players) {
+        int length = 1;
+        for (int i = 0; i < players; i++) {
+            length += 1 + nameBytes[i].length;
+        }
+        ensure(5 + length);
+        buffer[size++] = (byte) (BinaryDeals.NAMES << 4);
+        putInt(length);
+        buffer[size++] = (byte) players;
+        for (int i = 0; i < players; i++) {
+            buffer[size++] = (byte) nameBytes[i].length;
+            System.arraycopy(nameBytes[i], 0, buffer, size, nameBytes[i].length);
+            size += nameBytes[i].length;
+        }
+        namesWritten = players;
+    }
+
+    private void putInt(int value) {
+        buffer[size++] = (byte) (value >>> 24);
+        buffer[size++] = (byte) (value >>> 16);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void append(byte[] data, int offset, int length) {
+        ensure(length);
+        System.arraycopy(data, offset, buffer, size, length);
+        size += length;
+    }
+
+    private void ensure(int length) {
+        if (size + length > buffer.length) {
+            byte[] larger = new byte[Math.max(size + length, buffer.length * 2)];
+            System.arraycopy(buffer, 0, larger, 0, size);
+            buffer = larger;
+        }
+    }
+}
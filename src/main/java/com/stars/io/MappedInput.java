@@ -0,0 +1,129 @@
+package com.stars.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory mapped input file
+ *
+ * The file is mapped in windows that always end with a complete line,
+ * so files of any size can be read without copying the data.
+ * Lines end with \n, \r\n or \r like in BufferedReader.
+ */
+public class MappedInput implements Closeable {
+    /**
+     * Maximum size of one mapped window
+     */
+    static final int WINDOW = 1 << 26;
+
+    private final FileChannel channel;
+    private final long size;
+    private long position;
+
+    /**
+     * @param path input file
+     * @throws IOException if the file can not be opened
+     */
+    public MappedInput(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+    }
+
+    /**
+     * Map the next window
+     *
+     * @return buffer with complete lines from 0 to its limit, null at the end of the file
+     * @throws IOException on read error or a line longer than the window
+     */
+    public ByteBuffer next() throws IOException {
+        if (position >= size) {
+            return null;
+        }
+        int length = (int) Math.min(WINDOW, size - position);
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        int limit = length;
+        if (position + length < size) {
+            limit = lastLineEnd(window, length);
+            if (limit == 0) {
+                throw new IOException("Line longer than " + WINDOW + " bytes at " + position);
+            }
+        }
+        window.limit(limit);
+        position += limit;
+        return window;
+    }
+
+    /**
+     * Find the end of the line
+     *
+     * @param buffer input
+     * @param from first byte of the line
+     * @param limit end of the data
+     * @return position of the line separator or limit
+     */
+    public static int lineEnd(ByteBuffer buffer, int from, int limit) {
+        for (int position = from; position < limit; position++) {
+            byte symbol = buffer.get(position);
+            if (symbol == '\n' || symbol == '\r') {
+                return position;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Skip the line separator
+     *
+     * @param buffer input
+     * @param lineEnd position returned by {@link #lineEnd}
+     * @param limit end of the data
+     * @return first byte of the next line
+     */
+    public static int nextLine(ByteBuffer buffer, int lineEnd, int limit) {
+        if (lineEnd < limit && buffer.get(lineEnd) == '\r' && lineEnd + 1 < limit && buffer.get(lineEnd + 1) == '\n') {
+            return lineEnd + 2;
+        }
+        return lineEnd + 1;
+    }
+
+    /**
+     * Find the first byte after a \n at or after the position
+     *
+     * @param buffer input
+     * @param from position to start from
+     * @param limit end of the data
+     * @return first byte of the line or limit
+     */
+    public static int nextLineStart(ByteBuffer buffer, int from, int limit) {
+        for (int position = from; position < limit; position++) {
+            if (buffer.get(position) == '\n') {
+                return position + 1;
+            }
+        }
+        return limit;
+    }
+
+    private static int lastLineEnd(ByteBuffer buffer, int length) {
+        for (int position = length - 1; position >= 0; position--) {
+            if (buffer.get(position) == '\n') {
+                return position + 1;
+            }
+        }
+        for (int position = length - 1; position >= 0; position--) {
+            if (buffer.get(position) == '\r') {
+                return position + 1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
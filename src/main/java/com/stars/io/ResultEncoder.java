@@ -0,0 +1,254 @@
+package com.stars.io;
+
+import com.stars.HandEnum;
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.evaluation.HiEvaluator;
+import com.stars.evaluation.LoEvaluator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output encoder
+ *
+ * Renders the results of evaluated deals straight into a reusable byte buffer:
+ * <pre>
+ * HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd
+ * =&gt; HandB wins Hi (Three of a Kind); HandB wins Lo (7652A)
+ * </pre>
+ * Category names and Low hands come from precomputed byte tables.
+ * In binary mode every deal is a fixed size result record instead,
+ * see {@link BinaryDeals}.
+ * Not thread safe, each worker uses its own encoder.
+ */
+public class ResultEncoder {
+    private static final byte[] ARROW = bytes("\n=> ");
+    private static final byte[] ERROR_HAND = bytes(" Error in hand/board");
+    private static final byte[] ERROR_CARD = bytes(" Error in card");
+    private static final byte[] SEPARATOR = bytes("; ");
+    private static final byte[] NO_LOW = bytes("No hand qualified for Low");
+    private static final byte[] WINS_HI = bytes(" wins Hi (");
+    private static final byte[] WINS_LO = bytes(" wins Lo (");
+    private static final byte[] SPLIT_POT_HI = bytes("Split Pot Hi (");
+    private static final byte[] SPLIT_POT_LO = bytes("Split Pot Lo (");
+    private static final byte[] SPLIT_HI = bytes(" split Hi (");
+    private static final byte[] SPLIT_LO = bytes(" split Lo (");
+    private static final byte[] NAME_SEPARATOR = bytes(", ");
+    private static final byte[] LINE_SEPARATOR = bytes(System.lineSeparator());
+
+    private static final byte[][] CATEGORIES = new byte[HandEnum.values().length + 1][];
+    private static final byte[][] LOWS = new byte[256][];
+
+    static {
+        for (HandEnum hand : HandEnum.values()) {
+            CATEGORIES[hand.getRank()] = bytes(hand.getDescription());
+        }
+        for (int low = 0; low < LOWS.length; low++) {
+            if (LoEvaluator.evaluate(low) != LoEvaluator.NO_LOW) {
+                LOWS[low] = bytes(LoEvaluator.toString(low));
+            }
+        }
+    }
+
+    private final boolean binary;
+    private byte[] buffer;
+    private int size;
+
+    private final String[] names = new String[Deal.MAX_HANDS];
+    private final byte[][] nameBytes = new byte[Deal.MAX_HANDS][];
+
+    /**
+     * @param capacity initial size of the buffer
+     */
+    public ResultEncoder(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * @param capacity initial size of the buffer
+     * @param binary true to encode result records instead of text
+     */
+    public ResultEncoder(int capacity, boolean binary) {
+        this.binary = binary;
+        buffer = new byte[capacity];
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Render the result of the evaluated deal
+     * The line is followed by the result and ends with a single \n.
+     *
+     * @param input input bytes
+     * @param start first byte of the line
+     * @param end end of the line without the line separator
+     * @param deal evaluated Deal
+     */
+    public void encode(ByteBuffer input, int start, int end, Deal deal) {
+        if (binary) {
+            encodeRecord(deal);
+            return;
+        }
+        ensure(end - start);
+        for (int position = start; position < end; position++) {
+            buffer[size++] = input.get(position);
+        }
+        append(ARROW);
+
+        if (deal.getStatus() == Deal.ERROR_HAND) {
+            append(ERROR_HAND);
+        } else if (deal.getStatus() == Deal.ERROR_CARD) {
+            append(ERROR_CARD);
+        } else {
+            Hand[] hands = deal.getHands();
+            encodeWinners(deal, deal.getHiWinners(), WINS_HI, SPLIT_POT_HI, SPLIT_HI,
+                    CATEGORIES[deal.getHiScore() >>> HiEvaluator.CATEGORY_SHIFT]);
+            append(SEPARATOR);
+            int loWinners = deal.getLoWinners();
+            if (loWinners == 0) {
+                append(NO_LOW);
+            } else {
+                encodeWinners(deal, loWinners, WINS_LO, SPLIT_POT_LO, SPLIT_LO,
+                        LOWS[hands[Integer.numberOfTrailingZeros(loWinners)].getLoHand()]);
+            }
+        }
+        ensure(1);
+        buffer[size++] = '\n';
+    }
+
+    /**
+     * Append the result record of the evaluated deal
+     * Status, players, Hi and Lo winner bits, Hi category and Low mask.
+     *
+     * @param deal evaluated Deal
+     */
+    public void encodeRecord(Deal deal) {
+        ensure(BinaryDeals.RESULT_RECORD);
+        if (deal.getStatus() != Deal.OK) {
+            buffer[size++] = (byte) deal.getStatus();
+            for (int i = 1; i < BinaryDeals.RESULT_RECORD; i++) {
+                buffer[size++] = 0;
+            }
+            return;
+        }
+        int hiWinners = deal.getHiWinners();
+        int loWinners = deal.getLoWinners();
+        buffer[size++] = Deal.OK;
+        buffer[size++] = (byte) deal.getPlayers();
+        buffer[size++] = (byte) (hiWinners >>> 8);
+        buffer[size++] = (byte) hiWinners;
+        buffer[size++] = (byte) (loWinners >>> 8);
+        buffer[size++] = (byte) loWinners;
+        buffer[size++] = (byte) (deal.getHiScore() >>> HiEvaluator.CATEGORY_SHIFT);
+        buffer[size++] = (byte) (loWinners == 0 ? 0
+                : deal.getHands()[Integer.numberOfTrailingZeros(loWinners)].getLoHand());
+    }
+
+    /**
+     * Append the file header of the result records
+     */
+    public void header() {
+        append(BinaryDeals.header(BinaryDeals.RESULTS_MAGIC));
+    }
+
+    /**
+     * Append the platform line separator, nothing in binary mode
+     */
+    public void newLine() {
+        if (!binary) {
+            append(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Write all rendered bytes and clear the buffer
+     *
+     * @param channel output
+     * @throws IOException on write error
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(buffer, 0, size);
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        size = 0;
+    }
+
+    /**
+     * Clear the buffer
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Describe the winners of the pot
+     *
+     * <pre>
+     * HandA wins Hi (Flush)
+     * Split Pot Hi (Flush)                 - all hands share the pot
+     * HandA, HandC split Hi (Flush)        - some of the hands share the pot
+     * </pre>
+     */
+    private void encodeWinners(Deal deal, int winners, byte[] wins, byte[] splitPot, byte[] split, byte[] combination) {
+        int count = Integer.bitCount(winners);
+        if (count == 1) {
+            append(name(deal, Integer.numberOfTrailingZeros(winners)));
+            append(wins);
+        } else if (count == deal.getPlayers()) {
+            append(splitPot);
+        } else {
+            for (int bits = winners; bits != 0; bits &= bits - 1) {
+                if (bits != winners) {
+                    append(NAME_SEPARATOR);
+                }
+                append(name(deal, Integer.numberOfTrailingZeros(bits)));
+            }
+            append(split);
+        }
+        append(combination);
+        ensure(1);
+        buffer[size++] = ')';
+    }
+
+    /**
+     * Name bytes of the hand
+     * The bytes are reused while the parser keeps the same name String.
+     */
+    private byte[] name(Deal deal, int player) {
+        String name = deal.getHands()[player].getName();
+        if (names[player] != name) {
+            names[player] = name;
+            nameBytes[player] = bytes(name);
+        }
+        return nameBytes[player];
+    }
+
+    private void append(byte[] data) {
+        ensure(data.length);
+        System.arraycopy(data, 0, buffer, size, data.length);
+        size += data.length;
+    }
+
+    private void ensure(int length) {
+        if (size + length > buffer.length) {
+            byte[] larger = new byte[Math.max(size + length, buffer.length * 2)];
+            System.arraycopy(buffer, 0, larger, 0, size);
+            buffer = larger;
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,224 @@
+package com.stars.metrics;
+
+import com.stars.HandEnum;
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.evaluation.LoEvaluator;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies of the evaluation pipeline
+ *
+ * Counters are striped (LongAdder) so all workers update them without
+ * contention. Stage latencies are measured only for a sample of the lines,
+ * one in {@link #getSampleInterval()} per worker.
+ * Disabled metrics are simply not created: the pipeline checks for null.
+ */
+public class Metrics implements MetricsMXBean {
+    /**
+     * Parsing of the input line
+     */
+    public static final int PARSE = 0;
+
+    /**
+     * Hi and Lo evaluation of all hands
+     */
+    public static final int EVALUATE = 1;
+
+    /**
+     * Rendering of the result text
+     */
+    public static final int ENCODE = 2;
+
+    /**
+     * Output of a whole chunk of results
+     */
+    public static final int WRITE = 3;
+
+    private static final String[] STAGES = {"parse", "evaluate", "encode", "write"};
+
+    /**
+     * Time one line in 64 by default
+     */
+    public static final int SAMPLE_INTERVAL = 64;
+
+    private final int sampleMask;
+    private final long started = System.nanoTime();
+
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder handErrors = new LongAdder();
+    private final LongAdder cardErrors = new LongAdder();
+    private final LongAdder lowHands = new LongAdder();
+    private final LongAdder[] categories = new LongAdder[HandEnum.values().length + 1];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[STAGES.length];
+
+    public Metrics() {
+        this(SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval time one line in this many, rounded up to a power of two
+     */
+    public Metrics(int sampleInterval) {
+        int interval = Integer.highestOneBit(Math.max(1, sampleInterval));
+        if (interval < sampleInterval) {
+            interval <<= 1;
+        }
+        sampleMask = interval - 1;
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = new LongAdder();
+        }
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Register the metrics in the platform MBean server
+     *
+     * @return name of the MBean
+     * @throws JMException if the registration fails
+     */
+    public ObjectName register() throws JMException {
+        ObjectName name = new ObjectName("com.stars:type=Metrics");
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    public int getSampleInterval() {
+        return sampleMask + 1;
+    }
+
+    /**
+     * Check if the line is sampled
+     *
+     * @param line per worker line counter
+     * @return true if the stages of the line are timed
+     */
+    public boolean isSampled(int line) {
+        return (line & sampleMask) == 0;
+    }
+
+    /**
+     * Record the latency of a stage
+     *
+     * @param stage {@link #PARSE}, {@link #EVALUATE}, {@link #ENCODE} or {@link #WRITE}
+     * @param since System.nanoTime() at the start of the stage
+     * @return System.nanoTime() at the end of the stage
+     */
+    public long record(int stage, long since) {
+        long now = System.nanoTime();
+        latencies[stage].record(now - since);
+        return now;
+    }
+
+    /**
+     * Count the line and the results of the deal
+     *
+     * @param deal evaluated deal
+     * @param length input bytes of the line
+     */
+    public void count(Deal deal, int length) {
+        lines.increment();
+        bytes.add(length);
+        if (deal.getStatus() == Deal.ERROR_HAND) {
+            handErrors.increment();
+        } else if (deal.getStatus() == Deal.ERROR_CARD) {
+            cardErrors.increment();
+        } else {
+            for (int i = 0; i < deal.getPlayers(); i++) {
+                Hand hand = deal.getHands()[i];
+                categories[hand.getRank().getRank()].increment();
+                if (hand.getLoScore() != LoEvaluator.NO_LOW) {
+                    lowHands.increment();
+                }
+            }
+        }
+    }
+
+    public LatencyHistogram getLatency(int stage) {
+        return latencies[stage];
+    }
+
+    @Override
+    public long getLines() {
+        return lines.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getHandErrors() {
+        return handErrors.sum();
+    }
+
+    @Override
+    public long getCardErrors() {
+        return cardErrors.sum();
+    }
+
+    @Override
+    public Map<String, Long> getCategories() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (HandEnum hand : HandEnum.values()) {
+            counts.put(hand.getDescription(), categories[hand.getRank()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getLowHands() {
+        return lowHands.sum();
+    }
+
+    @Override
+    public double getLinesPerSecond() {
+        return getLines() / elapsedSeconds();
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return getBytes() / elapsedSeconds();
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMicros() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (int stage = 0; stage < STAGES.length; stage++) {
+            LatencyHistogram latency = latencies[stage];
+            values.put(STAGES[stage] + ".p50", latency.getPercentile(50) / 1e3);
+            values.put(STAGES[stage] + ".p99", latency.getPercentile(99) / 1e3);
+            values.put(STAGES[stage] + ".p999", latency.getPercentile(99.9) / 1e3);
+            values.put(STAGES[stage] + ".max", latency.getMax() / 1e3);
+        }
+        return values;
+    }
+
+    /**
+     * Name of the stage
+     */
+    public static String stageName(int stage) {
+        return STAGES[stage];
+    }
+
+    /**
+     * Number of stages
+     */
+    public static int stages() {
+        return STAGES.length;
+    }
+
+    private double elapsedSeconds() {
+        return Math.max(1, System.nanoTime() - started) / 1e9;
+    }
+}
@@ -0,0 +1,54 @@
+package com.stars.metrics;
+
+import java.util.Map;
+
+/**
+ * Metrics exported through JMX as com.stars:type=Metrics
+ */
+public interface MetricsMXBean {
+    /**
+     * Evaluated lines and deals, including the ones with errors
+     */
+    long getLines();
+
+    /**
+     * Input bytes of the evaluated lines
+     */
+    long getBytes();
+
+    /**
+     * Lines with error in hand/board
+     */
+    long getHandErrors();
+
+    /**
+     * Lines with error in card
+     */
+    long getCardErrors();
+
+    /**
+     * Hands by their best Hi category
+     */
+    Map<String, Long> getCategories();
+
+    /**
+     * Hands qualified for Low
+     */
+    long getLowHands();
+
+    /**
+     * Lines per second since the start
+     */
+    double getLinesPerSecond();
+
+    /**
+     * Input bytes per second since the start
+     */
+    double getBytesPerSecond();
+
+    /**
+     * Sampled stage latencies in microseconds,
+     * keys are stage.p50, stage.p99, stage.p999 and stage.max
+     */
+    Map<String, Double> getLatencyMicros();
+}
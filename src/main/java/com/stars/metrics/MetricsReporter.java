@@ -0,0 +1,80 @@
+package com.stars.metrics;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic stats line
+ *
+ * Prints the counters, the throughput of the last interval and the sampled
+ * stage latencies, e.g.
+ * [metrics] lines=200000 (+100000, 98765/s, 5.2 MB/s) errors hand=0 card=2 lows=71234 parse p50=0.9us p99=2.1us ...
+ * The last line is printed on close.
+ */
+public class MetricsReporter implements AutoCloseable {
+    private final Metrics metrics;
+    private final PrintStream out;
+    private final ScheduledExecutorService timer;
+
+    private long lastLines;
+    private long lastBytes;
+    private long lastTime = System.nanoTime();
+
+    /**
+     * Start printing the stats line
+     *
+     * @param metrics metrics to report
+     * @param seconds interval, 0 prints only the last line
+     * @param out destination of the lines
+     */
+    public MetricsReporter(Metrics metrics, long seconds, PrintStream out) {
+        this.metrics = metrics;
+        this.out = out;
+        if (seconds > 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleAtFixedRate(this::report, seconds, seconds, TimeUnit.SECONDS);
+        } else {
+            timer = null;
+        }
+    }
+
+    /**
+     * Print one stats line
+     */
+    public synchronized void report() {
+        long now = System.nanoTime();
+        long lines = metrics.getLines();
+        long bytes = metrics.getBytes();
+        double seconds = Math.max(1, now - lastTime) / 1e9;
+        StringBuilder line = new StringBuilder();
+        line.append(String.format(Locale.ROOT, "[metrics] lines=%d (+%d, %.0f/s, %.1f MB/s) errors hand=%d card=%d lows=%d",
+                lines, lines - lastLines, (lines - lastLines) / seconds, (bytes - lastBytes) / seconds / 1e6,
+                metrics.getHandErrors(), metrics.getCardErrors(), metrics.getLowHands()));
+        for (int stage = 0; stage < Metrics.stages(); stage++) {
+            LatencyHistogram latency = metrics.getLatency(stage);
+            if (latency.getCount() > 0) {
+                line.append(String.format(Locale.ROOT, " %s p50=%.1fus p99=%.1fus", Metrics.stageName(stage),
+                        latency.getPercentile(50) / 1e3, latency.getPercentile(99) / 1e3));
+            }
+        }
+        out.println(line);
+        lastLines = lines;
+        lastBytes = bytes;
+        lastTime = now;
+    }
+
+    @Override
+    public void close() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        report();
+    }
+}
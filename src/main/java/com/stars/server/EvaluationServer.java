@@ -0,0 +1,291 @@
+package com.stars.server;
+
+import com.stars.OmahaEvaluator;
+import com.stars.io.MappedInput;
+import com.stars.io.ResultEncoder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Network evaluation server
+ *
+ * TCP: the client sends input lines and gets for every line the same block
+ * as in the output file, the line, the result and an empty line:
+ * <pre>
+ * HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd
+ * =&gt; HandB wins Hi (Three of a Kind); HandB wins Lo (7652A)
+ * </pre>
+ * Requests may be pipelined: all complete lines of one read are evaluated
+ * and their results are sent back with one write, in the order of the lines.
+ * Lines end with \n or \r\n; the last line may end with the connection.
+ *
+ * HTTP: POST /evaluate with the lines as body returns the results the same way.
+ *
+ * Every connection runs on its own thread, a virtual thread when the runtime
+ * supports them, and evaluates with the thread's Processor of the evaluator.
+ */
+public class EvaluationServer implements EvaluationServerMXBean, Closeable {
+    /**
+     * Initial size of the input buffer of a connection
+     */
+    static final int BUFFER = 1 << 16;
+
+    /**
+     * Maximum length of one line or one HTTP request
+     */
+    static final int MAX_REQUEST = 1 << 24;
+
+    /**
+     * Pause after a failed accept, doubled up to {@link #MAX_ACCEPT_PAUSE} while the failures repeat
+     */
+    static final long ACCEPT_PAUSE = 10;
+    static final long MAX_ACCEPT_PAUSE = 1000;
+
+    private final OmahaEvaluator evaluator;
+    private final ExecutorService executor;
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong acceptErrors = new AtomicLong();
+    private ServerSocketChannel tcp;
+    private HttpServer http;
+
+    /**
+     * @param evaluator evaluator shared by all connections
+     */
+    public EvaluationServer(OmahaEvaluator evaluator) {
+        this.evaluator = evaluator;
+        this.executor = newExecutor();
+    }
+
+    /**
+     * Listen for TCP connections
+     *
+     * @param port port, 0 for any free port
+     * @return bound address
+     * @throws IOException if the port can not be bound
+     */
+    public InetSocketAddress startTcp(int port) throws IOException {
+        tcp = ServerSocketChannel.open();
+        tcp.bind(new InetSocketAddress(port));
+        Thread acceptor = new Thread(this::accept, "omaha-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return (InetSocketAddress) tcp.getLocalAddress();
+    }
+
+    /**
+     * Listen for HTTP requests
+     *
+     * @param port port, 0 for any free port
+     * @return bound address
+     * @throws IOException if the port can not be bound
+     */
+    public InetSocketAddress startHttp(int port) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(port), 0);
+        http.createContext("/evaluate", this::exchange);
+        http.setExecutor(executor);
+        http.start();
+        return http.getAddress();
+    }
+
+    /**
+     * Register the state in the platform MBean server
+     *
+     * @return name of the MBean
+     * @throws JMException if the registration fails
+     */
+    public ObjectName register() throws JMException {
+        ObjectName name = new ObjectName("com.stars:type=EvaluationServer");
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    @Override
+    public int getConnections() {
+        return connections.get();
+    }
+
+    @Override
+    public long getAcceptErrors() {
+        return acceptErrors.get();
+    }
+
+    /**
+     * Wait until the server is closed
+     *
+     * @throws InterruptedException if the wait was interrupted
+     */
+    public void await() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (http != null) {
+                http.stop(0);
+            }
+            if (tcp != null) {
+                tcp.close();
+            }
+        } finally {
+            executor.shutdownNow();
+            closed.countDown();
+        }
+    }
+
+    /**
+     * Accept the TCP connections until the server is closed
+     * Failures are counted and retried after a pause growing while they repeat,
+     * so a lasting failure does not spin the acceptor.
+     */
+    private void accept() {
+        long pause = 0;
+        while (tcp.isOpen()) {
+            try {
+                SocketChannel client = tcp.accept();
+                pause = 0;
+                executor.execute(() -> serve(client));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                acceptErrors.incrementAndGet();
+                pause = Math.min(Math.max(pause * 2, ACCEPT_PAUSE), MAX_ACCEPT_PAUSE);
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluate the lines of one connection until the client closes it
+     */
+    private void serve(SocketChannel channel) {
+        connections.incrementAndGet();
+        try (SocketChannel client = channel) {
+            client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ByteBuffer input = ByteBuffer.allocate(BUFFER);
+            ResultEncoder output = new ResultEncoder(BUFFER * 2);
+            while (true) {
+                if (!input.hasRemaining()) {
+                    input = grow(input);
+                }
+                int read = client.read(input);
+                int limit = input.position();
+                int start = evaluate(input, 0, limit, read < 0, output);
+                output.writeTo(client);
+                if (read < 0) {
+                    return;
+                }
+                input.position(start);
+                input.limit(limit);
+                input.compact();
+            }
+        } catch (IOException e) {
+            // the client went away, nothing to answer
+        } finally {
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Answer POST /evaluate
+     */
+    private void exchange(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = exchange.getRequestBody().readNBytes(MAX_REQUEST + 1);
+            if (body.length > MAX_REQUEST) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            ResultEncoder output = new ResultEncoder(body.length * 2 + 64);
+            evaluate(ByteBuffer.wrap(body), 0, body.length, true, output);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream response = exchange.getResponseBody()) {
+                output.writeTo(Channels.newChannel(response));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Evaluate the complete lines
+     *
+     * @param input received bytes
+     * @param start first byte of a line
+     * @param limit end of the received bytes
+     * @param last true if no more bytes follow, the rest is the last line
+     * @param output receives the results
+     * @return first byte of the incomplete line
+     */
+    private int evaluate(ByteBuffer input, int start, int limit, boolean last, ResultEncoder output) {
+        while (start < limit) {
+            int end = MappedInput.lineEnd(input, start, limit);
+            if (!last && (end == limit || (end == limit - 1 && input.get(end) == '\r'))) {
+                break;
+            }
+            evaluator.evaluate(input, start, end, output);
+            output.newLine();
+            start = MappedInput.nextLine(input, end, limit);
+        }
+        return start;
+    }
+
+    private static ByteBuffer grow(ByteBuffer input) throws IOException {
+        if (input.capacity() >= MAX_REQUEST) {
+            throw new IOException("Line longer than " + MAX_REQUEST + " bytes");
+        }
+        ByteBuffer larger = ByteBuffer.allocate(input.capacity() * 2);
+        input.flip();
+        larger.put(input);
+        return larger;
+    }
+
+    /**
+     * Virtual thread per task executor when the runtime has them (Java 21),
+     * otherwise a cached pool of daemon threads
+     */
+    static ExecutorService newExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "omaha-connection-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.stars.server;
+
+/**
+ * State of the evaluation server exported through JMX as com.stars:type=EvaluationServer
+ */
+public interface EvaluationServerMXBean {
+    /**
+     * Open TCP connections
+     */
+    int getConnections();
+
+    /**
+     * Failed TCP accepts, e.g. when the process is out of file descriptors
+     */
+    long getAcceptErrors();
+}
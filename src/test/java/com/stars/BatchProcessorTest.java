@@ -0,0 +1,118 @@
+package com.stars;
+
+import com.stars.cache.DealCache;
+import com.stars.io.BinaryDeals;
+import com.stars.io.DealConverter;
+import com.stars.metrics.Metrics;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Chunked and parallel processing against the results of single lines
+ */
+public class BatchProcessorTest {
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final int LINES = 20_000;
+
+    private static Path input;
+    private static byte[] expected;
+
+    @BeforeClass
+    public static void writeInput() throws IOException {
+        Random random = new Random(42);
+        List<String> deck = new ArrayList<>();
+        for (char rank : "23456789TJQKA".toCharArray()) {
+            for (char suit : "cdhs".toCharArray()) {
+                deck.add("" + rank + suit);
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        StringBuilder results = new StringBuilder();
+        Processor processor = new Processor();
+        for (int i = 0; i < LINES; i++) {
+            Collections.shuffle(deck, random);
+            int hands = 2 + random.nextInt(i % 100 == 0 ? 10 : 5);
+            StringBuilder line = new StringBuilder();
+            int card = 0;
+            for (int hand = 0; hand < hands; hand++) {
+                line.append("Hand").append((char) ('A' + hand)).append(':')
+                        .append(String.join("-", deck.subList(card, card + 4))).append(' ');
+                card += 4;
+            }
+            line.append("Board:").append(String.join("-", deck.subList(card, card + 5)));
+            text.append(line).append('\n');
+            results.append(processor.processLine(line.toString())).append(System.lineSeparator());
+        }
+        input = folder.newFile("input.txt").toPath();
+        Files.write(input, text.toString().getBytes(StandardCharsets.US_ASCII));
+        expected = results.toString().getBytes(StandardCharsets.US_ASCII);
+        assertTrue(expected.length > 4 * BatchProcessor.CHUNK_BYTES);
+    }
+
+    @Test
+    public void singleThreadMatchesTheLines() throws IOException {
+        assertArrayEquals(expected, process(new BatchProcessor(1, null, null, false, false)));
+    }
+
+    @Test
+    public void workersKeepTheInputOrder() throws IOException {
+        assertArrayEquals(expected, process(new BatchProcessor(4, null, null, false, false)));
+    }
+
+    @Test
+    public void batchesAndCacheMatchTheLines() throws IOException {
+        assertArrayEquals(expected, process(new BatchProcessor(4, null, null, false, true)));
+        assertArrayEquals(expected, process(new BatchProcessor(4, null, new DealCache(1024), false, false)));
+    }
+
+    @Test
+    public void metricsCountEveryLine() throws IOException {
+        Metrics metrics = new Metrics();
+        process(new BatchProcessor(4, metrics, null, false, false));
+        assertEquals(LINES, metrics.getLines());
+    }
+
+    @Test
+    public void binaryDealsGiveTheSameResults() throws IOException {
+        Path binary = folder.newFile("input.omhd").toPath();
+        assertEquals(LINES, DealConverter.toBinary(input, binary));
+        assertArrayEquals(expected, process(new BatchProcessor(4, null, null, false, false), binary));
+        assertArrayEquals(expected, process(new BatchProcessor(1, null, null, false, false), binary));
+    }
+
+    @Test
+    public void binaryResultsHaveOneRecordPerLine() throws IOException {
+        byte[] records = process(new BatchProcessor(4, null, null, true, false));
+        assertEquals(BinaryDeals.HEADER + LINES * BinaryDeals.RESULT_RECORD, records.length);
+        assertArrayEquals(records, process(new BatchProcessor(1, null, null, true, false)));
+    }
+
+    private static byte[] process(BatchProcessor processor) throws IOException {
+        return process(processor, input);
+    }
+
+    private static byte[] process(BatchProcessor processor, Path path) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        processor.process(path, Channels.newChannel(output));
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,310 @@
+package com.stars;
+
+import com.stars.cache.DealCache;
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+import com.stars.evaluation.BatchEvaluator;
+import com.stars.evaluation.Combinations;
+import com.stars.evaluation.DealBatch;
+import com.stars.evaluation.DealSession;
+import com.stars.evaluation.HiEvaluator;
+import com.stars.evaluation.LoEvaluator;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Random Omaha deals end to end against a brute force oracle
+ *
+ * The oracle scores all 2 + 3 card combinations of every hand with the plain
+ * 5 card evaluators, which the exhaustive tests check against the reference.
+ * Every deal goes through the optimized paths: the text parser with the board
+ * texture and the cached best triples, the suit isomorphic cache, the street
+ * by street session and, for 4 card deals, the batch evaluators.
+ * The deals run in parallel chunks with their own seeds. 50,000 deals keep
+ * the test at a few seconds, -Domaha.deals=N sets their number for a full run.
+ */
+public class OmahaDifferentialTest {
+    private static final int DEALS = Integer.getInteger("omaha.deals", 50_000);
+    private static final int CHUNK = 10_000;
+    private static final long SEED = 0x5EED;
+
+    @Test
+    public void randomDealsMatchBruteForce() {
+        OmahaEvaluator plain = new OmahaEvaluator();
+        OmahaEvaluator cached = new OmahaEvaluator(null, new DealCache(1 << 16));
+        IntStream.range(0, (DEALS + CHUNK - 1) / CHUNK).parallel().forEach(chunk -> {
+            Checker checker = new Checker(plain, cached, new SplittableRandom(SEED + chunk));
+            for (int i = chunk * CHUNK; i < Math.min(DEALS, (chunk + 1) * CHUNK); i++) {
+                checker.check();
+            }
+            checker.checkBatch();
+        });
+    }
+
+    /**
+     * Deals of one chunk, not thread safe
+     */
+    private static class Checker {
+        private static final int BATCH = 64;
+
+        private final OmahaEvaluator plain;
+        private final OmahaEvaluator cached;
+        private final SplittableRandom random;
+        private final BatchEvaluator[] batchEvaluators = {BatchEvaluator.scalar(), BatchEvaluator.create()};
+
+        private final int[] deck = new int[PackedCard.DECK_SIZE];
+        private final int[] suits = {0, 1, 2, 3};
+        private final int[] hiScores = new int[Deal.MAX_HANDS];
+        private final int[] loScores = new int[Deal.MAX_HANDS];
+        private final EvaluationResult result = new EvaluationResult();
+
+        private final Deal deal = new Deal();
+        private final DealBatch batch = new DealBatch(BATCH);
+        private final int[] batchHiScores = new int[BATCH * DealBatch.HANDS];
+        private final int[] batchLoScores = new int[BATCH * DealBatch.HANDS];
+        private final String[] batchLines = new String[BATCH];
+
+        Checker(OmahaEvaluator plain, OmahaEvaluator cached, SplittableRandom random) {
+            this.plain = plain;
+            this.cached = cached;
+            this.random = random;
+            for (int i = 0; i < deck.length; i++) {
+                deck[i] = PackedCard.fromIndex(i);
+            }
+        }
+
+        void check() {
+            int holeCards = Combinations.MIN_HOLE_CARDS
+                    + random.nextInt(Combinations.MAX_HOLE_CARDS - Combinations.MIN_HOLE_CARDS + 1);
+            int maxPlayers = Math.min(Constants.MAX_PLAYERS, (PackedCard.DECK_SIZE - Combinations.BOARD_CARDS) / holeCards);
+            int players = Constants.MIN_PLAYERS + random.nextInt(maxPlayers - Constants.MIN_PLAYERS + 1);
+            shuffle(deck, players * holeCards + Combinations.BOARD_CARDS);
+            int[][] hands = new int[players][holeCards];
+            int[] board = new int[Combinations.BOARD_CARDS];
+            for (int player = 0; player < players; player++) {
+                System.arraycopy(deck, player * holeCards, hands[player], 0, holeCards);
+            }
+            System.arraycopy(deck, players * holeCards, board, 0, board.length);
+            String line = line(hands, board);
+            try {
+                bruteForce(hands, board);
+
+                byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+                plain.evaluate(bytes, result);
+                assertResult(hands, board);
+
+                cached.evaluate(hands, board, result);
+                assertResult(hands, board);
+                shuffle(suits, suits.length);
+                int[][] isomorphic = new int[players][];
+                for (int player = 0; player < players; player++) {
+                    isomorphic[player] = isomorphic(hands[player]);
+                }
+                int[] isomorphicBoard = isomorphic(board);
+                cached.evaluate(isomorphic, isomorphicBoard, result);
+                assertResult(isomorphic, isomorphicBoard);
+
+                DealSession session = new DealSession(hands);
+                session.deal(board[0], board[1], board[2]);
+                session.deal(board[3]);
+                session.deal(board[4]);
+                for (int player = 0; player < players; player++) {
+                    assertEquals(hiScores[player], session.getHand(player).getHiScore());
+                    assertEquals(loScores[player], session.getHand(player).getLoScore());
+                }
+                assertEquals(hiWinners(players), session.getHiWinners());
+                assertEquals(loWinners(players), session.getLoWinners());
+            } catch (AssertionError | Exception e) {
+                throw new AssertionError(line, e);
+            }
+
+            if (holeCards == Combinations.HOLE_CARDS) {
+                for (int player = 0; player < players; player++) {
+                    System.arraycopy(hands[player], 0, deal.getHands()[player].setHoleCards(holeCards), 0, holeCards);
+                }
+                System.arraycopy(board, 0, deal.getBoard().getCards(), 0, board.length);
+                deal.setPlayers(players);
+                int index = batch.add(deal);
+                System.arraycopy(hiScores, 0, batchHiScores, index * DealBatch.HANDS, players);
+                System.arraycopy(loScores, 0, batchLoScores, index * DealBatch.HANDS, players);
+                batchLines[index] = line;
+                if (batch.isFull()) {
+                    checkBatch();
+                }
+            }
+        }
+
+        /**
+         * Evaluate the collected 4 card deals by every batch evaluator
+         */
+        void checkBatch() {
+            for (BatchEvaluator evaluator : batchEvaluators) {
+                evaluator.evaluate(batch);
+                for (int index = 0; index < batch.getSize(); index++) {
+                    String message = evaluator.getName() + " " + batchLines[index];
+                    int players = batch.getPlayers()[index];
+                    System.arraycopy(batchHiScores, index * DealBatch.HANDS, hiScores, 0, players);
+                    System.arraycopy(batchLoScores, index * DealBatch.HANDS, loScores, 0, players);
+                    for (int player = 0; player < players; player++) {
+                        assertEquals(message, hiScores[player], batch.getHiScore(index, player));
+                        assertEquals(message, loScores[player], batch.getLoScore(index, player));
+                    }
+                    assertEquals(message, hiWinners(players), batch.getHiWinners(index));
+                    assertEquals(message, loWinners(players), batch.getLoWinners(index));
+                }
+            }
+            batch.clear();
+        }
+
+        /**
+         * Best Hi and Lo of every hand over all combinations
+         */
+        private void bruteForce(int[][] hands, int[] board) {
+            for (int player = 0; player < hands.length; player++) {
+                int[] hand = hands[player];
+                int hi = 0;
+                int lo = LoEvaluator.NO_LOW;
+                for (int first = 0; first < hand.length; first++) {
+                    for (int second = first + 1; second < hand.length; second++) {
+                        for (int a = 0; a < board.length; a++) {
+                            for (int b = a + 1; b < board.length; b++) {
+                                for (int c = b + 1; c < board.length; c++) {
+                                    hi = Math.max(hi, HiEvaluator.evaluate(hand[first], hand[second], board[a], board[b], board[c]));
+                                    lo = Math.max(lo, LoEvaluator.evaluate(low(hand[first], hand[second], board[a], board[b], board[c])));
+                                }
+                            }
+                        }
+                    }
+                }
+                hiScores[player] = hi;
+                loScores[player] = lo;
+            }
+        }
+
+        private void assertResult(int[][] hands, int[] board) {
+            assertEquals(Deal.OK, result.getStatus());
+            assertEquals(hands.length, result.getPlayers());
+            for (int player = 0; player < hands.length; player++) {
+                assertEquals(hiScores[player], result.getHiScore(player));
+                int[] cards = bestCards(hands[player], board, player, false);
+                assertEquals(hiScores[player], HiEvaluator.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]));
+
+                assertEquals(loScores[player], result.getLoScore(player));
+                if (loScores[player] != LoEvaluator.NO_LOW) {
+                    cards = bestCards(hands[player], board, player, true);
+                    int low = low(cards[0], cards[1], cards[2], cards[3], cards[4]);
+                    assertEquals(low, result.getLoMask(player));
+                    assertEquals(loScores[player], LoEvaluator.evaluate(low));
+                }
+            }
+            assertEquals(hiWinners(hands.length), result.getHiWinners());
+            assertEquals(loWinners(hands.length), result.getLoWinners());
+        }
+
+        /**
+         * Best cards of the result, checked to be 2 different hole cards and 3 different board cards
+         */
+        private int[] bestCards(int[] hand, int[] board, int player, boolean low) {
+            int[] cards = new int[5];
+            long used = 0;
+            for (int i = 0; i < cards.length; i++) {
+                cards[i] = low ? result.getLoCard(player, i) : result.getHiCard(player, i);
+                assertTrue(contains(i < 2 ? hand : board, cards[i]));
+                used |= 1L << PackedCard.index(cards[i]);
+            }
+            assertEquals(cards.length, Long.bitCount(used));
+            return cards;
+        }
+
+        private int hiWinners(int players) {
+            int best = 0;
+            int winners = 0;
+            for (int player = 0; player < players; player++) {
+                if (hiScores[player] > best) {
+                    best = hiScores[player];
+                    winners = 0;
+                }
+                if (hiScores[player] == best) {
+                    winners |= 1 << player;
+                }
+            }
+            return winners;
+        }
+
+        private int loWinners(int players) {
+            int best = LoEvaluator.NO_LOW;
+            int winners = 0;
+            for (int player = 0; player < players; player++) {
+                if (loScores[player] > best) {
+                    best = loScores[player];
+                    winners = 0;
+                }
+                if (loScores[player] == best && best != LoEvaluator.NO_LOW) {
+                    winners |= 1 << player;
+                }
+            }
+            return winners;
+        }
+
+        /**
+         * Same cards under the current permutation of the suits, in a random order
+         * Isomorphic deals hit the cache entry of the original deal.
+         */
+        private int[] isomorphic(int[] cards) {
+            int[] copy = new int[cards.length];
+            for (int i = 0; i < cards.length; i++) {
+                copy[i] = PackedCard.of(PackedCard.rank(cards[i]), suits[PackedCard.suit(cards[i])]);
+            }
+            shuffle(copy, copy.length);
+            return copy;
+        }
+
+        /**
+         * Partial Fisher-Yates shuffle of the first count slots
+         */
+        private void shuffle(int[] values, int count) {
+            for (int i = 0; i < count; i++) {
+                int pick = i + random.nextInt(values.length - i);
+                int value = values[pick];
+                values[pick] = values[i];
+                values[i] = value;
+            }
+        }
+
+        private static String line(int[][] hands, int[] board) {
+            StringBuilder line = new StringBuilder();
+            for (int player = 0; player < hands.length; player++) {
+                line.append("Hand").append((char) ('A' + player)).append(':');
+                cards(line, hands[player]).append(' ');
+            }
+            return cards(line.append(Constants.BOARD).append(':'), board).toString();
+        }
+
+        private static StringBuilder cards(StringBuilder line, int[] cards) {
+            for (int i = 0; i < cards.length; i++) {
+                line.append(i > 0 ? "-" : "").append(PackedCard.toString(cards[i]));
+            }
+            return line;
+        }
+
+        private static int low(int c1, int c2, int c3, int c4, int c5) {
+            return PackedCard.lowBit(c1) | PackedCard.lowBit(c2) | PackedCard.lowBit(c3)
+                    | PackedCard.lowBit(c4) | PackedCard.lowBit(c5);
+        }
+
+        private static boolean contains(int[] cards, int card) {
+            for (int value : cards) {
+                if (value == card) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.stars;
+
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+import com.stars.evaluation.LoEvaluator;
+import com.stars.io.ResultEncoder;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Embedded evaluation of packed cards and input lines
+ */
+public class OmahaEvaluatorTest {
+    private static final String LINE = "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d HandC:Qs-Qc-7h-6h Board:Ah-Kh-5s-2s-Qd";
+
+    private final OmahaEvaluator evaluator = new OmahaEvaluator();
+
+    @Test
+    public void packedCardsMatchTheLine() {
+        EvaluationResult packed = evaluator.evaluate(
+                hands("Ac-Kd-Jd-3d", "5c-5d-6c-7d", "Qs-Qc-7h-6h"), cards("Ah-Kh-5s-2s-Qd"));
+        EvaluationResult line = new EvaluationResult();
+        evaluator.evaluate(LINE.getBytes(StandardCharsets.US_ASCII), line);
+
+        assertEquals(Deal.OK, packed.getStatus());
+        assertEquals(3, packed.getPlayers());
+        assertEquals(0b100, packed.getHiWinners());
+        assertEquals(0b110, packed.getLoWinners());
+        assertTrue(packed.isHiWinner(2));
+        assertFalse(packed.isLoWinner(0));
+        assertEquals(HandEnum.TREE_OF_KUND, packed.getHiRank(2));
+        assertEquals(LoEvaluator.NO_LOW, packed.getLoScore(0));
+        assertNull(packed.getName(0));
+        assertEquals("HandC", line.getName(2));
+        for (int hand = 0; hand < 3; hand++) {
+            assertEquals(line.getHiScore(hand), packed.getHiScore(hand));
+            assertEquals(line.getLoScore(hand), packed.getLoScore(hand));
+            assertEquals(line.getLoMask(hand), packed.getLoMask(hand));
+            for (int card = 0; card < 5; card++) {
+                assertEquals(line.getHiCard(hand, card), packed.getHiCard(hand, card));
+            }
+        }
+    }
+
+    @Test
+    public void bestCardsStartWithTheHoleCards() {
+        EvaluationResult result = evaluator.evaluate(hands("Ac-Kd-Jd-3d", "5c-5d-6c-7d"), cards("Ah-Kh-5s-2s-Qd"));
+        assertEquals(PackedCard.parse("5c"), result.getHiCard(1, 0));
+        assertEquals(PackedCard.parse("5d"), result.getHiCard(1, 1));
+        assertEquals(PackedCard.parse("5s"), result.getHiCard(1, 4));
+        int lowRanks = 0;
+        for (int card = 0; card < 5; card++) {
+            lowRanks |= PackedCard.lowBit(result.getLoCard(1, card));
+        }
+        assertEquals(result.getLoMask(1), lowRanks);
+
+        int[] indexes = new int[Deal.MAX_HANDS];
+        assertEquals(2, EvaluationResult.winnerIndexes(0b1010, indexes));
+        assertEquals(1, indexes[0]);
+        assertEquals(3, indexes[1]);
+    }
+
+    @Test
+    public void errorsAreReportedByTheStatus() {
+        String hero = "Ac-Kd-Jd-3d";
+        String villain = "5c-5d-6c-7d";
+        int[] board = cards("Ah-Kh-5s-2s-Qd");
+        assertStatus(Deal.ERROR_HAND, hands(hero), board);
+        assertStatus(Deal.ERROR_HAND, hands(hero, villain), cards("Ah-Kh-5s-2s"));
+        assertStatus(Deal.ERROR_HAND, hands(hero, "5c-5d-6c-7d-8d"), board);
+        assertStatus(Deal.ERROR_CARD, hands(hero, "Ac-5d-6c-7d"), board);
+        assertStatus(Deal.ERROR_CARD, hands(hero, villain), cards("Ah-Kh-5s-2s-Ah"));
+        assertStatus(Deal.ERROR_CARD, hands(hero, villain), new int[] {PackedCard.INVALID, 0, 0, 0, 0});
+        assertStatus(Deal.OK, hands(hero, villain), board);
+        assertStatus(Deal.OK, hands(hero + "-9c-9d", villain + "-Th-Td"), board);
+    }
+
+    @Test
+    public void linesAreEncodedLikeTheOutputFile() {
+        byte[] bytes = LINE.getBytes(StandardCharsets.US_ASCII);
+        ResultEncoder encoder = new ResultEncoder(256);
+        evaluator.evaluate(ByteBuffer.wrap(bytes), 0, bytes.length, encoder);
+        assertEquals(new Processor().processLine(LINE), encoder.toString());
+
+        EvaluationResult result = new EvaluationResult();
+        evaluator.evaluate("HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd".getBytes(StandardCharsets.US_ASCII), result);
+        assertEquals(Deal.ERROR_HAND, result.getStatus());
+        assertEquals(0, result.getPlayers());
+    }
+
+    @Test
+    public void threadsShareTheEvaluator() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            int[][] first = hands("Ac-Kd-Jd-3d", "5c-5d-6c-7d");
+            int[][] second = hands("Ac-Kd-Jd-3d", "5c-5d-6c-6d");
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int task = 0; task < 16; task++) {
+                tasks.add(pool.submit(() -> {
+                    EvaluationResult result = new EvaluationResult();
+                    for (int i = 0; i < 1000; i++) {
+                        evaluator.evaluate(first, cards("Ah-Kh-5s-2s-Qd"), result);
+                        assertEquals(0b10, result.getHiWinners());
+                        evaluator.evaluate(second, cards("Ad-Kh-5s-2d-Qd"), result);
+                        assertEquals(0b01, result.getHiWinners());
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void assertStatus(int status, int[][] hands, int[] board) {
+        assertEquals(status, evaluator.evaluate(hands, board).getStatus());
+    }
+
+    private static int[][] hands(String... hands) {
+        int[][] packed = new int[hands.length][];
+        for (int i = 0; i < hands.length; i++) {
+            packed[i] = cards(hands[i]);
+        }
+        return packed;
+    }
+
+    private static int[] cards(String cards) {
+        String[] symbols = cards.split("-");
+        int[] packed = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            packed[i] = PackedCard.parse(symbols[i]);
+        }
+        return packed;
+    }
+}
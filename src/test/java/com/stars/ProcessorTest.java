@@ -0,0 +1,58 @@
+package com.stars;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Results of whole lines as written to the output file
+ */
+public class ProcessorTest {
+    private final Processor processor = new Processor();
+
+    @Test
+    public void examplesOfTheTask() {
+        assertResult("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd",
+                "HandB wins Hi (Three of a Kind); HandB wins Lo (7652A)");
+        assertResult("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-6d Board:Ad-Kh-5s-2d-Qd",
+                "HandA wins Hi (Flush); No hand qualified for Low");
+        assertResult("HandA:Qc-Jd-Td-3d HandB:Tc-Jc-8h-6d Board:Ad-Kh-Qs-2d-3c",
+                "Split Pot Hi (Straight); HandB wins Lo (8632A)");
+        assertResult("HandA:Qh-4d-Tc-8s HandB:Qc-8c-7d-2h Board:Ad-As-3c-3d-5d",
+                "HandA wins Hi (One Pair); HandB wins Lo (7532A)");
+        assertResult("HandA:Ah-2s-Qd-9S HandB:Ac-2d-6s-Jh Board:Kd-4h-Kh-5s-3c",
+                "HandB wins Hi (Straight); Split Pot Lo (5432A)");
+        assertResult("HandA:Ah-2s-Qd-9S HandB:Ac-2d-As-Jh Board:Kd-4h-Kh-5s-3c",
+                "Split Pot Hi (Straight); Split Pot Lo (5432A)");
+        assertResult("HandA:6d-6c-Kc-4d HandB:Jh-Js-Qs-8h Board:2s-3h-9c-As-Ac",
+                "HandB wins Hi (Two Pair); HandA wins Lo (6432A)");
+        assertResult("HandA:6d-Kh-Ac-4d HandB:Jh-2s-Ah-8h Board:Js-3h-9c-As-6c",
+                "HandB wins Hi (Two Pair); HandB wins Lo (8632A)");
+        assertResult("HandA:Qc-Jd-Td-3d HandB:3s-3h-8h-6d Board:Ad-Kh-Qs-Qd-3c",
+                "HandA wins Hi (Full House); No hand qualified for Low");
+    }
+
+    @Test
+    public void multiWayLinesNameTheSplittingHands() {
+        assertResult("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d HandC:Qs-Qc-7h-6h Board:Ah-Kh-5s-2s-Qd",
+                "HandC wins Hi (Three of a Kind); HandB, HandC split Lo (7652A)");
+        assertResult("P1:2c-3c-Kd-Qd P2:2d-3d-Kh-Qh P3:2h-3h-Ks-Qs P4:Jc-Jd-9h-9s Board:4c-5d-Ts-Th-7c",
+                "P4 wins Hi (Two Pair); P1, P2, P3 split Lo (75432)");
+        assertResult("HandA:2c-3c-Kd-Qd HandB:2d-3d-Kh-Qh HandC:2h-3h-Ks-Qs Board:4c-5d-Ts-Th-7c",
+                "Split Pot Hi (One Pair); Split Pot Lo (75432)");
+    }
+
+    @Test
+    public void tenHandsAtMost() {
+        String hands = "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d HandC:Qs-Qc-7h-6h HandD:2c-2d-9h-9s HandE:3c-4c-8h-Th"
+                + " HandF:Jc-Tc-8s-9c HandG:4d-4h-6d-6s HandH:7s-8c-8d-9d HandI:Td-Ts-3h-3s HandJ:Jh-Js-4s-2h";
+        assertResult(hands + " Board:Ah-Kh-5s-2s-Qd", "HandF wins Hi (Straight); HandE wins Lo (5432A)");
+        assertResult(hands + " HandK:Ad-As-Kc-Ks Board:Ah-Kh-5s-2s-Qd", " Error in hand/board");
+        assertResult("HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd", " Error in hand/board");
+        assertResult("HandA:Ac-Kd-Jd-3d HandB:Ac-5d-6c-7d Board:Ah-Kh-5s-2s-Qd", " Error in card");
+    }
+
+    private void assertResult(String line, String result) {
+        assertEquals(line + "\n=> " + result + "\n", processor.processLine(line));
+    }
+}
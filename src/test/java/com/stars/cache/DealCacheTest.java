@@ -0,0 +1,133 @@
+package com.stars.cache;
+
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import com.stars.evaluation.HandEvaluator;
+import com.stars.evaluation.HiEvaluator;
+import com.stars.evaluation.LoEvaluator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.stars.cache.DealCanonicalizerTest.deal;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Hits of isomorphic deals and LRU eviction of the cache
+ */
+public class DealCacheTest {
+    private final DealCanonicalizer canonicalizer = new DealCanonicalizer();
+
+    @Test
+    public void isomorphicDealHitsWithItsOwnCards() {
+        DealCache cache = new DealCache(1024);
+        Deal deal = deal("Ac-Kd-Jd-3d", "5c-5d-6c-7d", "Ah-Kh-5s-2s-Qd");
+        assertFalse(cache.load(deal, canonicalizer));
+        HandEvaluator.evaluate(deal);
+        cache.store(deal, canonicalizer);
+
+        Deal renamed = deal("3c-Jc-Kc-As", "7c-6s-5c-5s", "Qc-2d-5d-Kh-Ah");
+        assertTrue(cache.load(renamed, canonicalizer));
+        Deal expected = deal("3c-Jc-Kc-As", "7c-6s-5c-5s", "Qc-2d-5d-Kh-Ah");
+        HandEvaluator.evaluate(expected);
+        assertEquals(expected.getHiWinners(), renamed.getHiWinners());
+        assertEquals(expected.getLoWinners(), renamed.getLoWinners());
+        for (int player = 0; player < 2; player++) {
+            Hand hand = renamed.getHands()[player];
+            assertEquals(expected.getHands()[player].getHiScore(), hand.getHiScore());
+            assertEquals(expected.getHands()[player].getRank(), hand.getRank());
+            assertEquals(expected.getHands()[player].getLoHand(), hand.getLoHand());
+            int[] cards = hand.getHiHand();
+            assertEquals(hand.getHiScore(), HiEvaluator.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]));
+        }
+        int low = 0;
+        for (int card : renamed.getHands()[1].getLoCards()) {
+            low |= PackedCard.lowBit(card);
+        }
+        assertEquals(renamed.getHands()[1].getLoHand(), low);
+        assertEquals(LoEvaluator.NO_LOW, renamed.getHands()[0].getLoScore());
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0);
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedDealIsEvicted() {
+        DealCache cache = new DealCache(32);
+        List<Deal> deals = sameShard(3);
+        for (int i = 0; i < 2; i++) {
+            store(cache, deals.get(i));
+        }
+        assertTrue(cache.load(deals.get(0), canonicalizer));
+        store(cache, deals.get(2));
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.load(deals.get(0), canonicalizer));
+        assertFalse(cache.load(deals.get(1), canonicalizer));
+        assertTrue(cache.load(deals.get(2), canonicalizer));
+    }
+
+    @Test
+    public void sizeStaysWithinTheCapacity() {
+        // 64 divides evenly, 100 leaves a remainder of 4, 5 has fewer entries than shards
+        for (int capacity : new int[] {64, 100, 5, 1}) {
+            DealCache cache = new DealCache(capacity);
+            String[] hands = {"Ac-Kd-Jd-3d", "Ac-Kd-Jd-4d", "Ac-Kd-Jd-6d", "Ac-Kd-Jd-7d", "Ac-Kd-Jd-8d", "Ac-Kd-Jd-9d"};
+            int stored = 0;
+            for (String hand : hands) {
+                for (String river : new String[] {"Qd", "Qs", "Tc", "9h", "8h", "4h", "4s", "2h"}) {
+                    for (String turn : new String[] {"2s", "3s", "3h", "Jh"}) {
+                        store(cache, deal(hand, "5c-5d-6c-7d", "Ah-Kh-5s-" + turn + "-" + river));
+                        stored++;
+                    }
+                }
+            }
+            assertEquals(capacity, cache.getCapacity());
+            assertTrue(capacity + ": " + cache.getSize(), cache.getSize() <= capacity);
+            assertEquals(stored - cache.getSize(), cache.getEvictions());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePositive() {
+        new DealCache(0);
+    }
+
+    private void store(DealCache cache, Deal deal) {
+        assertFalse(cache.load(deal, canonicalizer));
+        HandEvaluator.evaluate(deal);
+        cache.store(deal, canonicalizer);
+    }
+
+    /**
+     * Deals whose keys fall into the same shard, the cache spreads the keys by the mixed hash
+     */
+    private List<Deal> sameShard(int count) {
+        List<Deal> deals = new ArrayList<>();
+        int shard = -1;
+        String[] holes = {"Jd-3d", "Jd-4d", "Jd-6d", "Jd-7d", "Jd-8d", "Jd-9d", "Td-3d", "Td-4d", "Td-6d", "Td-7d"};
+        String[] rivers = {"Qd", "Qs", "Tc", "9h", "8h", "4h", "4s", "2h", "3h", "Jh", "Js", "9s"};
+        for (String hole : holes) {
+            for (String river : rivers) {
+                Deal deal = deal("Ac-Kd-" + hole, "5c-5d-6c-7d", "Ah-Kh-5s-2s-" + river);
+                int hash = canonicalizer.canonicalize(deal).hashCode();
+                int index = (hash ^ (hash >>> 16)) & 15;
+                if (shard < 0) {
+                    shard = index;
+                }
+                if (index == shard) {
+                    deals.add(deal);
+                    if (deals.size() == count) {
+                        return deals;
+                    }
+                }
+            }
+        }
+        throw new AssertionError("not enough deals in shard " + shard);
+    }
+}
@@ -0,0 +1,79 @@
+package com.stars.cache;
+
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Canonical keys of isomorphic and of different deals
+ */
+public class DealCanonicalizerTest {
+    private final DealCanonicalizer canonicalizer = new DealCanonicalizer();
+
+    @Test
+    public void renamedSuitsAndReorderedCardsShareTheKey() {
+        DealKey key = key("Ac-Kd-Jd-3d", "5c-5d-6c-7d", "Ah-Kh-5s-2s-Qd");
+        assertSameKey(key, key("As-Kc-Jc-3c", "5s-5c-6s-7c", "Ah-Kh-5d-2d-Qc"));
+        assertSameKey(key, key("3d-Jd-Kd-Ac", "7d-6c-5d-5c", "Qd-2s-5s-Kh-Ah"));
+    }
+
+    @Test
+    public void differentDealsHaveDifferentKeys() {
+        DealKey key = key("Ac-Kd-Jd-3d", "5c-5d-6c-7d", "Ah-Kh-5s-2s-Qd");
+        assertNotEquals(key, key("Ac-Kd-Jd-3c", "5c-5d-6c-7d", "Ah-Kh-5s-2s-Qd"));
+        assertNotEquals(key, key("5c-5d-6c-7d", "Ac-Kd-Jd-3d", "Ah-Kh-5s-2s-Qd"));
+        assertNotEquals(key, key("Ac-Kd-Jd-3d", "5c-5d-6c-7d", "Ah-Kh-5s-2s-Qs"));
+    }
+
+    @Test
+    public void cardsMapToCanonicalSuitsAndBack() {
+        key("Ac-Kd-Jd-3d", "5c-5d-6c-7d", "Ah-Kh-5s-2s-Qd");
+        int suits = 0;
+        for (int index = 0; index < PackedCard.DECK_SIZE; index++) {
+            int card = PackedCard.fromIndex(index);
+            int canonical = canonicalizer.toCanonical(card);
+            assertEquals(PackedCard.rank(card), PackedCard.rank(canonical));
+            assertEquals(card, canonicalizer.fromCanonical(canonical));
+            suits |= 1 << PackedCard.suit(canonical);
+        }
+        assertEquals(0b1111, suits);
+    }
+
+    private void assertSameKey(DealKey expected, DealKey key) {
+        assertEquals(expected, key);
+        assertEquals(expected.hashCode(), key.hashCode());
+    }
+
+    /**
+     * Copy of the canonical key, the canonicalizer reuses its own
+     */
+    private DealKey key(String first, String second, String board) {
+        return canonicalizer.canonicalize(deal(first, second, board)).copy();
+    }
+
+    static Deal deal(String first, String second, String board) {
+        Deal deal = new Deal();
+        String[] hands = {first, second};
+        for (int i = 0; i < hands.length; i++) {
+            int[] cards = cards(hands[i]);
+            System.arraycopy(cards, 0, deal.getHands()[i].setHoleCards(cards.length), 0, cards.length);
+        }
+        System.arraycopy(cards(board), 0, deal.getBoard().getCards(), 0, 5);
+        deal.setPlayers(hands.length);
+        deal.setStatus(Deal.OK);
+        deal.getBoard().prepare();
+        return deal;
+    }
+
+    static int[] cards(String cards) {
+        String[] symbols = cards.split("-");
+        int[] packed = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            packed[i] = PackedCard.parse(symbols[i]);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,118 @@
+package com.stars.entities;
+
+import com.stars.evaluation.HiEvaluator;
+import com.stars.evaluation.LoEvaluator;
+import org.junit.Test;
+
+import static com.stars.evaluation.Combinations.BOARD_TRIPLES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Triple data of the board and its reuse for the next lines
+ */
+public class BoardTest {
+    @Test
+    public void triplesHoldTheDataOfTheirCards() {
+        Board board = board("Ah-Kh-5s-2s-Qd");
+        assertEquals(BOARD_TRIPLES.length / 3, board.getTriples());
+        for (int triple = 0; triple < board.getTriples(); triple++) {
+            assertTriple(board, triple);
+        }
+        int spades = triple(board, 2, 3, 4);
+        assertEquals(PackedCard.rankBit(PackedCard.parse("5s")) | PackedCard.rankBit(PackedCard.parse("2s"))
+                | PackedCard.rankBit(PackedCard.parse("Qd")), board.getTripleRanks(spades));
+        assertEquals(0, board.getTripleSuits(spades));
+        assertEquals(7 * 2 * 31, board.getTripleProduct(spades));
+        assertEquals(0, board.getTripleLow(spades));
+
+        int wheel = triple(board, 0, 2, 3);
+        assertEquals(1 | 1 << 1 | 1 << 4, board.getTripleLow(wheel));
+        assertEquals(0, board.getTripleSuits(triple(board, 0, 1, 2)));
+
+        Board hearts = board("Ah-Kh-5h-2s-Qd");
+        assertEquals(PackedCard.suitBit(PackedCard.parse("Kh")), hearts.getTripleSuits(triple(hearts, 0, 1, 2)));
+    }
+
+    @Test
+    public void preparingAgainFollowsTheNewCards() {
+        Board board = board("Ah-Kh-5s-2s-Qd");
+        int pairKey = HiEvaluator.pairKey(PackedCard.parse("Kc"), PackedCard.parse("Kd"));
+        int kings = board.getBestRanks(pairKey);
+        assertEquals(kings, board.getBestRanks(pairKey));
+        assertEquals(HiEvaluator.evaluate(PackedCard.parse("Kc"), PackedCard.parse("Kd"),
+                PackedCard.parse("Ah"), PackedCard.parse("Kh"), PackedCard.parse("Qd")), kings >>> Board.TRIPLE_BITS);
+        assertEquals(triple(board, 0, 1, 4), kings & (1 << Board.TRIPLE_BITS) - 1);
+
+        set(board, "9c-9d-5s-2s-3h");
+        for (int triple = 0; triple < board.getTriples(); triple++) {
+            assertTriple(board, triple);
+        }
+        assertEquals(1 << 1 | 1 << 2 | 1 << 4, board.getTripleLow(triple(board, 2, 3, 4)));
+        assertEquals(0, board.getTripleLow(triple(board, 0, 1, 2)));
+        int nines = board.getBestRanks(pairKey);
+        assertNotEquals(kings, nines);
+        assertEquals("Two Pair", HiEvaluator.category(nines >>> Board.TRIPLE_BITS).getDescription());
+    }
+
+    @Test
+    public void textureRulesOutFlushesAndLows() {
+        Board board = board("Ah-Kh-5h-2s-Qd");
+        assertTrue(board.isFlushPossible());
+        assertEquals(3, board.getSuitCounts()[PackedCard.suit(PackedCard.parse("Ah"))]);
+        assertEquals(1, board.getLowTripleCount());
+        assertEquals(triple(board, 0, 2, 3), board.getLowTriple(0));
+
+        set(board, "Ah-Kh-5s-2s-Qd");
+        assertFalse(board.isFlushPossible());
+        set(board, "Kh-Qh-9s-9c-Td");
+        assertEquals(0, board.getLowTripleCount());
+        int pairLow = PackedCard.lowBit(PackedCard.parse("Ac")) | PackedCard.lowBit(PackedCard.parse("2d"));
+        assertEquals(LoEvaluator.NO_LOW, board.getBestLow(pairLow) >>> Board.TRIPLE_BITS);
+
+        set(board, "Ah-2h-3h-4h-5h");
+        assertEquals(10, board.getLowTripleCount());
+        for (int i = 0; i < board.getLowTripleCount(); i++) {
+            assertEquals(i, board.getLowTriple(i));
+        }
+    }
+
+    private static void assertTriple(Board board, int triple) {
+        int first = board.getCards()[BOARD_TRIPLES[triple * 3]];
+        int second = board.getCards()[BOARD_TRIPLES[triple * 3 + 1]];
+        int third = board.getCards()[BOARD_TRIPLES[triple * 3 + 2]];
+        assertEquals(PackedCard.rankBit(first) | PackedCard.rankBit(second) | PackedCard.rankBit(third),
+                board.getTripleRanks(triple));
+        assertEquals(PackedCard.suitBit(first) & PackedCard.suitBit(second) & PackedCard.suitBit(third),
+                board.getTripleSuits(triple));
+        assertEquals(PackedCard.prime(first) * PackedCard.prime(second) * PackedCard.prime(third),
+                board.getTripleProduct(triple));
+        assertEquals(HiEvaluator.tripleKey(first, second, third), board.getTripleKey(triple));
+    }
+
+    private static int triple(Board board, int first, int second, int third) {
+        for (int triple = 0; triple < board.getTriples(); triple++) {
+            if (BOARD_TRIPLES[triple * 3] == first && BOARD_TRIPLES[triple * 3 + 1] == second
+                    && BOARD_TRIPLES[triple * 3 + 2] == third) {
+                return triple;
+            }
+        }
+        throw new AssertionError("no triple " + first + second + third);
+    }
+
+    private static Board board(String cards) {
+        Board board = new Board();
+        set(board, cards);
+        return board;
+    }
+
+    private static void set(Board board, String cards) {
+        String[] symbols = cards.split("-");
+        for (int i = 0; i < symbols.length; i++) {
+            board.getCards()[i] = PackedCard.parse(symbols[i]);
+        }
+        board.prepare();
+    }
+}
@@ -0,0 +1,66 @@
+package com.stars.entities;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bit fields, parsing and deck indexes of the packed cards
+ */
+public class PackedCardTest {
+    @Test
+    public void everyCardRoundTrips() {
+        long bits = 0;
+        for (int index = 0; index < PackedCard.DECK_SIZE; index++) {
+            int card = PackedCard.fromIndex(index);
+            assertTrue(PackedCard.isValid(card));
+            assertEquals(index, PackedCard.index(card));
+            assertEquals(card, PackedCard.of(PackedCard.rank(card), PackedCard.suit(card)));
+            assertEquals(card, PackedCard.parse(PackedCard.toString(card)));
+            assertEquals(1, Integer.bitCount(PackedCard.rankBit(card)));
+            assertEquals(1, Integer.bitCount(PackedCard.suitBit(card)));
+            bits |= 1L << index;
+        }
+        assertEquals(PackedCard.DECK_SIZE, Long.bitCount(bits));
+    }
+
+    @Test
+    public void fieldsOfTheAceOfSpades() {
+        int card = PackedCard.parse("As");
+        assertEquals(PackedCard.ACE, PackedCard.rank(card));
+        assertEquals(3, PackedCard.suit(card));
+        assertEquals(1 << 12, PackedCard.rankBit(card));
+        assertEquals(41, PackedCard.prime(card));
+        assertEquals(14, PackedCard.rating(card));
+        assertEquals(1, PackedCard.ratingLo(card));
+        assertEquals(1, PackedCard.lowBit(card));
+        assertEquals("As", PackedCard.toString(card));
+    }
+
+    @Test
+    public void lowBitsStopAtTheEight() {
+        assertEquals(2, PackedCard.lowBit(PackedCard.parse("2c")));
+        assertEquals(128, PackedCard.lowBit(PackedCard.parse("8d")));
+        assertEquals(0, PackedCard.lowBit(PackedCard.parse("9h")));
+        assertEquals(0, PackedCard.lowBit(PackedCard.parse("Ks")));
+    }
+
+    @Test
+    public void parsingIgnoresTheCase() {
+        assertEquals(PackedCard.parse("Td"), PackedCard.parse("tD"));
+        assertEquals(PackedCard.parse("Ah"), PackedCard.parse("aH"));
+    }
+
+    @Test
+    public void unknownCardsAreInvalid() {
+        assertEquals(PackedCard.INVALID, PackedCard.parse("1c"));
+        assertEquals(PackedCard.INVALID, PackedCard.parse("Ax"));
+        assertEquals(PackedCard.INVALID, PackedCard.parse("A"));
+        assertEquals(PackedCard.INVALID, PackedCard.parse("Acd"));
+        assertEquals(PackedCard.INVALID, PackedCard.parse('A', 0xE9));
+        assertFalse(PackedCard.isValid(PackedCard.INVALID));
+        assertFalse(PackedCard.isValid(PackedCard.parse("Ac") | PackedCard.parse("Ad")));
+    }
+}
@@ -0,0 +1,166 @@
+package com.stars.equity;
+
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+import com.stars.evaluation.HandEvaluator;
+import com.stars.io.DealParser;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Board enumeration and equities against single evaluated deals
+ */
+public class EquityCalculatorTest {
+    private static final String HERO = "Ac-Kd-Jd-3d";
+    private static final String VILLAIN = "5c-5d-6c-7d";
+
+    private static EquityCalculator calculator;
+
+    @BeforeClass
+    public static void start() {
+        calculator = new EquityCalculator(4);
+    }
+
+    @AfterClass
+    public static void stop() {
+        calculator.close();
+    }
+
+    @Test
+    public void nextFollowsTheRanksOfUnrank() {
+        int[] combination = EquityCalculator.unrank(0, 3);
+        assertArrayEquals(new int[] {0, 1, 2}, combination);
+        Set<String> seen = new HashSet<>();
+        for (int rank = 0; rank < 35; rank++) {
+            assertArrayEquals("rank " + rank, EquityCalculator.unrank(rank, 3), combination);
+            assertTrue(combination[0] < combination[1] && combination[1] < combination[2] && combination[2] < 7);
+            assertTrue(seen.add(Arrays.toString(combination)));
+            EquityCalculator.next(combination, 7);
+        }
+        assertArrayEquals(new int[] {0, 1, 3}, EquityCalculator.unrank(1, 3));
+        assertArrayEquals(new int[] {4, 5, 6}, EquityCalculator.unrank(34, 3));
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4}, EquityCalculator.unrank(0, 5));
+    }
+
+    @Test
+    public void completeBoardHasOneOutcome() throws Exception {
+        EquityResult result = calculator.calculate(hands(HERO, VILLAIN), cards("Ah-Kh-5s-2s-Qd"));
+        assertTrue(result.isExhaustive());
+        assertEquals(1, result.getBoards());
+        assertEquals(0, result.getEquity(0), 0);
+        assertEquals(100, result.getEquity(1), 0);
+        assertEquals(100, result.getScoop(1), 0);
+
+        result = calculator.calculate(hands("Ah-2s-Qd-9s", "Ac-2d-As-Jh"), cards("Kd-4h-Kh-5s-3c"));
+        assertEquals(50, result.getEquity(0), 0);
+        assertEquals(50, result.getEquity(1), 0);
+        assertEquals(100, result.getHiSplit(0), 0);
+        assertEquals(100, result.getLoSplit(1), 0);
+    }
+
+    @Test
+    public void turnMatchesEveryRiverEvaluatedAlone() throws Exception {
+        String board = "Ah-Kh-5s-2s";
+        EquityResult result = calculator.calculate(hands(HERO, VILLAIN), cards(board));
+        assertEquals(PackedCard.DECK_SIZE - 12, result.getBoards());
+
+        EquityResult expected = new EquityResult(2, true);
+        DealParser parser = new DealParser();
+        Deal deal = new Deal();
+        for (int index = 0; index < PackedCard.DECK_SIZE; index++) {
+            String line = "HandA:" + HERO + " HandB:" + VILLAIN + " Board:" + board + "-"
+                    + PackedCard.toString(PackedCard.fromIndex(index));
+            byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+            if (parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, deal) == Deal.OK) {
+                HandEvaluator.evaluate(deal);
+                expected.add(deal.getHiWinners(), deal.getLoWinners());
+            }
+        }
+        assertEquals(expected.getBoards(), result.getBoards());
+        for (int player = 0; player < 2; player++) {
+            assertEquals(expected.getEquity(player), result.getEquity(player), 1e-9);
+            assertEquals(expected.getScoop(player), result.getScoop(player), 1e-9);
+            assertEquals(expected.getHiWin(player), result.getHiWin(player), 1e-9);
+            assertEquals(expected.getLoWin(player), result.getLoWin(player), 1e-9);
+        }
+    }
+
+    @Test
+    public void handsOfSwappedSuitsShareThePot() throws Exception {
+        EquityResult result = calculator.calculate(hands("Ac-Kc-Qd-Jd", "Ah-Kh-Qs-Js"), new int[0]);
+        assertTrue(result.isExhaustive());
+        assertEquals(1_086_008, result.getBoards());
+        assertEquals(50, result.getEquity(0), 1e-9);
+        assertEquals(result.getScoop(0), result.getScoop(1), 1e-9);
+    }
+
+    @Test
+    public void samplingIsCloseAndReproducible() throws Exception {
+        EquityResult exact = calculator.calculate(hands(HERO, VILLAIN), cards("Ah-Kh-5s"));
+        assertEquals(820, exact.getBoards());
+        EquityCalculator sampler = new EquityCalculator(2);
+        try {
+            sampler.setExhaustiveLimit(0);
+            sampler.setSamples(100_000);
+            EquityResult sampled = sampler.calculate(hands(HERO, VILLAIN), cards("Ah-Kh-5s"));
+            assertFalse(sampled.isExhaustive());
+            assertEquals(100_000, sampled.getBoards());
+            assertEquals(exact.getEquity(0), sampled.getEquity(0), 0.5);
+            assertEquals(sampled.getEquity(0),
+                    sampler.calculate(hands(HERO, VILLAIN), cards("Ah-Kh-5s")).getEquity(0), 0);
+        } finally {
+            sampler.close();
+        }
+    }
+
+    @Test
+    public void rejectsWrongHandsAndCards() {
+        assertError(ErrorHand.class, hands(HERO), new int[0]);
+        assertError(ErrorHand.class, hands(HERO, "5c-5d-6c-7d-8d"), new int[0]);
+        assertError(ErrorHand.class, hands(HERO, VILLAIN), cards("Ah-Kh-5s-2s-Qd-Qs"));
+        assertError(ErrorCard.class, hands(HERO, "Ac-5d-6c-7d"), new int[0]);
+        assertError(ErrorCard.class, hands(HERO, VILLAIN), cards("Ah-Ah-5s"));
+        assertError(ErrorCard.class, hands(HERO, VILLAIN), new int[] {PackedCard.INVALID});
+    }
+
+    private static void assertError(Class<? extends Exception> error, int[][] hands, int[] board) {
+        try {
+            calculator.calculate(hands, board);
+            fail(error.getSimpleName());
+        } catch (ErrorHand | ErrorCard e) {
+            assertEquals(error, e.getClass());
+        }
+    }
+
+    private static int[][] hands(String... hands) {
+        int[][] packed = new int[hands.length][];
+        for (int i = 0; i < hands.length; i++) {
+            packed[i] = cards(hands[i]);
+        }
+        return packed;
+    }
+
+    private static int[] cards(String cards) {
+        String[] symbols = cards.split("-");
+        int[] packed = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            packed[i] = PackedCard.parse(symbols[i]);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,183 @@
+package com.stars.equity;
+
+import com.stars.entities.PackedCard;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Generated preflop table, loaded back and queried
+ */
+public class PreflopTableTest {
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final long SEED = 42;
+
+    private static Path path;
+    private static PreflopTable table;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        path = folder.newFile("preflop.bin").toPath();
+        try (PreflopTableGenerator generator = new PreflopTableGenerator(0)) {
+            generator.setSamples(100);
+            generator.setSeed(SEED);
+            generator.generate(Collections.singletonList(RangeParser.parse("Kings", "KKQQ", null)), path);
+        }
+        table = PreflopTable.load(path);
+    }
+
+    @Test
+    public void headerNamesTheRanges() {
+        assertEquals(2, table.getRanges());
+        assertEquals(PreflopTable.RANDOM, table.getRangeName(0));
+        assertEquals(1, table.findRange("Kings"));
+        assertEquals(-1, table.findRange("Queens"));
+        assertEquals(100, table.getSamples());
+        assertEquals(SEED, table.getSeed());
+    }
+
+    @Test
+    public void isomorphicHandsShareTheCanonicalIndex() throws Exception {
+        int index = table.canonicalIndex(cards("As-Ah-Ks-Kh"));
+        assertEquals(index, table.canonicalIndex(cards("Kh-Ac-Kc-Ah")));
+        assertEquals(index, table.canonicalIndex(cards("Ad-Kd-Ac-Kc")));
+        assertEquals(index, table.canonicalIndex(StartingHands.index(cards("As-Ah-Ks-Kh"))));
+        assertTrue(index != table.canonicalIndex(cards("As-Ah-Ks-Kd")));
+
+        boolean[] used = new boolean[StartingHands.CANONICAL_HANDS];
+        for (int hand = 0; hand < StartingHands.HANDS; hand++) {
+            used[table.canonicalIndex(hand)] = true;
+        }
+        for (boolean canonical : used) {
+            assertTrue(canonical);
+        }
+    }
+
+    @Test
+    public void startingHandIndexesRoundTrip() throws Exception {
+        for (int index = 0; index < StartingHands.HANDS; index += 997) {
+            assertEquals(index, StartingHands.index(StartingHands.cards(index)));
+        }
+        assertArrayEquals(cards("2c-2d-2h-2s"), StartingHands.cards(0));
+        assertEquals(StartingHands.HANDS - 1, StartingHands.index(cards("Ac-Ad-Ah-As")));
+    }
+
+    @Test
+    public void valuesOfStrongAndWeakHands() throws Exception {
+        float strong = table.getEquity(cards("As-Ah-Ks-Kh"), 0);
+        float weak = table.getEquity(cards("Kc-9d-5h-2s"), 0);
+        assertTrue(strong + " " + weak, strong > weak + 10);
+        int canonical = table.canonicalIndex(cards("As-Ah-Ks-Kh"));
+        for (int value = 0; value < PreflopTable.VALUES; value++) {
+            float percent = table.getValue(canonical, 1, value);
+            assertTrue(percent >= 0 && percent <= 100);
+        }
+        assertTrue(table.getValue(canonical, 0, PreflopTable.SCOOP) <= strong);
+    }
+
+    @Test
+    public void rangeBlockedByTheHandHasNoValue() throws Exception {
+        assertEquals(-1, table.getEquity(cards("Ks-Kh-Kd-2c"), 1), 0);
+        assertTrue(table.getEquity(cards("Ks-Kh-Kd-2c"), 0) >= 0);
+    }
+
+    @Test
+    public void topPercentTakesTheBestHands() throws Exception {
+        HandRange all = RangeParser.parse("All", "top100%", table);
+        assertEquals(StartingHands.HANDS, all.getHands().length);
+        HandRange top = RangeParser.parse("Top", "top10%", table);
+        assertTrue(top.getHands().length >= StartingHands.HANDS / 10);
+        assertTrue(top.getHands().length < StartingHands.HANDS / 5);
+
+        int best = 0;
+        for (int index = 0; index < StartingHands.HANDS; index++) {
+            if (table.getValue(table.canonicalIndex(index), 0, PreflopTable.EQUITY)
+                    > table.getValue(table.canonicalIndex(best), 0, PreflopTable.EQUITY)) {
+                best = index;
+            }
+        }
+        boolean found = false;
+        for (int[] hand : RangeParser.parse("Best", "top1%", table).getHands()) {
+            found |= StartingHands.index(hand) == best;
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void rangeHandsAreDrawnByWeight() throws Exception {
+        HandRange kings = new HandRange("Kings", new int[][]{cards("Kc-Kd-Qc-Qd")});
+        HandRange skewed = new HandRange("Kings", new int[][]{cards("Kc-Kd-Qc-Qd"), cards("7c-6d-3h-2s")},
+                new double[]{1, 1e-9});
+        PreflopTable kingsTable = generate("kings.bin", kings);
+        PreflopTable skewedTable = generate("skewed.bin", skewed);
+        // a uniform draw would play the 256 hands 7632 far more often than the 36 hands KKQQ
+        for (String hand : new String[]{"As-Ah-Ks-Kh", "Ac-Ad-Kh-Qs", "Jc-Td-9h-8s", "5c-4d-3h-2s"}) {
+            assertEquals(hand, kingsTable.getEquity(cards(hand), 1), skewedTable.getEquity(cards(hand), 1), 1e-3);
+        }
+    }
+
+    @Test
+    public void otherFilesAreNotLoaded() throws IOException {
+        Path other = folder.newFile("other.bin").toPath();
+        Files.write(other, new byte[64]);
+        assertNotLoaded(other, "Not a preflop table");
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(other, Arrays.copyOf(bytes, bytes.length - 4));
+        assertNotLoaded(other, "Preflop table has " + (bytes.length - 4) + " bytes, expected " + bytes.length);
+        Files.write(other, Arrays.copyOf(bytes, 20));
+        assertNotLoaded(other, "Not a preflop table");
+        Files.write(other, Arrays.copyOf(bytes, 40));
+        assertNotLoaded(other, "Broken preflop table header, 2 ranges");
+
+        byte[] broken = bytes.clone();
+        ByteBuffer.wrap(broken).putInt(16, -1);
+        Files.write(other, broken);
+        assertNotLoaded(other, "Broken preflop table header, -1 ranges");
+        ByteBuffer.wrap(broken).putInt(16, Integer.MAX_VALUE);
+        Files.write(other, broken);
+        assertNotLoaded(other, "Broken preflop table header, " + Integer.MAX_VALUE + " ranges");
+    }
+
+    private static PreflopTable generate(String name, HandRange range) throws IOException {
+        Path file = folder.newFile(name).toPath();
+        try (PreflopTableGenerator generator = new PreflopTableGenerator(0)) {
+            generator.setSamples(20);
+            generator.setSeed(SEED);
+            generator.generate(Collections.singletonList(range), file);
+        }
+        return PreflopTable.load(file);
+    }
+
+    private static void assertNotLoaded(Path file, String message) {
+        try {
+            PreflopTable.load(file);
+            fail(message);
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static int[] cards(String cards) {
+        String[] symbols = cards.split("-");
+        int[] packed = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            packed[i] = PackedCard.parse(symbols[i]);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,162 @@
+package com.stars.equity;
+
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Range equity against the equity of single hands
+ */
+public class RangeEquityCalculatorTest {
+    private static final String HERO = "Ac-Kd-Jd-3d";
+    private static final String VILLAIN = "5c-5d-6c-7d";
+
+    private static RangeEquityCalculator calculator;
+    private static EquityCalculator single;
+
+    @BeforeClass
+    public static void start() {
+        calculator = new RangeEquityCalculator(2);
+        single = new EquityCalculator(2);
+    }
+
+    @AfterClass
+    public static void stop() {
+        calculator.close();
+        single.close();
+    }
+
+    @Test
+    public void singleHandsMatchTheEquityCalculator() throws Exception {
+        int[] board = cards("Ah-Kh-5s");
+        EquityResult expected = single.calculate(new int[][] {cards(HERO), cards(VILLAIN)}, board);
+        EquityResult result = calculator.calculate(new HandRange[] {range("Hero", HERO), range("Villain", VILLAIN)}, board);
+        assertTrue(result.isExhaustive());
+        assertEquals(820, expected.getBoards());
+        assertEquals(expected.getBoards(), result.getBoards());
+        for (int player = 0; player < 2; player++) {
+            assertEquals(expected.getEquity(player), result.getEquity(player), 1e-9);
+            assertEquals(expected.getScoop(player), result.getScoop(player), 1e-9);
+            assertEquals(expected.getHiWin(player), result.getHiWin(player), 1e-9);
+            assertEquals(expected.getLoSplit(player), result.getLoSplit(player), 1e-9);
+        }
+    }
+
+    @Test
+    public void weightsMixTheEquityOfTheHands() throws Exception {
+        String other = "Qs-Qh-9s-8h";
+        int[] board = cards("Ah-Kh-5s-2s-Qd");
+        double first = single.calculate(new int[][] {cards(HERO), cards(VILLAIN)}, board).getEquity(0);
+        double second = single.calculate(new int[][] {cards(other), cards(VILLAIN)}, board).getEquity(0);
+        EquityResult result = calculator.calculate(new HandRange[] {
+                RangeParser.parse("Hero", HERO + "@3, " + other, null), range("Villain", VILLAIN)}, board);
+        assertEquals(1, result.getBoards());
+        assertEquals((3 * first + second) / 4, result.getEquity(0), 1e-9);
+    }
+
+    @Test
+    public void boardsBlockingEveryMatchupAreNotCounted() throws Exception {
+        // rivers of the hero's cards or the queens both villain hands hold block every matchup
+        EquityResult result = calculator.calculate(new HandRange[] {range("Hero", "Ac-Ad-Kc-Kd"),
+                RangeParser.parse("Villain", "As-Qs-Qc-Qd, Ah-Qs-Qc-Qd", null)}, cards("2s-3h-4c-5d"));
+        assertEquals(PackedCard.DECK_SIZE - 4 - 4 - 3, result.getBoards());
+    }
+
+    @Test
+    public void samplingIsCloseAndReproducible() throws Exception {
+        HandRange[] ranges = {RangeParser.parse("Hero", "AAxx ds", null), RangeParser.parse("Villain", "KKQQ", null)};
+        int[] board = cards("Ah-Kh-5s");
+        EquityResult exact = calculator.calculate(ranges, board);
+        RangeEquityCalculator sampler = new RangeEquityCalculator(2);
+        try {
+            sampler.setExhaustiveLimit(0);
+            sampler.setSamples(200_000);
+            EquityResult sampled = sampler.calculate(ranges, board);
+            assertFalse(sampled.isExhaustive());
+            assertEquals(200_000, sampled.getBoards());
+            assertEquals(exact.getEquity(0), sampled.getEquity(0), 0.5);
+            assertEquals(sampled.getEquity(0), sampler.calculate(ranges, board).getEquity(0), 0);
+        } finally {
+            sampler.close();
+        }
+    }
+
+    @Test
+    public void riverRunIsSplitByHandsWithTheSameResult() throws Exception {
+        int[] board = cards("Ah-Kh-5s-2s-Qd");
+        HandRange hero = RangeParser.parse("Hero", "AAJx", null);
+        HandRange[] ranges = {hero, range("Villain", VILLAIN)};
+        double sum = 0;
+        int matchups = 0;
+        for (int[] hand : hero.getHands()) {
+            if ((EquityCalculator.deadCards(hand) & EquityCalculator.deadCards(cards(VILLAIN + "-Ah-Kh-5s-2s-Qd"))) == 0) {
+                sum += single.calculate(new int[][] {hand, cards(VILLAIN)}, board).getEquity(0);
+                matchups++;
+            }
+        }
+        RangeEquityCalculator one = new RangeEquityCalculator(1);
+        RangeEquityCalculator many = new RangeEquityCalculator(4);
+        try {
+            EquityResult result = many.calculate(ranges, board);
+            assertEquals(1, result.getBoards());
+            assertEquals(sum / matchups, result.getEquity(0), 1e-9);
+            // every river but the cards of the villain leaves a matchup, counted once over all parts
+            assertEquals(PackedCard.DECK_SIZE - 4 - 4, many.calculate(ranges, cards("Ah-Kh-5s-2s")).getBoards());
+
+            HandRange[] three = {hero, RangeParser.parse("Villain", "KKTT, 55xx ds", null),
+                    RangeParser.parse("Third", "QQ9x", null)};
+            EquityResult expected = one.calculate(three, board);
+            EquityResult actual = many.calculate(three, board);
+            assertEquals(1, actual.getBoards());
+            for (int player = 0; player < three.length; player++) {
+                assertEquals(expected.getEquity(player), actual.getEquity(player), 1e-9);
+                assertEquals(expected.getScoop(player), actual.getScoop(player), 1e-9);
+                assertEquals(expected.getLoWin(player), actual.getLoWin(player), 1e-9);
+            }
+        } finally {
+            one.close();
+            many.close();
+        }
+    }
+
+    @Test
+    public void errorsNameTheRangeOrTheBoard() throws Exception {
+        HandRange hero = range("Hero", HERO);
+        HandRange villain = range("Villain", VILLAIN);
+        assertError(new HandRange[] {hero}, new int[0], "ranges: 1 given, 2 up to 10 are needed");
+        assertError(new HandRange[] {hero, villain}, cards("Ah-Kh-5s-2s-Qd-Qs"), "board Ah-Kh-5s-2s-Qd-Qs: more than 5 cards");
+        assertError(new HandRange[] {hero, villain}, cards("Ah-Ah-5s"), "card Board: Ah-Ah-5s");
+        assertError(new HandRange[] {hero, villain}, cards("Ac-2h-3h"), "range Hero: all hands are blocked by the board");
+        assertError(new HandRange[] {hero, range("Villain", HERO)}, new int[0], "ranges: the hands always share cards");
+    }
+
+    private static void assertError(HandRange[] ranges, int[] board, String message) {
+        try {
+            calculator.calculate(ranges, board);
+            fail(message);
+        } catch (ErrorHand | ErrorCard e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static HandRange range(String name, String hand) {
+        return new HandRange(name, new int[][] {cards(hand)});
+    }
+
+    private static int[] cards(String cards) {
+        String[] symbols = cards.split("-");
+        int[] packed = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            packed[i] = PackedCard.parse(symbols[i]);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,116 @@
+package com.stars.equity;
+
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Range grammar, suit filters and weights
+ */
+public class RangeParserTest {
+    @Test
+    public void ranksMatchExactCounts() throws Exception {
+        assertEquals(StartingHands.HANDS, parse("xxxx").getHands().length);
+        assertEquals(36, parse("AAKK").getHands().length);
+        // 2 aces of 6 suit pairs times 48 choose 2 cards of the other ranks
+        assertEquals(6 * 1128, parse("AAxx").getHands().length);
+        // 2 aces, 1 of 4 deuces and 1 of 44 cards neither ace nor deuce, no AAA2 or AA22
+        HandRange range = parse("AA2x");
+        assertEquals(6 * 4 * 44, range.getHands().length);
+        for (int[] hand : range.getHands()) {
+            int aces = 0;
+            for (int card : hand) {
+                aces += PackedCard.rank(card) == PackedCard.rank(PackedCard.parse("Ac")) ? 1 : 0;
+            }
+            assertEquals(2, aces);
+        }
+        assertEquals(1, parse("AAAA").getHands().length);
+    }
+
+    @Test
+    public void ranksIgnoreTheCase() throws Exception {
+        assertEquals(parse("AA2x").getHands().length, parse("aa2X").getHands().length);
+        assertEquals(parse("KKTT ds").getHands().length, parse("Kktt ds").getHands().length);
+        assertEquals(36, parse("kkqq").getHands().length);
+    }
+
+    @Test
+    public void suitFiltersSplitTheHands() throws Exception {
+        assertEquals(6, parse("AAKK ds").getHands().length);
+        assertEquals(24, parse("AAKK ss").getHands().length);
+        assertEquals(6, parse("AAKK r").getHands().length);
+        assertEquals(36, parse("AAKK ds, AAKK SS, AAKK r").getHands().length);
+    }
+
+    @Test
+    public void exactHandIsOneHand() throws Exception {
+        HandRange range = parse("Ac-Kd-Jd-3d");
+        assertEquals(1, range.getHands().length);
+        assertEquals(StartingHands.index(new int[] {PackedCard.parse("3d"), PackedCard.parse("Jd"),
+                PackedCard.parse("Kd"), PackedCard.parse("Ac")}), StartingHands.index(range.getHands()[0]));
+    }
+
+    @Test
+    public void firstMatchingTermSetsTheWeight() throws Exception {
+        HandRange range = parse("AAKK ds@2, AAKK@0.5, QQQQ");
+        assertEquals(37, range.getHands().length);
+        double sum = 0;
+        int heavy = 0;
+        for (double weight : range.getWeights()) {
+            sum += weight;
+            heavy += weight == 2 ? 1 : 0;
+        }
+        assertEquals(6, heavy);
+        assertEquals(6 * 2 + 30 * 0.5 + 1, sum, 1e-9);
+    }
+
+    @Test
+    public void handsAreInColexicographicOrder() throws Exception {
+        int[][] hands = parse("KKxx, AAxx r").getHands();
+        for (int i = 1; i < hands.length; i++) {
+            if (StartingHands.index(hands[i - 1]) >= StartingHands.index(hands[i])) {
+                fail("hand " + i + " out of order");
+            }
+        }
+    }
+
+    @Test
+    public void errorsNameTheRangeAndTheTerm() {
+        assertHandError("AAK", "range Hero: AAK");
+        assertHandError("AAKK, AAYY", "range Hero: AAYY");
+        assertHandError("AAKK xx", "range Hero: AAKK xx");
+        assertHandError("AAKK@0", "range Hero: AAKK@0");
+        assertHandError("AAKK@abc", "range Hero: AAKK@abc");
+        assertHandError("AAKK, ", "range Hero: ");
+        assertHandError("top5%", "range Hero: top5% needs the preflop table");
+        assertHandError("Ac-Kd-Jd", "range Hero: Ac-Kd-Jd");
+        assertHandError("AAAA ds", "range Hero: no hand matches AAAA ds");
+        try {
+            parse("AAKK, Ac-Ac-Jd-3d");
+            fail();
+        } catch (ErrorCard e) {
+            assertEquals("card Hero: Ac-Ac-Jd-3d", e.getMessage());
+        } catch (ErrorHand e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private static void assertHandError(String expression, String message) {
+        try {
+            parse(expression);
+            fail(expression);
+        } catch (ErrorHand e) {
+            assertEquals(message, e.getMessage());
+        } catch (ErrorCard e) {
+            fail(expression + ": " + e.getMessage());
+        }
+    }
+
+    private static HandRange parse(String expression) throws ErrorHand, ErrorCard {
+        return RangeParser.parse("Hero", expression, null);
+    }
+}
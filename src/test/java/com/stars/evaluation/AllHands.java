@@ -0,0 +1,90 @@
+package com.stars.evaluation;
+
+import com.stars.entities.PackedCard;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * All 2,598,960 five card hands, enumerated in parallel
+ *
+ * Every hand has its colexicographic index, so the visitors can fill shared
+ * arrays without locking and the results do not depend on the threads.
+ */
+final class AllHands {
+    static final int COUNT = 2598960;
+
+    private AllHands() {
+    }
+
+    interface Visitor {
+        /**
+         * @param index colexicographic index of the hand
+         * @param cards 5 packed cards in deck order, the array is reused
+         */
+        void visit(int index, int[] cards);
+    }
+
+    /**
+     * Visit every hand, the hands with the same highest card run on one thread
+     */
+    static void forEach(Visitor visitor) {
+        IntStream.range(4, PackedCard.DECK_SIZE).parallel().forEach(e -> {
+            int[] cards = new int[5];
+            int index = binomial(e, 5);
+            cards[4] = PackedCard.fromIndex(e);
+            for (int d = 3; d < e; d++) {
+                cards[3] = PackedCard.fromIndex(d);
+                for (int c = 2; c < d; c++) {
+                    cards[2] = PackedCard.fromIndex(c);
+                    for (int b = 1; b < c; b++) {
+                        cards[1] = PackedCard.fromIndex(b);
+                        for (int a = 0; a < b; a++) {
+                            cards[0] = PackedCard.fromIndex(a);
+                            visitor.visit(index++, cards);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Check that the fast values order the hands exactly like the reference values:
+     * equal for equal reference values, higher for higher ones
+     *
+     * @param reference values of the reference evaluator, non negative
+     * @param fast values of the evaluator under test, non negative
+     * @return number of distinct values
+     */
+    static int assertSameOrder(int[] reference, int[] fast) {
+        long[] pairs = new long[reference.length];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = (long) reference[i] << 32 | fast[i];
+        }
+        Arrays.parallelSort(pairs);
+        int distinct = 1;
+        for (int i = 1; i < pairs.length; i++) {
+            int previousReference = (int) (pairs[i - 1] >>> 32);
+            int previousFast = (int) pairs[i - 1];
+            if ((int) (pairs[i] >>> 32) == previousReference) {
+                assertEquals("same reference value " + previousReference, previousFast, (int) pairs[i]);
+            } else {
+                assertTrue("order after reference value " + previousReference, (int) pairs[i] > previousFast);
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    private static int binomial(int n, int k) {
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return (int) result;
+    }
+}
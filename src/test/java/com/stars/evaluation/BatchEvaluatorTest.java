@@ -0,0 +1,97 @@
+package com.stars.evaluation;
+
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scalar and vector batches against the evaluation of single deals
+ */
+public class BatchEvaluatorTest {
+    private static final int DEALS = 3000;
+
+    @Test
+    public void scalarMatchesSingleDeals() {
+        assertSameResults(BatchEvaluator.scalar());
+    }
+
+    @Test
+    public void vectorMatchesSingleDeals() {
+        BatchEvaluator evaluator = BatchEvaluator.create();
+        // the tests run with the incubator module, so create() finds the Vector API
+        assertTrue(evaluator.getName(), evaluator.getName().startsWith("vector"));
+        assertSameResults(evaluator);
+    }
+
+    /**
+     * Deals of every size, every third board with 3 or more cards of one suit
+     */
+    private static void assertSameResults(BatchEvaluator evaluator) {
+        Random random = new Random(5);
+        DealBatch batch = new DealBatch(64);
+        Deal[] deals = new Deal[batch.getCapacity()];
+        for (int i = 0; i < deals.length; i++) {
+            deals[i] = new Deal();
+        }
+        Deal stored = new Deal();
+        for (int round = 0; round < DEALS; round += batch.getCapacity()) {
+            batch.clear();
+            for (Deal deal : deals) {
+                deal(random, deal, round % 3 == 0);
+                batch.add(deal);
+                HandEvaluator.evaluate(deal);
+            }
+            evaluator.evaluate(batch);
+            for (int index = 0; index < deals.length; index++) {
+                Deal deal = deals[index];
+                for (int hand = 0; hand < deal.getPlayers(); hand++) {
+                    Hand expected = deal.getHands()[hand];
+                    assertEquals(expected.getHiScore(), batch.getHiScore(index, hand));
+                    assertEquals(expected.getLoScore(), batch.getLoScore(index, hand));
+                    assertEquals(expected.getLoHand(), batch.getLoMask(index, hand));
+                }
+                assertEquals(deal.getHiWinners(), batch.getHiWinners(index));
+                assertEquals(deal.getLoWinners(), batch.getLoWinners(index));
+
+                stored.setPlayers(deal.getPlayers());
+                batch.store(index, stored);
+                assertEquals(deal.getHiScore(), stored.getHiScore());
+                assertEquals(deal.getLoScore(), stored.getLoScore());
+                assertEquals(deal.getHands()[0].getRank(), stored.getHands()[0].getRank());
+            }
+        }
+    }
+
+    private static void deal(Random random, Deal deal, boolean suited) {
+        int[] deck = new int[PackedCard.DECK_SIZE];
+        for (int index = 0; index < deck.length; index++) {
+            int pick = random.nextInt(index + 1);
+            deck[index] = deck[pick];
+            deck[pick] = PackedCard.fromIndex(index);
+        }
+        if (suited) {
+            // move 3 cards of the suit of the first card onto the board
+            for (int index = 1, found = 1; found < 3; index++) {
+                if (PackedCard.suit(deck[index]) == PackedCard.suit(deck[0])) {
+                    int card = deck[found];
+                    deck[found++] = deck[index];
+                    deck[index] = card;
+                }
+            }
+        }
+        int players = 2 + random.nextInt(Deal.MAX_HANDS - 1);
+        System.arraycopy(deck, 0, deal.getBoard().getCards(), 0, 5);
+        for (int player = 0; player < players; player++) {
+            System.arraycopy(deck, 5 + player * 4, deal.getHands()[player].setHoleCards(4), 0, 4);
+        }
+        deal.setPlayers(players);
+        deal.setStatus(Deal.OK);
+        deal.getBoard().prepare();
+    }
+}
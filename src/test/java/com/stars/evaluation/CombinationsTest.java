@@ -0,0 +1,59 @@
+package com.stars.evaluation;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Index tables of the hole pairs and the board triples
+ */
+public class CombinationsTest {
+    @Test
+    public void holePairsAndBoardTriplesInLexicographicOrder() {
+        assertArrayEquals(new int[] {0, 1, 0, 2, 0, 3, 1, 2, 1, 3, 2, 3}, Combinations.HOLE_PAIRS);
+        assertEquals(30, Combinations.BOARD_TRIPLES.length);
+        assertArrayEquals(new int[] {0, 1, 2}, Arrays.copyOf(Combinations.BOARD_TRIPLES, 3));
+        assertArrayEquals(new int[] {2, 3, 4}, Arrays.copyOfRange(Combinations.BOARD_TRIPLES, 27, 30));
+        assertDistinct(Combinations.BOARD_TRIPLES, 3, Combinations.BOARD_CARDS);
+    }
+
+    @Test
+    public void everyVariantHasAllItsHolePairs() {
+        assertFalse(Combinations.isVariant(3));
+        assertFalse(Combinations.isVariant(7));
+        assertTrue(Combinations.isVariant(5));
+        assertEquals(Combinations.HOLE_PAIRS, Combinations.holePairs(4));
+        for (int cards = Combinations.MIN_HOLE_CARDS; cards <= Combinations.MAX_HOLE_CARDS; cards++) {
+            int[] pairs = Combinations.holePairs(cards);
+            assertEquals(cards * (cards - 1), pairs.length);
+            assertDistinct(pairs, 2, cards);
+            for (int pair = 0; pair < pairs.length; pair += 2) {
+                assertEquals(pair, Combinations.holePair(cards, pairs[pair], pairs[pair + 1]));
+                assertEquals(pair, Combinations.holePair(cards, pairs[pair + 1], pairs[pair]));
+            }
+        }
+    }
+
+    /**
+     * Increasing indexes below n in every combination, no combination twice
+     */
+    private static void assertDistinct(int[] table, int k, int n) {
+        Set<String> seen = new HashSet<>();
+        for (int position = 0; position < table.length; position += k) {
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < k; i++) {
+                assertTrue(table[position + i] < n);
+                assertTrue(i == 0 || table[position + i] > table[position + i - 1]);
+                key.append(table[position + i]);
+            }
+            assertTrue(seen.add(key.toString()));
+        }
+    }
+}
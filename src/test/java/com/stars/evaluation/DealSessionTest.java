@@ -0,0 +1,138 @@
+package com.stars.evaluation;
+
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import com.stars.errors.ErrorCard;
+import com.stars.errors.ErrorHand;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Street by street results against the evaluation of the complete deal
+ */
+public class DealSessionTest {
+    @Test
+    public void riverMatchesTheCompleteDeal() throws Exception {
+        Random random = new Random(7);
+        for (int round = 0; round < 2000; round++) {
+            int holeCards = 4 + round % 3;
+            int players = 2 + random.nextInt(Math.min(Deal.MAX_HANDS, (PackedCard.DECK_SIZE - 5) / holeCards) - 1);
+            int[] deck = shuffledDeck(random);
+            int[][] hands = new int[players][holeCards];
+            for (int player = 0; player < players; player++) {
+                System.arraycopy(deck, 5 + player * holeCards, hands[player], 0, holeCards);
+            }
+            DealSession session = new DealSession(hands);
+            session.deal(deck[0], deck[1], deck[2]);
+            session.deal(deck[3]);
+            session.deal(deck[4]);
+
+            Deal deal = new Deal();
+            for (int player = 0; player < players; player++) {
+                System.arraycopy(hands[player], 0, deal.getHands()[player].setHoleCards(holeCards), 0, holeCards);
+            }
+            System.arraycopy(deck, 0, deal.getBoard().getCards(), 0, 5);
+            deal.setPlayers(players);
+            deal.getBoard().prepare();
+            HandEvaluator.evaluate(deal);
+
+            assertEquals(deal.getHiWinners(), session.getHiWinners());
+            assertEquals(deal.getLoWinners(), session.getLoWinners());
+            for (int player = 0; player < players; player++) {
+                Hand expected = deal.getHands()[player];
+                Hand hand = session.getHand(player);
+                assertEquals(expected.getHiScore(), hand.getHiScore());
+                assertEquals(expected.getRank(), hand.getRank());
+                assertArrayEquals(expected.getHiHand(), hand.getHiHand());
+                assertEquals(expected.getLoScore(), hand.getLoScore());
+                assertEquals(expected.getLoHand(), hand.getLoHand());
+            }
+        }
+    }
+
+    @Test
+    public void everyStreetHasTheBestHandSoFar() throws Exception {
+        DealSession session = new DealSession(new int[][] {cards("Ac-Kd-Jd-3d"), cards("5c-5d-6c-7d")});
+        assertEquals(0, session.getHiWinners());
+        session.deal(cards("Ah-Kh-5s"));
+        assertEquals(3, session.getBoardSize());
+        assertEquals(0b10, session.getHiWinners());
+        assertEquals("Three of a Kind", session.getHand(1).getRank().getDescription());
+        assertEquals(0, session.getLoWinners());
+        session.deal(cards("2s"));
+        assertEquals(0b10, session.getLoWinners());
+        assertEquals("7652A", session.getHand(1).toStringLoHand());
+        session.deal(cards("Ad"));
+        assertEquals(0b01, session.getHiWinners());
+        assertEquals("Full House", session.getHand(0).getRank().getDescription());
+        assertEquals(0b10, session.getLoWinners());
+    }
+
+    @Test
+    public void rejectsWrongHandsAndStreets() throws Exception {
+        assertError(ErrorHand.class, () -> new DealSession(new int[][] {cards("Ac-Kd-Jd-3d")}));
+        assertError(ErrorHand.class, () -> new DealSession(new int[][] {cards("Ac-Kd-Jd"), cards("5c-5d-6c")}));
+        assertError(ErrorHand.class, () -> new DealSession(new int[][] {cards("Ac-Kd-Jd-3d"), cards("5c-5d-6c-7d-8d")}));
+        assertError(ErrorCard.class, () -> new DealSession(new int[][] {cards("Ac-Kd-Jd-3d"), cards("Ac-5d-6c-7d")}));
+
+        DealSession session = new DealSession(new int[][] {cards("Ac-Kd-Jd-3d"), cards("5c-5d-6c-7d")});
+        assertError(ErrorCard.class, () -> session.deal(cards("Ah-Kh-5c")));
+        assertError(ErrorCard.class, () -> session.deal(PackedCard.INVALID));
+        DealSession river = new DealSession(new int[][] {cards("Ac-Kd-Jd-3d"), cards("5c-5d-6c-7d")});
+        river.deal(cards("Ah-Kh-5s-2s-Qd"));
+        assertError(ErrorHand.class, () -> river.deal(cards("Qs")));
+        assertEquals(5, river.getBoardSize());
+    }
+
+    @Test
+    public void failedStreetLeavesTheSessionUnchanged() throws Exception {
+        DealSession session = new DealSession(new int[][] {cards("Ac-Kd-Jd-3d"), cards("5c-5d-6c-7d")});
+        assertError(ErrorCard.class, () -> session.deal(cards("Ah-Kh-Ah")));
+        assertError(ErrorCard.class, () -> session.deal(cards("Ah-Kh-5c")));
+        assertEquals(0, session.getBoardSize());
+        assertEquals(0, session.getHiWinners());
+        session.deal(cards("Ah-Kh-5s"));
+        assertError(ErrorHand.class, () -> session.deal(cards("2s-Qd-Qs")));
+        assertEquals(3, session.getBoardSize());
+        session.deal(cards("2s-Qd"));
+        assertEquals(5, session.getBoardSize());
+    }
+
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private static void assertError(Class<? extends Exception> error, Step step) throws Exception {
+        try {
+            step.run();
+            fail(error.getSimpleName());
+        } catch (ErrorHand | ErrorCard e) {
+            assertEquals(error, e.getClass());
+        }
+    }
+
+    private static int[] shuffledDeck(Random random) {
+        int[] deck = new int[PackedCard.DECK_SIZE];
+        for (int index = 0; index < deck.length; index++) {
+            int pick = random.nextInt(index + 1);
+            deck[index] = deck[pick];
+            deck[pick] = PackedCard.fromIndex(index);
+        }
+        return deck;
+    }
+
+    private static int[] cards(String cards) {
+        String[] symbols = cards.split("-");
+        int[] packed = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            packed[i] = PackedCard.parse(symbols[i]);
+        }
+        return packed;
+    }
+}
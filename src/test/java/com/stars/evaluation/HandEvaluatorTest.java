@@ -0,0 +1,121 @@
+package com.stars.evaluation;
+
+import com.stars.entities.Deal;
+import com.stars.entities.Hand;
+import com.stars.entities.PackedCard;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Best hands and winners of 4, 5 and 6 card deals against the reference evaluator
+ *
+ * The reference tries every hole pair with every board triple.
+ */
+public class HandEvaluatorTest {
+    @Test
+    public void everyVariantMatchesTheReference() {
+        Random random = new Random(11);
+        Deal deal = new Deal();
+        for (int round = 0; round < 3000; round++) {
+            int holeCards = Combinations.MIN_HOLE_CARDS + round % 3;
+            int players = 2 + random.nextInt(Math.min(Deal.MAX_HANDS, (PackedCard.DECK_SIZE - 5) / holeCards) - 1);
+            int[] deck = shuffledDeck(random);
+            System.arraycopy(deck, 0, deal.getBoard().getCards(), 0, 5);
+            for (int player = 0; player < players; player++) {
+                System.arraycopy(deck, 5 + player * holeCards, deal.getHands()[player].setHoleCards(holeCards), 0, holeCards);
+            }
+            deal.setPlayers(players);
+            deal.setStatus(Deal.OK);
+            deal.getBoard().prepare();
+            assertMatchesReference(deal, "round " + round);
+        }
+    }
+
+    @Test
+    public void prunedBoardsMatchTheReference() {
+        // flush boards with suited pairs of the other suits, boards without a Low or with a single Low triple
+        assertMatchesReference("Ah-Kh-5h-2s-Qd", "Jh-Th-3c-4c", "Js-Ts-3d-4d", "Qc-Jc-4h-3s");
+        assertMatchesReference("Kh-Qh-9s-9c-Td", "Ah-2h-3c-4c", "As-Ks-Jd-8d", "8h-7h-6c-5c");
+        assertMatchesReference("2h-3h-4h-5h-6h", "Ah-7c-8c-Ks", "Ac-2c-Kh-Jd", "7h-8h-9d-Tc");
+        assertMatchesReference("As-Ks-7d-7c-2h", "3s-4s-5s-6s-8s", "3d-4d-5d-6d-8d");
+        assertMatchesReference("As-Ks-7d-7c-2h", "3s-4s-5s-6s-8s-9s", "3d-4d-5d-6d-8d-9d");
+    }
+
+    private static void assertMatchesReference(String board, String... hands) {
+        Deal deal = new Deal();
+        int[] cards = cards(board);
+        System.arraycopy(cards, 0, deal.getBoard().getCards(), 0, cards.length);
+        for (int player = 0; player < hands.length; player++) {
+            int[] hole = cards(hands[player]);
+            System.arraycopy(hole, 0, deal.getHands()[player].setHoleCards(hole.length), 0, hole.length);
+        }
+        deal.setPlayers(hands.length);
+        deal.setStatus(Deal.OK);
+        deal.getBoard().prepare();
+        assertMatchesReference(deal, board);
+    }
+
+    private static void assertMatchesReference(Deal deal, String message) {
+        HandEvaluator.evaluate(deal);
+        int players = deal.getPlayers();
+        int holeCards = deal.getHands()[0].getHoleCards();
+        int[] five = new int[5];
+        int[] bestHi = new int[players];
+        int[] bestLo = new int[players];
+        int topHi = 0;
+        int topLo = 0;
+        for (int player = 0; player < players; player++) {
+            Hand hand = deal.getHands()[player];
+            int[] pairs = Combinations.holePairs(holeCards);
+            for (int pair = 0; pair < pairs.length; pair += 2) {
+                for (int triple = 0; triple < Combinations.BOARD_TRIPLES.length; triple += 3) {
+                    five[0] = hand.getHand()[pairs[pair]];
+                    five[1] = hand.getHand()[pairs[pair + 1]];
+                    for (int i = 0; i < 3; i++) {
+                        five[2 + i] = deal.getBoard().getCards()[Combinations.BOARD_TRIPLES[triple + i]];
+                    }
+                    bestHi[player] = Math.max(bestHi[player], ReferenceEvaluator.hi(five));
+                    bestLo[player] = Math.max(bestLo[player], ReferenceEvaluator.lo(five));
+                }
+            }
+            assertEquals(bestHi[player], ReferenceEvaluator.hi(hand.getHiHand()));
+            assertEquals(bestHi[player] >>> ReferenceEvaluator.CATEGORY_SHIFT, hand.getRank().getRank());
+            assertEquals(bestLo[player] != 0, hand.getLoScore() != LoEvaluator.NO_LOW);
+            if (bestLo[player] != 0) {
+                assertEquals(bestLo[player], ReferenceEvaluator.lo(hand.getLoCards()));
+            }
+            topHi = Math.max(topHi, bestHi[player]);
+            topLo = Math.max(topLo, bestLo[player]);
+        }
+        int hiWinners = 0;
+        int loWinners = 0;
+        for (int player = 0; player < players; player++) {
+            hiWinners |= bestHi[player] == topHi ? 1 << player : 0;
+            loWinners |= topLo != 0 && bestLo[player] == topLo ? 1 << player : 0;
+        }
+        assertEquals(message, hiWinners, deal.getHiWinners());
+        assertEquals(message, loWinners, deal.getLoWinners());
+    }
+
+    private static int[] shuffledDeck(Random random) {
+        int[] deck = new int[PackedCard.DECK_SIZE];
+        for (int index = 0; index < deck.length; index++) {
+            int pick = random.nextInt(index + 1);
+            deck[index] = deck[pick];
+            deck[pick] = PackedCard.fromIndex(index);
+        }
+        return deck;
+    }
+
+    private static int[] cards(String cards) {
+        String[] symbols = cards.split("-");
+        int[] packed = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            packed[i] = PackedCard.parse(symbols[i]);
+        }
+        return packed;
+    }
+}
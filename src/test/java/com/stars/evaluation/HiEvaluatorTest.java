@@ -0,0 +1,87 @@
+package com.stars.evaluation;
+
+import com.stars.HandEnum;
+import com.stars.entities.PackedCard;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * All five card hands against the reference evaluator
+ */
+public class HiEvaluatorTest {
+    /**
+     * Hands of each category 1-9, high card up to straight flush
+     */
+    private static final int[] CATEGORY_HANDS = {0, 1302540, 1098240, 123552, 54912, 10200, 5108, 3744, 624, 40};
+
+    @Test
+    public void everyHandHasReferenceCategoryAndOrder() {
+        int[] reference = new int[AllHands.COUNT];
+        int[] fast = new int[AllHands.COUNT];
+        AtomicIntegerArray categories = new AtomicIntegerArray(CATEGORY_HANDS.length);
+        AllHands.forEach((index, cards) -> {
+            reference[index] = ReferenceEvaluator.hi(cards);
+            fast[index] = HiEvaluator.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]);
+            int category = reference[index] >>> ReferenceEvaluator.CATEGORY_SHIFT;
+            assertEquals(category, HiEvaluator.category(fast[index]).getRank());
+            categories.incrementAndGet(category);
+        });
+        for (int category = 1; category < CATEGORY_HANDS.length; category++) {
+            assertEquals("hands of category " + category, CATEGORY_HANDS[category], categories.get(category));
+        }
+        assertEquals(7462, AllHands.assertSameOrder(reference, fast));
+    }
+
+    @Test
+    public void rankTablesMatchFullEvaluation() {
+        AllHands.forEach((index, cards) -> {
+            if ((cards[0] & cards[1] & cards[2] & cards[3] & cards[4] & 0xF000) != 0) {
+                return;
+            }
+            int strength = HiEvaluator.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]);
+            assertEquals(strength, HiEvaluator.evaluateRanks(HiEvaluator.pairKey(cards[0], cards[1]),
+                    HiEvaluator.tripleKey(cards[2], cards[3], cards[4])));
+            assertEquals(strength, HiEvaluator.evaluateRanks(HiEvaluator.pairKey(cards[4], cards[2]),
+                    HiEvaluator.tripleKey(cards[3], cards[0], cards[1])));
+        });
+    }
+
+    @Test
+    public void featuresMatchCards() {
+        AllHands.forEach((index, cards) -> {
+            int ranks = 0;
+            int suits = 0xF;
+            int product = 1;
+            for (int card : cards) {
+                ranks |= PackedCard.rankBit(card);
+                suits &= PackedCard.suitBit(card);
+                product *= PackedCard.prime(card);
+            }
+            assertEquals(HiEvaluator.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]),
+                    HiEvaluator.evaluate(ranks, suits, product));
+        });
+    }
+
+    @Test
+    public void strengthHoldsCategoryAndDecidingRanks() {
+        assertEquals(HandEnum.FULL.getRank() << HiEvaluator.CATEGORY_SHIFT | 11 << 16 | 10 << 12,
+                evaluate("Kc-Kd-Kh-Qs-Qc"));
+        // the wheel is 5 high
+        assertEquals(HandEnum.STRAIGHT.getRank() << HiEvaluator.CATEGORY_SHIFT | 3 << 16, evaluate("Ac-2d-3h-4s-5c"));
+        assertTrue(evaluate("6c-2d-3h-4s-5c") > evaluate("Ac-2d-3h-4s-5c"));
+        assertEquals(evaluate("Ac-Kd-9h-5s-2c"), evaluate("Ad-Kh-9s-5c-2d"));
+    }
+
+    private static int evaluate(String hand) {
+        String[] symbols = hand.split("-");
+        int[] cards = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            cards[i] = PackedCard.parse(symbols[i]);
+        }
+        return HiEvaluator.evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]);
+    }
+}
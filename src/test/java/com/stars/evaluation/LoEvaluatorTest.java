@@ -0,0 +1,39 @@
+package com.stars.evaluation;
+
+import com.stars.entities.PackedCard;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * All five card hands against the reference 8-or-better Low
+ */
+public class LoEvaluatorTest {
+    /**
+     * 56 sets of 5 different ranks of 8 or below, in any of 4 suits each
+     */
+    private static final int QUALIFYING_HANDS = LoEvaluator.LOW_HANDS * 4 * 4 * 4 * 4 * 4;
+
+    @Test
+    public void everyHandHasReferenceLow() {
+        int[] reference = new int[AllHands.COUNT];
+        int[] fast = new int[AllHands.COUNT];
+        AtomicInteger qualifying = new AtomicInteger();
+        AllHands.forEach((index, cards) -> {
+            int low = 0;
+            for (int card : cards) {
+                low |= PackedCard.lowBit(card);
+            }
+            reference[index] = ReferenceEvaluator.lo(cards);
+            fast[index] = LoEvaluator.evaluate(low);
+            assertEquals(reference[index] != 0, fast[index] != LoEvaluator.NO_LOW);
+            if (fast[index] != LoEvaluator.NO_LOW) {
+                qualifying.incrementAndGet();
+            }
+        });
+        assertEquals(QUALIFYING_HANDS, qualifying.get());
+        assertEquals(LoEvaluator.LOW_HANDS + 1, AllHands.assertSameOrder(reference, fast));
+    }
+}
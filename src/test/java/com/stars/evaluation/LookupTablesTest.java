@@ -0,0 +1,58 @@
+package com.stars.evaluation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Resource generated by the build against the tables generated in process
+ */
+public class LookupTablesTest {
+    private byte[] resource;
+    private int[][] tables;
+
+    @Before
+    public void readResource() throws IOException {
+        try (InputStream input = LookupTables.class.getResourceAsStream(LookupTables.RESOURCE)) {
+            assertNotNull("run by mvn test after process-classes", input);
+            resource = input.readAllBytes();
+        }
+        tables = new int[HiEvaluator.TABLES.length][];
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new int[HiEvaluator.TABLES[i].length];
+        }
+    }
+
+    @Test
+    public void resourceHoldsTheGeneratedTables() {
+        assertTrue(LookupTables.read(ByteBuffer.wrap(resource), tables));
+        HiEvaluator.generate();
+        for (int i = 0; i < tables.length; i++) {
+            assertArrayEquals("table " + i, HiEvaluator.TABLES[i], tables[i]);
+        }
+    }
+
+    @Test
+    public void resourceOfOtherGeneratorClassesIsIgnored() {
+        resource[8] ^= 1;
+        assertFalse(LookupTables.read(ByteBuffer.wrap(resource), tables));
+    }
+
+    @Test
+    public void damagedResourceIsIgnored() {
+        resource[resource.length - 1] ^= 1;
+        assertFalse(LookupTables.read(ByteBuffer.wrap(resource), tables));
+        resource[resource.length - 1] ^= 1;
+        resource[4] = LookupTables.VERSION + 1;
+        assertFalse(LookupTables.read(ByteBuffer.wrap(resource), tables));
+        assertFalse(LookupTables.read(ByteBuffer.wrap(resource, 0, resource.length / 2).slice(), tables));
+    }
+}
@@ -0,0 +1,113 @@
+package com.stars.evaluation;
+
+import com.stars.entities.PackedCard;
+
+import java.util.Arrays;
+
+/**
+ * Straightforward 5 card evaluator, the oracle of the evaluator tests
+ *
+ * Counts the ranks and orders them by count and rank without any tables,
+ * so it shares no code with the evaluators it checks. The values are only
+ * comparable with each other, not with the scores of the fast evaluators.
+ */
+final class ReferenceEvaluator {
+    static final int CATEGORY_SHIFT = 20;
+
+    private static final int LOW_LIMIT = 8;
+
+    private ReferenceEvaluator() {
+    }
+
+    /**
+     * Hi value: category 1-9 shifted by {@link #CATEGORY_SHIFT} and the ranks
+     * breaking the ties, 4 bits each from the most important one
+     *
+     * @param cards 5 packed cards
+     * @return value, higher is better
+     */
+    static int hi(int[] cards) {
+        int[] counts = new int[13];
+        boolean flush = true;
+        for (int card : cards) {
+            counts[PackedCard.rank(card)]++;
+            flush &= PackedCard.suit(card) == PackedCard.suit(cards[0]);
+        }
+        int[] order = new int[5];
+        int distinct = 0;
+        for (int count = 4; count >= 1; count--) {
+            for (int rank = 12; rank >= 0; rank--) {
+                if (counts[rank] == count) {
+                    order[distinct++] = rank;
+                }
+            }
+        }
+
+        int straight = -1;
+        if (distinct == 5 && order[0] - order[4] == 4) {
+            straight = order[0];
+        } else if (distinct == 5 && order[0] == PackedCard.ACE && order[1] == 3) {
+            straight = 3;
+        }
+        int first = counts[order[0]];
+        int second = distinct > 1 ? counts[order[1]] : 0;
+
+        int category;
+        if (straight >= 0 && flush) {
+            category = 9;
+        } else if (first == 4) {
+            category = 8;
+        } else if (first == 3 && second == 2) {
+            category = 7;
+        } else if (flush) {
+            category = 6;
+        } else if (straight >= 0) {
+            category = 5;
+        } else if (first == 3) {
+            category = 4;
+        } else if (first == 2 && second == 2) {
+            category = 3;
+        } else if (first == 2) {
+            category = 2;
+        } else {
+            category = 1;
+        }
+
+        int kickers = 0;
+        if (straight >= 0) {
+            kickers = straight << 16;
+        } else {
+            for (int i = 0; i < distinct; i++) {
+                kickers |= order[i] << (16 - 4 * i);
+            }
+        }
+        return category << CATEGORY_SHIFT | kickers;
+    }
+
+    /**
+     * Lo value of the 8-or-better Low: 5 different ranks of 8 or below, ace low,
+     * compared from the highest card down
+     *
+     * @param cards 5 packed cards
+     * @return 0 if the cards do not qualify, otherwise positive and higher is better
+     */
+    static int lo(int[] cards) {
+        int[] values = new int[cards.length];
+        for (int i = 0; i < cards.length; i++) {
+            int rank = PackedCard.rank(cards[i]);
+            values[i] = rank == PackedCard.ACE ? 1 : rank + 2;
+            if (values[i] > LOW_LIMIT) {
+                return 0;
+            }
+        }
+        Arrays.sort(values);
+        int code = 0;
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (i > 0 && values[i] == values[i - 1]) {
+                return 0;
+            }
+            code = code << 4 | values[i];
+        }
+        return (1 << 20) - code;
+    }
+}
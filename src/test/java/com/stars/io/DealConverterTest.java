@@ -0,0 +1,150 @@
+package com.stars.io;
+
+import com.stars.entities.Deal;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Binary deal records and the conversion of whole files
+ */
+public class DealConverterTest {
+    private static final String[] LINES = {
+            "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd",
+            "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-6d Board:Ad-Kh-5s-2d-Qd",
+            "Max:Qs-Qc-7h-6h Zo\u00e9:2c-2d-9h-9s Bob:3c-4c-8h-Th Board:Ah-Kh-5s-2s-Qd",
+            "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd",
+            "HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd",
+            "HandA:Ac-Kd-Jd-3d HandB:Ac-5d-6c-7d Board:Ah-Kh-5s-2s-Qd",
+            "handa:ac-kd-jd-3d handb:5c-5d-6c-7d board:ah-kh-5s-2s-qd",
+            "HandA:Ac-Kd-Jd-3d  HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd",
+            "",
+            "HandA:Ac-Kd-Jd-3d-9c-9d HandB:5c-5d-6c-7d-Th-Td Board:Ah-Kh-5s-2s-Qd",
+    };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void textRoundTripsThroughBinary() throws IOException {
+        Path text = write(String.join("\n", LINES) + "\n");
+        Path binary = folder.newFile("deals.omhd").toPath();
+        Path back = folder.newFile("back.txt").toPath();
+
+        assertEquals(LINES.length, DealConverter.toBinary(text, binary));
+        assertTrue(BinaryDeals.isDeals(binary));
+        assertFalse(BinaryDeals.isDeals(text));
+        assertTrue(Files.size(binary) < Files.size(text));
+        assertEquals(LINES.length, DealConverter.toText(binary, back));
+        assertEquals(String.join(System.lineSeparator(), LINES) + System.lineSeparator(),
+                new String(Files.readAllBytes(back), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void dealsOfTheSameNamesTakeElevenBytes() {
+        DealParser parser = new DealParser();
+        Deal deal = new Deal();
+        DealWriter writer = new DealWriter(16);
+        writer.writeHeader();
+        assertEquals(BinaryDeals.HEADER, writer.size());
+
+        assertEquals(Deal.OK, parse(parser, LINES[0], deal));
+        assertTrue(writer.writeDeal(deal));
+        int first = writer.size();
+        assertEquals(Deal.OK, parse(parser, LINES[1], deal));
+        assertTrue(writer.writeDeal(deal));
+        assertEquals(11, writer.size() - first);
+
+        assertEquals(Deal.OK, parse(parser, "HandA:Ac-Kd-Jd-3d " + "B".repeat(256) + ":5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd", deal));
+        int size = writer.size();
+        assertFalse(writer.writeDeal(deal));
+        assertEquals(size, writer.size());
+    }
+
+    @Test
+    public void decoderGivesBackTheDeals() throws IOException {
+        DealParser parser = new DealParser();
+        Deal deal = new Deal();
+        DealWriter writer = new DealWriter(16);
+        for (String line : LINES) {
+            if (parse(parser, line, deal) != Deal.OK || !writer.writeDeal(deal)) {
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                writer.writeRaw(ByteBuffer.wrap(bytes), 0, bytes.length);
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.writeTo(Channels.newChannel(output));
+        ByteBuffer records = ByteBuffer.wrap(output.toByteArray());
+
+        DealDecoder decoder = new DealDecoder();
+        Deal decoded = new Deal();
+        int position = 0;
+        for (String line : LINES) {
+            position = decoder.decode(records, position, records.limit(), decoded);
+            assertEquals(parse(parser, line, deal), decoded.getStatus());
+            if (deal.getStatus() == Deal.OK) {
+                assertEquals(deal.getPlayers(), decoded.getPlayers());
+                for (int i = 0; i < deal.getPlayers(); i++) {
+                    assertEquals(deal.getHands()[i].getName(), decoded.getHands()[i].getName());
+                    assertArrayEquals(deal.getHands()[i].getHand(), decoded.getHands()[i].getHand());
+                }
+                assertArrayEquals(deal.getBoard().getCards(), decoded.getBoard().getCards());
+            }
+        }
+        assertEquals(-1, decoder.decode(records, position, records.limit(), decoded));
+        assertEquals(records.limit(), position);
+    }
+
+    @Test
+    public void truncatedFileIsAnError() throws IOException {
+        Path text = write(LINES[0] + "\n" + LINES[2] + "\n");
+        Path binary = folder.newFile("deals.omhd").toPath();
+        DealConverter.toBinary(text, binary);
+        byte[] bytes = Files.readAllBytes(binary);
+        Files.write(binary, Arrays.copyOf(bytes, bytes.length - 1));
+        try {
+            DealConverter.toText(binary, folder.newFile("back.txt").toPath());
+            fail("truncated file converted");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Truncated"));
+        }
+    }
+
+    @Test
+    public void namesRecordShorterThanItsCountIsAnError() throws IOException {
+        // 2 names announced, only the first in the record and nothing after it
+        ByteBuffer records = ByteBuffer.wrap(new byte[] {BinaryDeals.NAMES << 4, 0, 0, 0, 3, 2, 1, 'A'});
+        try {
+            new DealDecoder().decode(records, 0, records.limit(), new Deal());
+            fail("broken names record decoded");
+        } catch (IOException e) {
+            assertEquals("Broken names record at 0", e.getMessage());
+        }
+    }
+
+    private Path write(String text) throws IOException {
+        Path path = folder.newFile("deals.txt").toPath();
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static int parse(DealParser parser, String line, Deal deal) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, deal);
+    }
+}
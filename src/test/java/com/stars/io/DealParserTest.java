@@ -0,0 +1,86 @@
+package com.stars.io;
+
+import com.stars.entities.Deal;
+import com.stars.entities.PackedCard;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Deals and errors of the byte level parser
+ */
+public class DealParserTest {
+    private final DealParser parser = new DealParser();
+    private final Deal deal = new Deal();
+
+    @Test
+    public void parsesHandsAndBoard() {
+        assertEquals(Deal.OK, parse("HandA:Ac-Kd-Jd-3d  HandB:5c-5d-6c-7d\tBoard:Ah-Kh-5s-2s-Qd"));
+        assertEquals(2, deal.getPlayers());
+        assertEquals("HandB", deal.getHands()[1].getName());
+        assertEquals(PackedCard.parse('5', 'c'), deal.getHands()[1].getHand()[0]);
+        assertEquals(PackedCard.parse('Q', 'd'), deal.getBoard().getCards()[4]);
+    }
+
+    @Test
+    public void reportsErrorsInTheOrderOfTheLine() {
+        // numbers of cards of the first hand and the board before any card
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd HandB:5c-5d-6c-7d Board:Xh-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Xc-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s"));
+        // cards of the first hand and the board before the other hands
+        assertEquals(Deal.ERROR_CARD, parse("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c Board:Xh-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_CARD, parse("HandA:Ac-Kd-Jd-Xd HandB:5c-5d-6c Board:Ah-Kh-5s-2s-Qd"));
+        // number of cards of a later hand before its cards
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd-3d HandB:Xc-5d-6c Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_CARD, parse("HandA:Ac-Kd-Jd-3d HandB:Xc-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_CARD, parse("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Ac"));
+    }
+
+    @Test
+    public void acceptsLabelsInAnyCase() {
+        assertEquals(Deal.OK, parse("handa:Ac-Kd-Jd-3d handb:5c-5d-6c-7d board:Ah-Kh-5s-2s-Qd"));
+        assertEquals("handb", deal.getHands()[1].getName());
+        assertEquals(PackedCard.parse('Q', 'd'), deal.getBoard().getCards()[4]);
+        assertEquals(Deal.OK, parse("HANDA:ac-kd-jd-3d HANDB:5C-5D-6C-7D BOARD:AH-KH-5S-2S-QD"));
+        assertEquals("HANDA", deal.getHands()[0].getName());
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd-3d board:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+    }
+
+    @Test
+    public void rejectsMalformedLines() {
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d"));
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd-3d HandB 5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d-8d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_CARD, parse("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7 Board:Ah-Kh-5s-2s-Qd"));
+        // an empty card makes 5 split parts like the extra card of the 4 card format
+        assertEquals(Deal.ERROR_HAND, parse("HandA:-Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd-3d HandB:-5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac--Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_CARD, parse("HandA:-Ac-Kd-Jd HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+    }
+
+    @Test
+    public void takesTheVariantFromTheFirstHand() {
+        assertEquals(Deal.OK, parse("HandA:Ac-Kd-Jd-3d-9c HandB:5c-5d-6c-7d-9d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(5, deal.getHoleCards());
+        assertEquals(PackedCard.parse('9', 'd'), deal.getHands()[1].getHand()[4]);
+        assertEquals(Deal.OK, parse("HandA:Ac-Kd-Jd-3d-9c-Tc HandB:5c-5d-6c-7d-9d-Td Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(6, deal.getHoleCards());
+        assertEquals(6, deal.getHands()[1].getHoleCards());
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd-3d-9c HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_HAND, parse("HandA:Ac-Kd-Jd HandB:5c-5d-6c Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.ERROR_HAND,
+                parse("HandA:Ac-Kd-Jd-3d-9c-Tc-Jc HandB:5c-5d-6c-7d-9d-Td-Jh Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(Deal.OK, parse("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd"));
+        assertEquals(4, deal.getHoleCards());
+    }
+
+    private int parse(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, deal);
+    }
+}
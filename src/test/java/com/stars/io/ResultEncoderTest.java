@@ -0,0 +1,101 @@
+package com.stars.io;
+
+import com.stars.HandEnum;
+import com.stars.entities.Deal;
+import com.stars.evaluation.HandEvaluator;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Text and binary rendering of evaluated deals
+ */
+public class ResultEncoderTest {
+    private final DealParser parser = new DealParser();
+    private final Deal deal = new Deal();
+
+    @Test
+    public void rendersTheLineAndItsResult() {
+        ResultEncoder encoder = new ResultEncoder(1);
+        encode(encoder, "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd");
+        assertEquals("HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd\n"
+                + "=> HandB wins Hi (Three of a Kind); HandB wins Lo (7652A)\n", encoder.toString());
+    }
+
+    @Test
+    public void namesTheWinnersOfSplitPots() {
+        assertResult("Split Pot Hi (Straight); Split Pot Lo (5432A)",
+                "HandA:Ah-2s-Qd-9S HandB:Ac-2d-As-Jh Board:Kd-4h-Kh-5s-3c");
+        assertResult("HandC wins Hi (Three of a Kind); HandB, HandC split Lo (7652A)",
+                "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d HandC:Qs-Qc-7h-6h Board:Ah-Kh-5s-2s-Qd");
+        assertResult("HandA wins Hi (Flush); No hand qualified for Low",
+                "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-6d Board:Ad-Kh-5s-2d-Qd");
+    }
+
+    @Test
+    public void namesFollowEveryLine() {
+        assertResult("Zo\u00e9 wins Hi (Three of a Kind); Zo\u00e9 wins Lo (7652A)",
+                "Max:Ac-Kd-Jd-3d Zo\u00e9:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd");
+        assertResult("Bob wins Hi (Three of a Kind); Bob wins Lo (7652A)",
+                "Max:Ac-Kd-Jd-3d Bob:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd");
+    }
+
+    @Test
+    public void errorsKeepTheLine() {
+        assertResult(" Error in hand/board", "HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd");
+        assertResult(" Error in card", "HandA:Ac-Kd-Jd-3d HandB:Ac-5d-6c-7d Board:Ah-Kh-5s-2s-Qd");
+    }
+
+    @Test
+    public void binaryRecordsHoldWinnerBitsCategoryAndLow() throws IOException {
+        ResultEncoder encoder = new ResultEncoder(1, true);
+        encoder.header();
+        encode(encoder, "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d HandC:Qs-Qc-7h-6h Board:Ah-Kh-5s-2s-Qd");
+        encoder.newLine();
+        encode(encoder, "HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd");
+        byte[] header = BinaryDeals.header(BinaryDeals.RESULTS_MAGIC);
+        int low = 1 | 1 << 1 | 1 << 4 | 1 << 5 | 1 << 6;
+        assertArrayEquals(new byte[] {
+                header[0], header[1], header[2], header[3], header[4], 0, 0, 0,
+                Deal.OK, 3, 0, 0b100, 0, 0b110, (byte) HandEnum.TREE_OF_KUND.getRank(), (byte) low,
+                Deal.ERROR_HAND, 0, 0, 0, 0, 0, 0, 0}, written(encoder));
+    }
+
+    @Test
+    public void writingClearsTheBuffer() throws IOException {
+        ResultEncoder encoder = new ResultEncoder(16);
+        encode(encoder, "HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd");
+        encoder.newLine();
+        assertEquals("HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd\n=>  Error in hand/board\n" + System.lineSeparator(),
+                new String(written(encoder), StandardCharsets.UTF_8));
+        assertEquals(0, written(encoder).length);
+    }
+
+    private void assertResult(String result, String line) {
+        ResultEncoder encoder = new ResultEncoder(256);
+        encode(encoder, line);
+        assertEquals(line + "\n=> " + result + "\n", encoder.toString());
+    }
+
+    private void encode(ResultEncoder encoder, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer input = ByteBuffer.wrap(bytes);
+        if (parser.parse(input, 0, bytes.length, deal) == Deal.OK) {
+            HandEvaluator.evaluate(deal);
+        }
+        encoder.encode(input, 0, bytes.length, deal);
+    }
+
+    private static byte[] written(ResultEncoder encoder) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        encoder.writeTo(Channels.newChannel(output));
+        return output.toByteArray();
+    }
+}
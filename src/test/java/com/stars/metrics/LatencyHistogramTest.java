@@ -0,0 +1,90 @@
+package com.stars.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Buckets and percentiles of the latency histogram
+ */
+public class LatencyHistogramTest {
+    private static final long MAX_VALUE = (1L << 40) - 1;
+
+    @Test
+    public void smallValuesAreExact() {
+        for (int value = 0; value < 32; value++) {
+            assertEquals(value, LatencyHistogram.bucket(value));
+            assertEquals(value, LatencyHistogram.highest(value));
+        }
+    }
+
+    @Test
+    public void bucketsAreContiguousAndNarrow() {
+        long lowest = 0;
+        int last = LatencyHistogram.bucket(MAX_VALUE);
+        for (int bucket = 0; bucket <= last; bucket++) {
+            long highest = LatencyHistogram.highest(bucket);
+            assertEquals(bucket, LatencyHistogram.bucket(lowest));
+            assertEquals(bucket, LatencyHistogram.bucket(highest));
+            assertTrue("bucket " + bucket, highest - lowest <= lowest / 32);
+            lowest = highest + 1;
+        }
+        assertEquals(MAX_VALUE, LatencyHistogram.highest(last));
+    }
+
+    @Test
+    public void percentilesAreTheHighestValueOfTheirBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMax());
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertPercentile(500_000, histogram.getPercentile(50));
+        assertPercentile(990_000, histogram.getPercentile(99));
+        assertPercentile(1_000_000, histogram.getPercentile(100));
+        assertPercentile(1000, histogram.getPercentile(0));
+        assertEquals(histogram.getPercentile(100), histogram.getMax());
+    }
+
+    @Test
+    public void valuesOutOfRangeAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(MAX_VALUE, histogram.getMax());
+        assertEquals(2, histogram.getCount());
+    }
+
+    @Test
+    public void threadsRecordWithoutLosingCounts() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int value = 0; value < 100_000; value++) {
+                    histogram.record(value);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(400_000, histogram.getCount());
+    }
+
+    /**
+     * Value of the bucket at most about 3% above the exact percentile
+     */
+    private static void assertPercentile(long exact, long value) {
+        assertTrue(value + " for " + exact, value >= exact && value <= exact + exact / 32);
+    }
+}
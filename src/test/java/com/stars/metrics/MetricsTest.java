@@ -0,0 +1,80 @@
+package com.stars.metrics;
+
+import com.stars.entities.Deal;
+import com.stars.evaluation.HandEvaluator;
+import com.stars.io.DealParser;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counters and stage latencies of the pipeline metrics
+ */
+public class MetricsTest {
+    private final DealParser parser = new DealParser();
+    private final Deal deal = new Deal();
+
+    @Test
+    public void sampleIntervalIsAPowerOfTwo() {
+        assertEquals(Metrics.SAMPLE_INTERVAL, new Metrics().getSampleInterval());
+        assertEquals(64, new Metrics(50).getSampleInterval());
+        assertEquals(1, new Metrics(0).getSampleInterval());
+        Metrics metrics = new Metrics(4);
+        assertTrue(metrics.isSampled(0));
+        assertFalse(metrics.isSampled(3));
+        assertTrue(metrics.isSampled(8));
+    }
+
+    @Test
+    public void countsLinesErrorsAndResults() {
+        Metrics metrics = new Metrics();
+        String first = "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd";
+        count(metrics, first);
+        count(metrics, "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-6d Board:Ad-Kh-5s-2d-Qd");
+        count(metrics, "HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd");
+        count(metrics, "HandA:Ac-Kd-Jd-3d HandB:Ac-5d-6c-7d Board:Ah-Kh-5s-2s-Qd");
+
+        assertEquals(4, metrics.getLines());
+        assertEquals(1, metrics.getHandErrors());
+        assertEquals(1, metrics.getCardErrors());
+        assertEquals(1, metrics.getLowHands());
+        Map<String, Long> categories = metrics.getCategories();
+        assertEquals(9, categories.size());
+        assertEquals(2, (long) categories.get("Flush"));
+        assertEquals(1, (long) categories.get("Three of a Kind"));
+        assertEquals(1, (long) categories.get("Two Pair"));
+        assertEquals(0, (long) categories.get("Straight Flush"));
+        assertTrue(metrics.getBytes() > 3 * first.length());
+        assertTrue(metrics.getLinesPerSecond() > 0);
+    }
+
+    @Test
+    public void latenciesOfEveryStage() {
+        Metrics metrics = new Metrics();
+        long start = System.nanoTime();
+        long end = metrics.record(Metrics.EVALUATE, start);
+        assertTrue(end >= start);
+        assertEquals(1, metrics.getLatency(Metrics.EVALUATE).getCount());
+        assertEquals(0, metrics.getLatency(Metrics.PARSE).getCount());
+
+        Map<String, Double> micros = metrics.getLatencyMicros();
+        assertEquals(4 * Metrics.stages(), micros.size());
+        assertEquals("evaluate", Metrics.stageName(Metrics.EVALUATE));
+        assertTrue(micros.get("evaluate.max") >= micros.get("evaluate.p50"));
+        assertEquals(0, micros.get("write.p99"), 0);
+    }
+
+    private void count(Metrics metrics, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        if (parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, deal) == Deal.OK) {
+            HandEvaluator.evaluate(deal);
+        }
+        metrics.count(deal, bytes.length);
+    }
+}
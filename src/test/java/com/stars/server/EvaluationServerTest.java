@@ -0,0 +1,141 @@
+package com.stars.server;
+
+import com.stars.OmahaEvaluator;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * TCP and HTTP requests against a running server
+ */
+public class EvaluationServerTest {
+    private static final String FIRST = "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-7d Board:Ah-Kh-5s-2s-Qd";
+    private static final String SECOND = "HandA:Ac-Kd-Jd-3d HandB:5c-5d-6c-6d Board:Ad-Kh-5s-2d-Qd";
+    private static final String ERROR = "HandA:Ac-Kd-Jd-3d Board:Ah-Kh-5s-2s-Qd";
+
+    private static final String FIRST_RESULT = block(FIRST, "HandB wins Hi (Three of a Kind); HandB wins Lo (7652A)");
+    private static final String SECOND_RESULT = block(SECOND, "HandA wins Hi (Flush); No hand qualified for Low");
+    private static final String ERROR_RESULT = block(ERROR, " Error in hand/board");
+
+    private static EvaluationServer server;
+    private static InetSocketAddress tcp;
+    private static InetSocketAddress http;
+
+    @BeforeClass
+    public static void start() throws IOException {
+        server = new EvaluationServer(new OmahaEvaluator());
+        tcp = server.startTcp(0);
+        http = server.startHttp(0);
+    }
+
+    @AfterClass
+    public static void stop() throws Exception {
+        server.close();
+        server.await();
+    }
+
+    @Test
+    public void pipelinedLinesAreAnsweredInOrder() throws IOException {
+        try (Socket socket = new Socket("localhost", tcp.getPort())) {
+            socket.getOutputStream().write((FIRST + "\n" + SECOND + "\n" + ERROR + "\n").getBytes(StandardCharsets.US_ASCII));
+            assertEquals(FIRST_RESULT + SECOND_RESULT + ERROR_RESULT, read(socket, 3));
+        }
+    }
+
+    @Test
+    public void linesSplitAcrossWritesAreJoined() throws Exception {
+        try (Socket socket = new Socket("localhost", tcp.getPort())) {
+            OutputStream output = socket.getOutputStream();
+            output.write(FIRST.substring(0, 20).getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            Thread.sleep(50);
+            output.write((FIRST.substring(20) + "\r\n" + SECOND.substring(0, 30)).getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            assertEquals(FIRST_RESULT, read(socket, 1));
+            output.write(SECOND.substring(30).getBytes(StandardCharsets.US_ASCII));
+            socket.shutdownOutput();
+            assertEquals(SECOND_RESULT, readAll(socket));
+        }
+    }
+
+    @Test
+    public void httpPostEvaluatesTheBody() throws IOException {
+        HttpURLConnection connection = post((FIRST + "\n" + ERROR).getBytes(StandardCharsets.US_ASCII));
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("text/plain; charset=utf-8", connection.getContentType());
+        try (InputStream body = connection.getInputStream()) {
+            assertEquals(FIRST_RESULT + ERROR_RESULT, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void httpAcceptsOnlyPost() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url().openConnection();
+        assertEquals(405, connection.getResponseCode());
+        assertEquals("POST", connection.getHeaderField("Allow"));
+    }
+
+    @Test
+    public void httpRejectsTooLargeBodies() throws IOException {
+        HttpURLConnection connection = post(new byte[EvaluationServer.MAX_REQUEST + 1]);
+        assertEquals(413, connection.getResponseCode());
+    }
+
+    /**
+     * Block of the line in the output file
+     */
+    private static String block(String line, String result) {
+        return line + "\n=> " + result + "\n" + System.lineSeparator();
+    }
+
+    /**
+     * Read the answers of the given number of lines, each ends with an empty line
+     */
+    private static String read(Socket socket, int lines) throws IOException {
+        InputStream input = socket.getInputStream();
+        StringBuilder text = new StringBuilder();
+        String end = "\n" + System.lineSeparator();
+        int found = 0;
+        while (found < lines) {
+            int b = input.read();
+            if (b < 0) {
+                break;
+            }
+            text.append((char) b);
+            if (text.length() >= end.length() && text.lastIndexOf(end) == text.length() - end.length()) {
+                found++;
+            }
+        }
+        return text.toString();
+    }
+
+    private static String readAll(Socket socket) throws IOException {
+        return new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+    }
+
+    private static HttpURLConnection post(byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url().openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(body);
+        }
+        return connection;
+    }
+
+    private static URL url() throws IOException {
+        return new URL("http://localhost:" + http.getPort() + "/evaluate");
+    }
+}